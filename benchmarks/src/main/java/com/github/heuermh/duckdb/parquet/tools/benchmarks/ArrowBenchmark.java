@@ -0,0 +1,128 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools.benchmarks;
+
+import java.nio.file.Path;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import java.util.List;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+
+import org.apache.arrow.vector.ipc.ArrowReader;
+
+import org.duckdb.DuckDBResultSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of reading every value of wide and long results through DuckDB's Arrow
+ * export versus the JDBC row path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ArrowBenchmark {
+
+    /** Wide results, 1000 columns by 20000 rows; long results, 4 columns by 5000000 rows. */
+    @Param({ "wide", "long" })
+    private String shape;
+
+    private Path directory;
+    private String sql;
+
+    /** Select SQL query. */
+    private static final String SELECT_SQL = "SELECT * from read_parquet('%s')";
+
+    /** Arrow record batch size, in rows. */
+    private static final long BATCH_SIZE = 16384L;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = SyntheticParquet.createTempDirectory();
+        Path parquetFile = "wide".equals(shape)
+            ? SyntheticParquet.create(directory, 1000, 20000L, "ZSTD")
+            : SyntheticParquet.create(directory, 4, 5000000L, "ZSTD");
+        sql = String.format(SELECT_SQL, parquetFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        SyntheticParquet.delete(directory);
+    }
+
+    @Benchmark
+    public void arrow(final Blackhole blackhole) throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:duckdb:");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql);
+             BufferAllocator allocator = new RootAllocator();
+             ArrowReader reader = (ArrowReader) resultSet.unwrap(DuckDBResultSet.class).arrowExportStream(allocator, BATCH_SIZE)) {
+
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            List<FieldVector> vectors = root.getFieldVectors();
+            while (reader.loadNextBatch()) {
+                for (int row = 0, rows = root.getRowCount(); row < rows; row++) {
+                    for (int i = 0, columns = vectors.size(); i < columns; i++) {
+                        blackhole.consume(vectors.get(i).getObject(row));
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void jdbc(final Blackhole blackhole) throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:duckdb:");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+
+            int columns = resultSet.getMetaData().getColumnCount() + 1;
+            while (resultSet.next()) {
+                for (int i = 1; i < columns; i++) {
+                    blackhole.consume(resultSet.getObject(i));
+                }
+            }
+        }
+    }
+}
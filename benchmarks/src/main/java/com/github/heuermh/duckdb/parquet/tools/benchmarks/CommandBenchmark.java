@@ -0,0 +1,124 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools.benchmarks;
+
+import java.io.PrintStream;
+
+import java.nio.file.Path;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.heuermh.duckdb.parquet.tools.Tools;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import picocli.CommandLine;
+
+/**
+ * In-process throughput and latency of each command over synthetic Parquet files of
+ * varying width, row count, and codec.
+ *
+ * <p>
+ * Run with the JMH GC profiler to also report allocation rate, e.g.
+ * <pre>
+ * $ java --add-opens=java.base/java.nio=ALL-UNNAMED \
+ *     -jar target/benchmarks.jar CommandBenchmark -prof gc -p command=head,meta
+ * </pre>
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class CommandBenchmark {
+
+    @Param({ "convert", "create", "head", "meta", "schema", "ratios", "describe" })
+    private String command;
+
+    @Param({ "10", "100" })
+    private int columns;
+
+    @Param({ "100000", "1000000" })
+    private long rows;
+
+    @Param({ "SNAPPY", "ZSTD" })
+    private String codec;
+
+    private Path directory;
+    private String[] args;
+    private PrintStream stdout;
+
+    /** Create table SQL statement. */
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE records AS SELECT * from read_parquet('%s')";
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = SyntheticParquet.createTempDirectory();
+        String parquetFile = SyntheticParquet.create(directory, columns, rows, codec).toString();
+        String outputParquetFile = directory.resolve("output.parquet").toString();
+        args = args(parquetFile, outputParquetFile);
+        stdout = SyntheticParquet.discardStdout();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        System.setOut(stdout);
+        SyntheticParquet.delete(directory);
+    }
+
+    @Benchmark
+    public int run() {
+        int exitCode = new CommandLine(new Tools()).setCaseInsensitiveEnumValuesAllowed(true).execute(args);
+        if (exitCode != 0) {
+            throw new IllegalStateException(command + " exited with code " + exitCode);
+        }
+        return exitCode;
+    }
+
+    /**
+     * Return command line arguments for the command.
+     *
+     * @param parquetFile input Parquet file
+     * @param outputParquetFile output Parquet file, for commands that write Parquet
+     * @return command line arguments for the command
+     */
+    private String[] args(final String parquetFile, final String outputParquetFile) {
+        switch (command) {
+        case "convert":
+            return new String[] { command, "-i", parquetFile, "-o", outputParquetFile, "--codec", codec };
+        case "create":
+            return new String[] { command, "-s", String.format(CREATE_TABLE_SQL, parquetFile), "-o", outputParquetFile, "--codec", codec };
+        case "head":
+            return new String[] { command, "-i", parquetFile, "-n", "10000" };
+        default:
+            return new String[] { command, "-i", parquetFile };
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools.benchmarks;
+
+import java.io.PrintStream;
+
+import java.nio.file.Path;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.heuermh.duckdb.parquet.tools.Describe;
+import com.github.heuermh.duckdb.parquet.tools.Meta;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import picocli.CommandLine;
+
+/**
+ * Per-file latency of reading Parquet file footers in pure Java versus through DuckDB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FooterBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int columns;
+
+    private Path directory;
+    private String parquetFile;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = SyntheticParquet.createTempDirectory();
+        parquetFile = SyntheticParquet.create(directory, columns, 1000000L, "ZSTD").toString();
+        stdout = SyntheticParquet.discardStdout();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        System.setOut(stdout);
+        SyntheticParquet.delete(directory);
+    }
+
+    @Benchmark
+    public int metaDuckDb() {
+        return new CommandLine(new Meta()).execute("-i", parquetFile);
+    }
+
+    @Benchmark
+    public int metaFooterOnly() {
+        return new CommandLine(new Meta()).execute("-i", parquetFile, "--footer-only");
+    }
+
+    @Benchmark
+    public int describeDuckDb() {
+        return new CommandLine(new Describe()).execute("-i", parquetFile);
+    }
+
+    @Benchmark
+    public int describeFooterOnly() {
+        return new CommandLine(new Describe()).execute("-i", parquetFile, "--footer-only");
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+
+import java.nio.file.Path;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.heuermh.duckdb.parquet.tools.Head;
+
+import com.google.gson.stream.JsonWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import picocli.CommandLine;
+
+/**
+ * Throughput of writing records in JSON format with head versus the previous per-cell
+ * <code>getObject</code> loop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class HeadBenchmark {
+
+    @Param({ "10", "100" })
+    private int columns;
+
+    @Param({ "1000000" })
+    private int rows;
+
+    private Path directory;
+    private String parquetFile;
+    private PrintStream stdout;
+
+    /** Head SQL query. */
+    private static final String HEAD_SQL = "SELECT * from read_parquet('%s') LIMIT %d";
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = SyntheticParquet.createTempDirectory();
+        parquetFile = SyntheticParquet.create(directory, columns, rows, "ZSTD").toString();
+        stdout = SyntheticParquet.discardStdout();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        System.setOut(stdout);
+        SyntheticParquet.delete(directory);
+    }
+
+    @Benchmark
+    public int head() {
+        return new CommandLine(new Head()).execute("-i", parquetFile, "-n", String.valueOf(rows));
+    }
+
+    @Benchmark
+    public int headNdjson() {
+        return new CommandLine(new Head()).execute("-i", parquetFile, "-n", String.valueOf(rows), "--ndjson");
+    }
+
+    @Benchmark
+    public int getObjectLoop() throws Exception {
+        try (JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(System.out, "UTF-8")))) {
+            writer.setSerializeNulls(false);
+            writer.beginArray();
+
+            try (Connection connection = DriverManager.getConnection("jdbc:duckdb:")) {
+                try (Statement statement = connection.createStatement()) {
+                    try (ResultSet resultSet = statement.executeQuery(String.format(HEAD_SQL, parquetFile, rows))) {
+                        ResultSetMetaData metaData = resultSet.getMetaData();
+                        int columns = metaData.getColumnCount() + 1;
+
+                        while (resultSet.next()) {
+                            writer.beginObject();
+                            for (int i = 1; i < columns; i++) {
+                                Object value = resultSet.getObject(i);
+
+                                if (value != null) {
+                                    writer.name(metaData.getColumnName(i));
+                                    if (value instanceof Boolean) {
+                                        writer.value((Boolean) value);
+                                    }
+                                    else if (value instanceof Number) {
+                                        writer.value((Number) value);
+                                    }
+                                    else {
+                                        writer.value(value.toString());
+                                    }
+                                }
+                            }
+                            writer.endObject();
+                        }
+                    }
+                }
+            }
+            writer.endArray();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools.benchmarks;
+
+import java.io.PrintStream;
+
+import java.nio.file.Path;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.heuermh.duckdb.parquet.tools.Meta;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import picocli.CommandLine;
+
+/**
+ * Output throughput of meta on large <code>parquet_metadata</code> results, 1000 columns
+ * with small row groups for tens of thousands of column chunks, versus the previous per-cell
+ * <code>System.out</code> loop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OutputBenchmark {
+
+    @Param({ "tsv", "csv", "ndjson" })
+    private String format;
+
+    private Path directory;
+    private String parquetFile;
+    private PrintStream stdout;
+
+    /** Meta SQL query. */
+    private static final String META_SQL = "SELECT * from parquet_metadata('%s')";
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = SyntheticParquet.createTempDirectory();
+        parquetFile = SyntheticParquet.create(directory, 1000, 100000L, "ZSTD", 1000L).toString();
+        stdout = SyntheticParquet.discardStdout();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        System.setOut(stdout);
+        SyntheticParquet.delete(directory);
+    }
+
+    @Benchmark
+    public int meta() {
+        return new CommandLine(new Meta()).execute("-i", parquetFile, "--format", format);
+    }
+
+    @Benchmark
+    public int printLoop() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:duckdb:")) {
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet resultSet = statement.executeQuery(String.format(META_SQL, parquetFile))) {
+                    ResultSetMetaData metaData = resultSet.getMetaData();
+                    int columns = metaData.getColumnCount() + 1;
+
+                    while (resultSet.next()) {
+                        for (int i = 1; i < columns; i++) {
+                            Object value = resultSet.getObject(i);
+                            System.out.print(value == null ? "" : value.toString());
+                            if (i < (columns - 1)) {
+                                System.out.print("\t");
+                            }
+                        }
+                        System.out.print("\n");
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+}
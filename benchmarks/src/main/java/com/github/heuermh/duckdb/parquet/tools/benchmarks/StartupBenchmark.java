@@ -0,0 +1,113 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools.benchmarks;
+
+import java.io.File;
+
+import java.nio.file.Path;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end process startup latency of the JVM distribution versus the native image.
+ *
+ * <p>
+ * Paths to the executables default to the build outputs of the parent project and may be
+ * overridden with the <code>duckdb-parquet-tools.jvm</code> and <code>duckdb-parquet-tools.native</code>
+ * system properties, e.g.
+ * <pre>
+ * $ java -Dduckdb-parquet-tools.native=/usr/local/bin/duckdb-parquet-tools \
+ *     -jar target/benchmarks.jar StartupBenchmark
+ * </pre>
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({ "jvm", "native" })
+    private String distribution;
+
+    @Param({ "describe", "meta" })
+    private String command;
+
+    private Path directory;
+    private String executable;
+    private String parquetFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        executable = executable(distribution);
+        directory = SyntheticParquet.createTempDirectory();
+        parquetFile = SyntheticParquet.create(directory, 10, 10000L, "ZSTD").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        SyntheticParquet.delete(directory);
+    }
+
+    @Benchmark
+    public int startup() throws Exception {
+        Process process = new ProcessBuilder(executable, command, "-i", parquetFile)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException(executable + " " + command + " exited with code " + exitCode);
+        }
+        return exitCode;
+    }
+
+    /**
+     * Return the path to the executable for the specified distribution.
+     *
+     * @param distribution distribution, <code>jvm</code> or <code>native</code>
+     * @return the path to the executable for the specified distribution
+     */
+    private static String executable(final String distribution) {
+        String path = "jvm".equals(distribution)
+            ? System.getProperty("duckdb-parquet-tools.jvm", "../target/appassembler/bin/duckdb-parquet-tools")
+            : System.getProperty("duckdb-parquet-tools.native", "../target/duckdb-parquet-tools");
+
+        File file = new File(path);
+        if (!file.canExecute()) {
+            throw new IllegalStateException("no " + distribution + " executable found at " + file.getAbsolutePath()
+                                            + ", build it or set -Dduckdb-parquet-tools." + distribution);
+        }
+        return file.getAbsolutePath();
+    }
+}
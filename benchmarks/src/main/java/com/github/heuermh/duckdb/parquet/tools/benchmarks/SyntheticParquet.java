@@ -0,0 +1,141 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.stream.Stream;
+
+/**
+ * Synthetic Parquet files, generated locally by DuckDB at benchmark setup.
+ */
+final class SyntheticParquet {
+
+    /** Copy SQL statement. */
+    private static final String COPY_SQL = "COPY (SELECT %s FROM range(%d)) TO '%s' (FORMAT 'PARQUET', CODEC '%s', ROW_GROUP_SIZE %d)";
+
+    /** Default DuckDB row group size. */
+    static final long DEFAULT_ROW_GROUP_SIZE = 122880L;
+
+    /**
+     * Private no-arg constructor.
+     */
+    private SyntheticParquet() {
+        // empty
+    }
+
+    /**
+     * Create a synthetic Parquet file in the specified directory.  Columns cycle
+     * through BIGINT, DOUBLE, VARCHAR, and DATE types.
+     *
+     * @param directory directory
+     * @param columns number of columns
+     * @param rows number of rows
+     * @param codec Parquet codec
+     * @return the path to the synthetic Parquet file
+     * @throws Exception if an error occurs
+     */
+    static Path create(final Path directory, final int columns, final long rows, final String codec) throws Exception {
+        return create(directory, columns, rows, codec, DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    /**
+     * Create a synthetic Parquet file in the specified directory with the specified row group size.
+     * Columns cycle through BIGINT, DOUBLE, VARCHAR, and DATE types.
+     *
+     * @param directory directory
+     * @param columns number of columns
+     * @param rows number of rows
+     * @param codec Parquet codec
+     * @param rowGroupSize row group size, in rows
+     * @return the path to the synthetic Parquet file
+     * @throws Exception if an error occurs
+     */
+    static Path create(final Path directory, final int columns, final long rows, final String codec, final long rowGroupSize) throws Exception {
+        List<String> expressions = new ArrayList<String>(columns);
+        for (int i = 0; i < columns; i++) {
+            switch (i % 4) {
+            case 0:
+                expressions.add("range + " + i + " AS c" + i);
+                break;
+            case 1:
+                expressions.add("(hash(range, " + i + ") % 1000000) / 100.0 AS c" + i);
+                break;
+            case 2:
+                expressions.add("'value-' || (hash(range, " + i + ") % 1000) AS c" + i);
+                break;
+            default:
+                expressions.add("DATE '2020-01-01' + CAST(range % 3650 AS INTEGER) AS c" + i);
+            }
+        }
+        Path path = directory.resolve("synthetic-" + columns + "x" + rows + "-" + rowGroupSize + "-" + codec.toLowerCase() + ".parquet");
+        Class.forName("org.duckdb.DuckDBDriver");
+        try (Connection connection = DriverManager.getConnection("jdbc:duckdb:")) {
+            try (Statement copy = connection.createStatement()) {
+                copy.execute(String.format(COPY_SQL, String.join(", ", expressions), rows, path.toString(), codec, rowGroupSize));
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Create a new temporary directory.
+     *
+     * @return a new temporary directory
+     * @throws IOException if an I/O error occurs
+     */
+    static Path createTempDirectory() throws IOException {
+        return Files.createTempDirectory("duckdb-parquet-tools-benchmarks");
+    }
+
+    /**
+     * Recursively delete the specified directory.
+     *
+     * @param directory directory to delete, may be null
+     * @throws IOException if an I/O error occurs
+     */
+    static void delete(final Path directory) throws IOException {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Redirect stdout to a stream that discards all output, returning the original stdout.
+     *
+     * @return the original stdout
+     */
+    static PrintStream discardStdout() {
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return stdout;
+    }
+}
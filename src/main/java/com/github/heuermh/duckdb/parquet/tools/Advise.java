@@ -0,0 +1,398 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.File;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import java.util.concurrent.Callable;
+
+import com.github.heuermh.duckdb.parquet.tools.WriterOptions.Codec;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Spec;
+
+/**
+ * Advise Parquet codecs per column, by trial-encoding sampled row groups of each column
+ * under several codecs and compression levels.  Trials run one at a time, so that codecs
+ * do not compete for CPU and their encode and decode timings are comparable.
+ */
+@Command(name = "advise")
+public final class Advise implements Callable<Integer> {
+
+    @Option(names = { "-i", "--input-parquet-file" }, required = true)
+    private String inputParquetFile;
+
+    @Mixin
+    private SessionOptions sessionOptions;
+
+    @Option(names = { "--codecs" }, split = ",")
+    private List<String> codecs = Arrays.asList("UNCOMPRESSED", "SNAPPY", "LZ4_RAW", "GZIP", "ZSTD:1", "ZSTD:3", "ZSTD:9", "ZSTD:19");
+
+    @Option(names = { "--sample-row-groups" })
+    private int sampleRowGroups = 4;
+
+    @Option(names = { "--trials" })
+    private int trials = 3;
+
+    @Option(names = { "--max-decode-slowdown" })
+    private double maxDecodeSlowdown = 2.0d;
+
+    @Mixin
+    private OutputOptions outputOptions;
+
+    @Spec
+    private CommandSpec spec;
+
+    /** Sample table name, unique per command and temporary, so that user tables are never replaced. */
+    private final String sampleTable = "advise_sample_" + UUID.randomUUID().toString().replace("-", "");
+
+    /** Sample SQL statement. */
+    private static final String SAMPLE_SQL = "CREATE TEMP TABLE %s AS %s";
+
+    /** Columns SQL query. */
+    private static final String COLUMNS_SQL = "SELECT column_name FROM (DESCRIBE %s)";
+
+    /** Encode SQL statement. */
+    private static final String ENCODE_SQL = "COPY (SELECT %s FROM %s) TO '%s' (FORMAT 'PARQUET', CODEC '%s'%s, ROW_GROUP_SIZE 2147483647)";
+
+    /** Decode SQL query, hashes every value so that every page is decompressed and decoded. */
+    private static final String DECODE_SQL = "SELECT sum(hash(%s)) FROM read_parquet('%s')";
+
+    /** Size SQL query. */
+    private static final String SIZE_SQL = "SELECT sum(total_compressed_size), sum(total_uncompressed_size) FROM parquet_metadata('%s')";
+
+    /** Drop SQL statement. */
+    private static final String DROP_SQL = "DROP TABLE IF EXISTS temp.%s";
+
+    /** Advise headers. */
+    static final String[] HEADERS = { "column", "codec", "compression_level", "compressed", "uncompressed", "ratio", "encode_ms", "decode_ms", "recommended" };
+
+    @Override
+    public Integer call() throws Exception {
+        List<Trial> trialCodecs = parseCodecs();
+        if (sampleRowGroups < 1) {
+            throw new ParameterException(spec.commandLine(), "--sample-row-groups must be greater than zero, was " + sampleRowGroups);
+        }
+        if (trials < 1) {
+            throw new ParameterException(spec.commandLine(), "--trials must be greater than zero, was " + trials);
+        }
+        if (maxDecodeSlowdown < 1.0d) {
+            throw new ParameterException(spec.commandLine(), "--max-decode-slowdown must be at least 1.0, was " + maxDecodeSlowdown);
+        }
+        outputOptions.validate(spec.commandLine(), false);
+        sessionOptions.validate(spec.commandLine());
+
+        Path directory = Files.createTempDirectory("duckdb-parquet-tools-advise");
+        try (Connection connection = sessionOptions.open()) {
+            try {
+                // sample evenly spaced row groups into a temporary table
+                List<String> columns = sample(connection);
+
+                // trial-encode each column under each codec serially, DuckDB parallelizes each trial
+                Map<String, List<Result>> resultsByColumn = new LinkedHashMap<String, List<Result>>();
+                for (int i = 0; i < columns.size(); i++) {
+                    String column = columns.get(i);
+                    for (int j = 0; j < trialCodecs.size(); j++) {
+                        File file = directory.resolve("c" + i + "-" + j + ".parquet").toFile();
+                        Result result = trial(connection, column, trialCodecs.get(j), file);
+                        resultsByColumn.computeIfAbsent(result.column, c -> new ArrayList<Result>()).add(result);
+                    }
+                }
+
+                // recommend per column, and overall for convert
+                List<String[]> rows = new ArrayList<String[]>();
+                Map<Trial, Result> totals = new LinkedHashMap<Trial, Result>();
+                for (List<Result> results : resultsByColumn.values()) {
+                    Result recommended = recommend(results);
+                    for (Result result : results) {
+                        rows.add(result.toRow(result == recommended));
+                        totals.computeIfAbsent(result.trial, t -> new Result(null, t)).add(result);
+                    }
+                }
+                try (TabularOutput output = new TabularOutput(outputOptions)) {
+                    output.write(HEADERS, rows);
+                }
+                Result overall = recommend(new ArrayList<Result>(totals.values()));
+                if (overall != null) {
+                    System.err.println("Recommended for all columns, e.g. with convert: " + overall.trial.options());
+                }
+            }
+            finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(String.format(DROP_SQL, sampleTable));
+                }
+            }
+        }
+        finally {
+            for (File file : directory.toFile().listFiles()) {
+                file.delete();
+            }
+            Files.delete(directory);
+        }
+        return 0;
+    }
+
+    /**
+     * Parse codecs, each as <code>CODEC</code> or <code>CODEC:level</code>.
+     *
+     * @return trial codecs
+     * @throws ParameterException if any codecs are not valid
+     */
+    private List<Trial> parseCodecs() {
+        List<Trial> trialCodecs = new ArrayList<Trial>(codecs.size());
+        for (String value : codecs) {
+            String[] tokens = value.trim().split(":");
+            try {
+                Codec codec = Codec.valueOf(tokens[0].trim().toUpperCase());
+                Integer level = tokens.length > 1 ? Integer.valueOf(tokens[1].trim()) : null;
+                if (level != null && codec != Codec.ZSTD) {
+                    throw new ParameterException(spec.commandLine(), "--codecs compression level is only supported for codec " + Codec.ZSTD + ", was " + value);
+                }
+                trialCodecs.add(new Trial(codec, level));
+            }
+            catch (IllegalArgumentException e) {
+                throw new ParameterException(spec.commandLine(), "--codecs must be codecs, optionally with a compression level, e.g. ZSTD:9, was " + value);
+            }
+        }
+        return trialCodecs;
+    }
+
+    /**
+     * Sample evenly spaced row groups of the input Parquet file into the sample table.
+     *
+     * @param connection connection
+     * @return the names of the sampled columns
+     * @throws SQLException if a database access error occurs
+     */
+    private List<String> sample(final Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            List<long[]> rowGroups = new ArrayList<long[]>();
+            long start = 0L;
+            for (long rows : RowGroupSlices.rowGroups(connection, inputParquetFile)) {
+                rowGroups.add(new long[] { start, start + rows });
+                start += rows;
+            }
+            if (rowGroups.isEmpty()) {
+                throw new ParameterException(spec.commandLine(), "No row groups found in " + inputParquetFile);
+            }
+            int n = Math.min(sampleRowGroups, rowGroups.size());
+            List<String> ranges = new ArrayList<String>(n);
+            for (int i = 0; i < n; i++) {
+                long[] rowGroup = rowGroups.get((int) (((long) i * rowGroups.size()) / n));
+                ranges.add(RowGroupSlices.select(inputParquetFile, rowGroup, "* EXCLUDE (file_row_number)"));
+            }
+            statement.execute(String.format(SAMPLE_SQL, sampleTable, String.join(" UNION ALL ", ranges)));
+
+            List<String> columns = new ArrayList<String>();
+            try (ResultSet resultSet = statement.executeQuery(String.format(COLUMNS_SQL, sampleTable))) {
+                while (resultSet.next()) {
+                    columns.add(resultSet.getString(1));
+                }
+            }
+            return columns;
+        }
+    }
+
+    /**
+     * Trial-encode the specified column under the specified codec.
+     *
+     * @param connection connection, with the temporary sample table
+     * @param column column
+     * @param trial codec and compression level
+     * @param file file to write
+     * @return the result
+     * @throws Exception if an error occurs
+     */
+    private Result trial(final Connection connection, final String column, final Trial trial, final File file) throws Exception {
+        Result result = new Result(column, trial);
+        try (Statement statement = connection.createStatement()) {
+            String encode = String.format(ENCODE_SQL, Sql.quoteIdentifier(column), sampleTable, file.getPath(), trial.codec, trial.level == null ? "" : ", COMPRESSION_LEVEL " + trial.level);
+            String decode = String.format(DECODE_SQL, Sql.quoteIdentifier(column), file.getPath());
+            result.encodeNanos = Long.MAX_VALUE;
+            result.decodeNanos = Long.MAX_VALUE;
+
+            // best of trials
+            for (int i = 0; i < trials; i++) {
+                long start = System.nanoTime();
+                statement.execute(encode);
+                result.encodeNanos = Math.min(result.encodeNanos, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                try (ResultSet resultSet = statement.executeQuery(decode)) {
+                    resultSet.next();
+                }
+                result.decodeNanos = Math.min(result.decodeNanos, System.nanoTime() - start);
+            }
+            try (ResultSet resultSet = statement.executeQuery(String.format(SIZE_SQL, file.getPath()))) {
+                if (resultSet.next()) {
+                    result.compressed = resultSet.getLong(1);
+                    result.uncompressed = resultSet.getLong(2);
+                }
+            }
+        }
+        finally {
+            file.delete();
+        }
+        return result;
+    }
+
+    /**
+     * Recommend the smallest result that decodes within the maximum decode slowdown of the fastest.
+     *
+     * @param results results
+     * @return the recommended result, or null if results is empty
+     */
+    private Result recommend(final List<Result> results) {
+        long fastest = results.stream().mapToLong(r -> r.decodeNanos).min().orElse(0L);
+        Result recommended = null;
+        for (Result result : results) {
+            if (result.decodeNanos <= fastest * maxDecodeSlowdown && (recommended == null || result.compressed < recommended.compressed)) {
+                recommended = result;
+            }
+        }
+        return recommended;
+    }
+
+
+    /**
+     * Codec and compression level to trial.
+     */
+    private static final class Trial {
+        /** Codec. */
+        final Codec codec;
+
+        /** Compression level, or null for the codec default. */
+        final Integer level;
+
+
+        /**
+         * Create a new trial for the specified codec and compression level.
+         *
+         * @param codec codec
+         * @param level compression level, or null for the codec default
+         */
+        Trial(final Codec codec, final Integer level) {
+            this.codec = codec;
+            this.level = level;
+        }
+
+
+        /**
+         * Return the writer options for this trial, as specified to <code>convert</code>.
+         *
+         * @return the writer options for this trial, as specified to <code>convert</code>
+         */
+        String options() {
+            return "--codec " + codec + (level == null ? "" : " --compression-level " + level);
+        }
+    }
+
+    /**
+     * Trial result for one column, or totals over all columns.
+     */
+    private static final class Result {
+        /** Column name, or null for totals over all columns. */
+        final String column;
+
+        /** Trial. */
+        final Trial trial;
+
+        /** Compressed size in bytes. */
+        long compressed;
+
+        /** Uncompressed size in bytes. */
+        long uncompressed;
+
+        /** Fastest encode time, in nanoseconds. */
+        long encodeNanos;
+
+        /** Fastest decode time, in nanoseconds. */
+        long decodeNanos;
+
+
+        /**
+         * Create a new result for the specified column and trial.
+         *
+         * @param column column name, or null for totals over all columns
+         * @param trial trial
+         */
+        Result(final String column, final Trial trial) {
+            this.column = column;
+            this.trial = trial;
+        }
+
+
+        /**
+         * Add the sizes and times of the specified result to this result.
+         *
+         * @param result result to add
+         */
+        void add(final Result result) {
+            compressed += result.compressed;
+            uncompressed += result.uncompressed;
+            encodeNanos += result.encodeNanos;
+            decodeNanos += result.decodeNanos;
+        }
+
+        /**
+         * Return this result as a row, in the order of the advise headers.
+         *
+         * @param recommended true if this result is recommended
+         * @return this result as a row, in the order of the advise headers
+         */
+        String[] toRow(final boolean recommended) {
+            return new String[] {
+                column,
+                trial.codec.toString(),
+                trial.level == null ? null : String.valueOf(trial.level),
+                String.valueOf(compressed),
+                String.valueOf(uncompressed),
+                compressed == 0L ? null : String.valueOf(((double) uncompressed) / compressed),
+                String.valueOf(encodeNanos / 1000000L),
+                String.valueOf(decodeNanos / 1000000L),
+                String.valueOf(recommended)
+            };
+        }
+    }
+
+    /**
+     * Main.
+     *
+     * @param args command line args
+     */
+    public static void main(final String[] args) {
+        System.exit(new CommandLine(new Advise()).execute(args));
+    }
+}
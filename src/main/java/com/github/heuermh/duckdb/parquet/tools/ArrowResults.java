@@ -0,0 +1,429 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.nio.charset.StandardCharsets;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import org.apache.arrow.vector.BaseIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.Decimal256Vector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.TimeMicroVector;
+import org.apache.arrow.vector.TimeStampVector;
+import org.apache.arrow.vector.UInt8Vector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+
+import org.apache.arrow.vector.complex.MapVector;
+
+import org.apache.arrow.vector.ipc.ArrowReader;
+
+import org.apache.arrow.vector.types.TimeUnit;
+
+import org.apache.arrow.vector.types.pojo.ArrowType;
+
+import org.duckdb.DuckDBResultSet;
+
+/**
+ * Query results streamed as off-heap Arrow record batches via DuckDB's Arrow export.
+ *
+ * <p>
+ * Columns are read directly from Arrow vectors through a typed column plan built once
+ * per stream, so values are not boxed through <code>ResultSet.getObject</code>.  Columns
+ * of other types are cast to <code>VARCHAR</code> in SQL for text output, see {@link #text}.
+ * </p>
+ */
+final class ArrowResults {
+
+    /** Arrow record batch size, in rows. */
+    static final long BATCH_SIZE = 16384L;
+
+    /** DuckDB types read directly from Arrow vectors, other than decimals and maps. */
+    private static final Set<String> READ_TYPES = new HashSet<String>(Arrays.asList("BOOLEAN", "TINYINT", "SMALLINT", "INTEGER", "BIGINT", "HUGEINT",
+                                                                                    "UTINYINT", "USMALLINT", "UINTEGER", "UBIGINT", "FLOAT", "DOUBLE",
+                                                                                    "VARCHAR", "UUID", "BLOB", "DATE", "TIME", "TIMESTAMP", "TIMESTAMP_S",
+                                                                                    "TIMESTAMP_MS", "TIMESTAMP_NS", "TIMESTAMP WITH TIME ZONE"));
+
+    /** Cast SQL query. */
+    private static final String CAST_SQL = "SELECT * REPLACE (%s) FROM (%s)";
+
+
+    /**
+     * Private no-arg constructor.
+     */
+    private ArrowResults() {
+        // empty
+    }
+
+
+    /**
+     * Return a reader over Arrow record batches exported from the specified result set.  The
+     * reader must be closed before the result set and the allocator.
+     *
+     * @param resultSet DuckDB result set, must not be null
+     * @param allocator Arrow buffer allocator, must not be null
+     * @return a reader over Arrow record batches exported from the specified result set
+     * @throws SQLException if a database access error occurs
+     */
+    static ArrowReader reader(final ResultSet resultSet, final BufferAllocator allocator) throws SQLException {
+        return (ArrowReader) resultSet.unwrap(DuckDBResultSet.class).arrowExportStream(allocator, BATCH_SIZE);
+    }
+
+    /**
+     * Column value kind, how a value is written.
+     */
+    enum Kind {
+        /** Boolean, read with <code>getBoolean</code>. */
+        BOOLEAN,
+
+        /** Integer, read with <code>getLong</code>. */
+        LONG,
+
+        /** Other number, read with <code>getString</code>, may be <code>NaN</code> or infinite. */
+        NUMBER,
+
+        /** String, read with <code>getString</code>. */
+        STRING
+    }
+
+    /**
+     * Return a typed column plan for the specified vector schema root.
+     *
+     * @param root vector schema root, must not be null
+     * @return a typed column plan for the specified vector schema root
+     */
+    static Column[] columns(final VectorSchemaRoot root) {
+        List<FieldVector> vectors = root.getFieldVectors();
+        Column[] columns = new Column[vectors.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = column(vectors.get(i));
+        }
+        return columns;
+    }
+
+    private static Column column(final FieldVector vector) {
+        if (vector instanceof UInt8Vector) {
+            UInt8Vector v = (UInt8Vector) vector;
+            return new Column(v, Kind.NUMBER) {
+                @Override
+                String getString(final int row) {
+                    return Long.toUnsignedString(v.getValueAsLong(row));
+                }
+            };
+        }
+        if (vector instanceof BaseIntVector) {
+            BaseIntVector v = (BaseIntVector) vector;
+            return new Column(v, Kind.LONG) {
+                @Override
+                long getLong(final int row) {
+                    return v.getValueAsLong(row);
+                }
+            };
+        }
+        if (vector instanceof BitVector) {
+            BitVector v = (BitVector) vector;
+            return new Column(v, Kind.BOOLEAN) {
+                @Override
+                boolean getBoolean(final int row) {
+                    return v.get(row) != 0;
+                }
+            };
+        }
+        if (vector instanceof Float4Vector) {
+            Float4Vector v = (Float4Vector) vector;
+            return new Column(v, Kind.NUMBER) {
+                @Override
+                String getString(final int row) {
+                    return Float.toString(v.get(row));
+                }
+            };
+        }
+        if (vector instanceof Float8Vector) {
+            Float8Vector v = (Float8Vector) vector;
+            return new Column(v, Kind.NUMBER) {
+                @Override
+                String getString(final int row) {
+                    return Double.toString(v.get(row));
+                }
+            };
+        }
+        if (vector instanceof DecimalVector || vector instanceof Decimal256Vector) {
+            return new Column(vector, Kind.NUMBER);
+        }
+        if (vector instanceof VarCharVector) {
+            VarCharVector v = (VarCharVector) vector;
+            return new Column(v, Kind.STRING) {
+                private byte[] bytes = new byte[256];
+
+                @Override
+                String getString(final int row) {
+                    // decode straight from the off-heap data buffer
+                    int length = v.getValueLength(row);
+                    if (length > bytes.length) {
+                        bytes = new byte[Math.max(length, bytes.length * 2)];
+                    }
+                    v.getDataBuffer().getBytes(v.getStartOffset(row), bytes, 0, length);
+                    return new String(bytes, 0, length, StandardCharsets.UTF_8);
+                }
+            };
+        }
+        if (vector instanceof DateDayVector) {
+            DateDayVector v = (DateDayVector) vector;
+            return new Column(v, Kind.STRING) {
+                @Override
+                String getString(final int row) {
+                    return LocalDate.ofEpochDay(v.get(row)).toString();
+                }
+            };
+        }
+        if (vector instanceof TimeStampVector) {
+            TimeStampVector v = (TimeStampVector) vector;
+            ArrowType.Timestamp type = (ArrowType.Timestamp) v.getField().getType();
+            long unitsPerSecond = unitsPerSecond(type.getUnit());
+            long nanosPerUnit = 1000000000L / unitsPerSecond;
+            if (type.getTimezone() == null) {
+                return new Column(v, Kind.STRING) {
+                    @Override
+                    String getString(final int row) {
+                        // format as java.sql.Timestamp, as returned by the DuckDB JDBC driver
+                        long value = v.get(row);
+                        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(Math.floorDiv(value, unitsPerSecond), (int) (Math.floorMod(value, unitsPerSecond) * nanosPerUnit), ZoneOffset.UTC);
+                        return Timestamp.valueOf(dateTime).toString();
+                    }
+                };
+            }
+            return new Column(v, Kind.STRING) {
+                @Override
+                String getString(final int row) {
+                    // format as java.time.OffsetDateTime in the default time zone, as returned by the DuckDB JDBC driver
+                    long value = v.get(row);
+                    Instant instant = Instant.ofEpochSecond(Math.floorDiv(value, unitsPerSecond), Math.floorMod(value, unitsPerSecond) * nanosPerUnit);
+                    return OffsetDateTime.ofInstant(instant, ZoneId.systemDefault()).toString();
+                }
+            };
+        }
+        if (vector instanceof TimeMicroVector) {
+            TimeMicroVector v = (TimeMicroVector) vector;
+            return new Column(v, Kind.STRING) {
+                @Override
+                String getString(final int row) {
+                    // format as java.time.LocalTime, as returned by the DuckDB JDBC driver
+                    return LocalTime.ofNanoOfDay(v.get(row) * 1000L).toString();
+                }
+            };
+        }
+        if (vector instanceof VarBinaryVector) {
+            VarBinaryVector v = (VarBinaryVector) vector;
+            return new Column(v, Kind.STRING) {
+                @Override
+                String getString(final int row) {
+                    return ParquetTypes.blob(v.get(row));
+                }
+            };
+        }
+        if (vector instanceof MapVector) {
+            return new Column(vector, Kind.STRING) {
+                @Override
+                String getString(final int row) {
+                    // format as key=value pairs, as --footer-only does for key value metadata
+                    List<?> entries = (List<?>) vector.getObject(row);
+                    return entries.stream()
+                        .map(entry -> (Map<?, ?>) entry)
+                        .map(entry -> str(entry.get("key")) + "=" + str(entry.get("value")))
+                        .collect(Collectors.joining(", ", "{", "}"));
+                }
+            };
+        }
+        return new Column(vector, Kind.STRING);
+    }
+
+    /**
+     * Return the number of the specified time units per second.
+     *
+     * @param unit time unit
+     * @return the number of the specified time units per second
+     */
+    private static long unitsPerSecond(final TimeUnit unit) {
+        switch (unit) {
+        case SECOND:
+            return 1L;
+        case MILLISECOND:
+            return 1000L;
+        case MICROSECOND:
+            return 1000000L;
+        default:
+            return 1000000000L;
+        }
+    }
+
+    /**
+     * Return the specified SQL query, with columns of DuckDB types that are not read directly
+     * from Arrow vectors, such as <code>INTERVAL</code>, <code>TIME WITH TIME ZONE</code>, lists,
+     * and structs, cast to <code>VARCHAR</code>, so that they are formatted as DuckDB formats them.
+     * Use for text output only, Arrow output keeps the DuckDB types.
+     *
+     * @param connection connection, must not be null
+     * @param sql SQL query
+     * @return the specified SQL query, with columns of types not read directly from Arrow vectors
+     *    cast to <code>VARCHAR</code>
+     * @throws SQLException if a database access error occurs
+     */
+    static String text(final Connection connection, final String sql) throws SQLException {
+        List<String> casts = new ArrayList<String>();
+        Set<String> names = new HashSet<String>();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            ResultSetMetaData metaData = preparedStatement.getMetaData();
+            for (int i = 1, size = metaData.getColumnCount(); i <= size; i++) {
+                String name = metaData.getColumnName(i);
+                if (!names.add(name)) {
+                    // duplicate column names cannot be replaced by name
+                    return sql;
+                }
+                if (!isRead(metaData.getColumnTypeName(i))) {
+                    String identifier = Sql.quoteIdentifier(name);
+                    casts.add("CAST(" + identifier + " AS VARCHAR) AS " + identifier);
+                }
+            }
+        }
+        return casts.isEmpty() ? sql : String.format(CAST_SQL, String.join(", ", casts), sql);
+    }
+
+    /**
+     * Return true if columns of the specified DuckDB type are read directly from Arrow vectors.
+     *
+     * @param type DuckDB type name
+     * @return true if columns of the specified DuckDB type are read directly from Arrow vectors
+     */
+    private static boolean isRead(final String type) {
+        return READ_TYPES.contains(type) || type.startsWith("DECIMAL") || type.startsWith("MAP(");
+    }
+
+    private static String str(final Object value) {
+        if (value instanceof byte[]) {
+            return new String((byte[]) value, StandardCharsets.UTF_8);
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Typed column over an Arrow vector.  The vectors of a vector schema root are reused
+     * across record batches, so a column plan is valid for the whole stream.
+     */
+    static class Column {
+        private final FieldVector vector;
+        private final Kind kind;
+
+        /**
+         * Create a new column.
+         *
+         * @param vector vector
+         * @param kind kind
+         */
+        Column(final FieldVector vector, final Kind kind) {
+            this.vector = vector;
+            this.kind = kind;
+        }
+
+
+        /**
+         * Return the name of this column.
+         *
+         * @return the name of this column
+         */
+        final String name() {
+            return vector.getName();
+        }
+
+        /**
+         * Return the kind of this column.
+         *
+         * @return the kind of this column
+         */
+        final Kind kind() {
+            return kind;
+        }
+
+        /**
+         * Return true if the value at the specified row is null.
+         *
+         * @param row row
+         * @return true if the value at the specified row is null
+         */
+        final boolean isNull(final int row) {
+            return vector.isNull(row);
+        }
+
+        /**
+         * Return the value at the specified row as a boolean, for kind <code>BOOLEAN</code>.
+         *
+         * @param row row
+         * @return the value at the specified row as a boolean
+         */
+        boolean getBoolean(final int row) {
+            throw new IllegalStateException("Column " + name() + " of kind " + kind + " is not read as a boolean");
+        }
+
+        /**
+         * Return the value at the specified row as a long, for kind <code>LONG</code>.
+         *
+         * @param row row
+         * @return the value at the specified row as a long
+         */
+        long getLong(final int row) {
+            throw new IllegalStateException("Column " + name() + " of kind " + kind + " is not read as a long");
+        }
+
+        /**
+         * Return the value at the specified row as a string, for kinds <code>NUMBER</code> and <code>STRING</code>.
+         *
+         * @param row row
+         * @return the value at the specified row as a string
+         */
+        String getString(final int row) {
+            return vector.getObject(row).toString();
+        }
+    }
+}
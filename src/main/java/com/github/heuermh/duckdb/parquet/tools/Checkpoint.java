@@ -0,0 +1,137 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checkpoint of completed parts for a resumable conversion, one line per completed part
+ * appended after a header describing the planned parts.
+ */
+final class Checkpoint {
+
+    /** Checkpoint file. */
+    private final File file;
+
+    /** Completed parts. */
+    private final Set<Integer> completed = new HashSet<Integer>();
+
+
+    /**
+     * Open a checkpoint at the specified file for the specified input, planned parts, and
+     * writer options, reading completed parts if the file exists.  A partial last line from an
+     * interrupted append is ignored, and a file without a complete header is started over.
+     * Local inputs are identified by path, size, and modification time, so that a replaced
+     * input is not resumed.
+     *
+     * @param file checkpoint file, must not be null
+     * @param input input Parquet file, must not be null
+     * @param ranges planned parts, as file row number ranges, must not be null
+     * @param options writer options parts are written with, must not be null
+     * @throws IOException if an I/O error occurs, or if the checkpoint file exists but
+     *    was written for a different input, plan, or writer options
+     */
+    Checkpoint(final File file, final String input, final List<long[]> ranges, final String options) throws IOException {
+        this.file = file;
+        String header = header(input, ranges, options);
+        String content = file.exists() ? new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8) : null;
+        if (content != null && content.indexOf('\n') >= 0) {
+            // the last element is empty after a trailing newline, or a partial line from an interrupted append
+            List<String> lines = new ArrayList<String>(Arrays.asList(content.split("\n", -1)));
+            String last = lines.remove(lines.size() - 1);
+            if (!header.equals(lines.get(0))) {
+                throw new IOException("Checkpoint " + file + " was written for a different input, plan, or writer options, remove " + file.getParent() + " to start over");
+            }
+            if (!last.isEmpty()) {
+                // terminate the partial last line, so the next append starts a new line
+                append("");
+            }
+            for (int i = 1, size = lines.size(); i < size; i++) {
+                String[] tokens = lines.get(i).split("\t");
+                if (tokens.length == 2 && "part".equals(tokens[0])) {
+                    try {
+                        completed.add(Integer.valueOf(tokens[1]));
+                    }
+                    catch (NumberFormatException e) {
+                        // ignore
+                    }
+                }
+            }
+        }
+        else {
+            // no checkpoint, or no complete header from an interrupted start, so no parts are complete
+            file.getParentFile().mkdirs();
+            Files.deleteIfExists(file.toPath());
+            append(header);
+        }
+    }
+
+
+    /**
+     * Return true if the specified part has been completed.
+     *
+     * @param part part
+     * @return true if the specified part has been completed
+     */
+    synchronized boolean isComplete(final int part) {
+        return completed.contains(part);
+    }
+
+    /**
+     * Record the specified part as completed, syncing the checkpoint file to disk.
+     *
+     * @param part part
+     * @throws IOException if an I/O error occurs
+     */
+    synchronized void complete(final int part) throws IOException {
+        append("part\t" + part);
+        completed.add(part);
+    }
+
+    private void append(final String line) throws IOException {
+        try (FileOutputStream outputStream = new FileOutputStream(file, true)) {
+            outputStream.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+            outputStream.getFD().sync();
+        }
+    }
+
+    private static String header(final String input, final List<long[]> ranges, final String options) throws IOException {
+        long rows = ranges.isEmpty() ? 0L : ranges.get(ranges.size() - 1)[1];
+        StringBuilder sb = new StringBuilder();
+        sb.append("input\t").append(input);
+        if (!ParquetFiles.isRemote(input)) {
+            BasicFileAttributes attributes = Files.readAttributes(Paths.get(input), BasicFileAttributes.class);
+            sb.append("\tsize\t").append(attributes.size()).append("\tmtime\t").append(attributes.lastModifiedTime().toMillis());
+        }
+        sb.append("\tparts\t").append(ranges.size()).append("\trows\t").append(rows).append("\toptions\t").append(options);
+        return sb.toString();
+    }
+}
@@ -28,5 +28,7 @@ final class CommandLine extends picocli.CommandLine {
     CommandLine(final Object command) {
         super(command);
         setUsageHelpLongOptionsMaxWidth(42);
+        setCaseInsensitiveEnumValuesAllowed(true);
+        setExecutionStrategy(Metrics::execute);
     }
 }
@@ -0,0 +1,178 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.File;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import java.util.concurrent.Callable;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Spec;
+
+/**
+ * Compact many small input Parquet files into fewer output Parquet files.
+ */
+@Command(name = "compact")
+public final class Compact implements Callable<Integer> {
+
+    @Option(names = { "-i", "--input-parquet-file" }, arity = "1..*", required = true, descriptionKey = "input-parquet-files")
+    private List<String> inputPaths;
+
+    @Option(names = { "-d", "--output-directory" }, required = true)
+    private File outputDirectory;
+
+    @Mixin
+    private SessionOptions sessionOptions;
+
+    @Mixin
+    private WriterOptions writerOptions;
+
+    @Mixin
+    private OutputOptions outputOptions;
+
+    @Spec
+    private CommandSpec spec;
+
+    /** Default maximum output file size. */
+    static final String DEFAULT_MAX_FILE_SIZE = "128MB";
+
+    /**
+     * Copy SQL statement, streams records from all input Parquet files, unifying
+     * schemas by column name, without materializing a table.
+     */
+    private static final String COPY_SQL = "COPY (SELECT * from read_parquet([%s], union_by_name = true)) TO '%s' (%s)";
+
+    /** Row count SQL query, reads only the Parquet file footers. */
+    private static final String ROWS_SQL = "SELECT sum(num_rows) from parquet_file_metadata([%s])";
+
+    /** Compaction report headers. */
+    static final String[] HEADERS = { "input_files", "output_files", "input_rows", "output_rows", "input_bytes", "output_bytes", "byte_reduction", "elapsed_ms" };
+
+    @Override
+    public Integer call() throws Exception {
+        writerOptions.defaultMaxFileSize(DEFAULT_MAX_FILE_SIZE);
+
+        // without preserving insertion order, input files are read in parallel and written as soon as
+        // each row group is ready, so memory stays bounded by threads times row group size
+        sessionOptions.defaultPreserveOrder(false);
+        writerOptions.validate(spec.commandLine());
+        outputOptions.validate(spec.commandLine(), true);
+        sessionOptions.validate(spec.commandLine());
+
+        List<String> inputParquetFiles = ParquetFiles.expand(inputPaths);
+        if (inputParquetFiles.isEmpty()) {
+            throw new ParameterException(spec.commandLine(), "No input Parquet files found in " + inputPaths);
+        }
+        if (outputDirectory.exists() && !ParquetFiles.expand(Collections.singletonList(outputDirectory.toString())).isEmpty()) {
+            throw new ParameterException(spec.commandLine(), "--output-directory must not contain Parquet files, was " + outputDirectory);
+        }
+
+        try (Connection connection = sessionOptions.open()) {
+            long start = System.nanoTime();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(String.format(COPY_SQL, Sql.quoteLiterals(inputParquetFiles), outputDirectory.toString(), writerOptions.copyOptions()));
+                Metrics.rows(statement.getUpdateCount());
+            }
+            Metrics.time(Metrics.QUERY, start);
+            long elapsed = (System.nanoTime() - start) / 1000000L;
+
+            // report file count and byte reduction
+            List<String> outputParquetFiles = ParquetFiles.expand(Collections.singletonList(outputDirectory.toString()));
+            Long inputBytes = bytes(inputParquetFiles);
+            Long outputBytes = bytes(outputParquetFiles);
+            String[] row = new String[] {
+                String.valueOf(inputParquetFiles.size()),
+                String.valueOf(outputParquetFiles.size()),
+                String.valueOf(rows(connection, inputParquetFiles)),
+                String.valueOf(rows(connection, outputParquetFiles)),
+                inputBytes == null ? null : String.valueOf(inputBytes),
+                String.valueOf(outputBytes),
+                (inputBytes == null || inputBytes == 0L) ? null : String.valueOf(1.0d - ((double) outputBytes) / inputBytes),
+                String.valueOf(elapsed)
+            };
+            try (TabularOutput output = new TabularOutput(outputOptions)) {
+                output.write(HEADERS, Collections.singletonList(row));
+            }
+
+            // write manifest
+            if (writerOptions.manifest() != null) {
+                Manifest.write(connection, Collections.singletonList(outputDirectory), writerOptions.manifest());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Return the total number of rows in the specified Parquet files.
+     *
+     * @param connection connection
+     * @param parquetFiles Parquet files
+     * @return the total number of rows in the specified Parquet files
+     * @throws Exception if an error occurs
+     */
+    private static long rows(final Connection connection, final List<String> parquetFiles) throws Exception {
+        if (parquetFiles.isEmpty()) {
+            return 0L;
+        }
+        try (Statement query = connection.createStatement(); ResultSet resultSet = query.executeQuery(String.format(ROWS_SQL, Sql.quoteLiterals(parquetFiles)))) {
+            return resultSet.next() ? resultSet.getLong(1) : 0L;
+        }
+    }
+
+    /**
+     * Return the total size in bytes of the specified Parquet files.
+     *
+     * @param parquetFiles Parquet files
+     * @return the total size in bytes of the specified Parquet files, or <code>null</code>
+     *    if any of the specified Parquet files are remote
+     * @throws Exception if an error occurs
+     */
+    private static Long bytes(final List<String> parquetFiles) throws Exception {
+        long bytes = 0L;
+        for (String parquetFile : parquetFiles) {
+            if (ParquetFiles.isRemote(parquetFile)) {
+                return null;
+            }
+            bytes += Files.size(Paths.get(parquetFile));
+        }
+        return bytes;
+    }
+
+
+    /**
+     * Main.
+     *
+     * @param args command line args
+     */
+    public static void main(final String[] args) {
+        System.exit(new CommandLine(new Compact()).execute(args));
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.File;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.duckdb.DuckDBConnection;
+
+/**
+ * DuckDB connections.
+ */
+final class Connections {
+
+    /** Shared connections, by JDBC connection URL. */
+    private static final Map<String, Connection> SHARED = new ConcurrentHashMap<String, Connection>();
+
+    /** Query profiling, by connection, shared with connections duplicated from each. */
+    private static final Map<DuckDBConnection, Profiling> PROFILING = Collections.synchronizedMap(new WeakHashMap<DuckDBConnection, Profiling>());
+
+    /** Enable profiling SQL statement. */
+    private static final String ENABLE_PROFILING_SQL = "PRAGMA enable_profiling = 'json'";
+
+    /** Profiling output SQL statement. */
+    private static final String PROFILING_OUTPUT_SQL = "SET profiling_output = %s";
+
+    /**
+     * Private no-arg constructor.
+     */
+    private Connections() {
+        // empty
+    }
+
+    /**
+     * Open a new connection to a DuckDB database at the specified JDBC connection URL.
+     * If a shared database is open for the specified JDBC connection URL, the new
+     * connection is duplicated from it instead of opening a new database.
+     *
+     * @param url JDBC connection URL, must not be null
+     * @return a new connection to a DuckDB database at the specified JDBC connection URL
+     * @throws ClassNotFoundException if the DuckDB JDBC driver is not found
+     * @throws SQLException if a database access error occurs
+     */
+    static Connection open(final String url) throws ClassNotFoundException, SQLException {
+        return open(url, new Properties());
+    }
+
+    /**
+     * Open a new connection to a DuckDB database at the specified JDBC connection URL,
+     * configured with the specified DuckDB settings.  If a shared database is open for
+     * the specified JDBC connection URL, the new connection is duplicated from it
+     * instead of opening a new database, and the specified settings are ignored.
+     *
+     * @param url JDBC connection URL, must not be null
+     * @param properties DuckDB settings, must not be null
+     * @return a new connection to a DuckDB database at the specified JDBC connection URL
+     * @throws ClassNotFoundException if the DuckDB JDBC driver is not found
+     * @throws SQLException if a database access error occurs
+     */
+    static Connection open(final String url, final Properties properties) throws ClassNotFoundException, SQLException {
+        long start = System.nanoTime();
+        Connection shared = SHARED.get(url);
+        if (shared != null) {
+            Connection connection = duplicate(shared);
+            Metrics.time(Metrics.CONNECT, start);
+            return connection;
+        }
+        Class.forName("org.duckdb.DuckDBDriver");
+        Metrics.time(Metrics.DRIVER_LOAD, start);
+
+        start = System.nanoTime();
+        Connection connection = DriverManager.getConnection(url, properties);
+        Metrics.time(Metrics.CONNECT, start);
+        return connection;
+    }
+
+    /**
+     * Open and keep a shared DuckDB database at the specified JDBC connection URL,
+     * for reuse by subsequent calls to <code>open</code> in this process.
+     *
+     * @param url JDBC connection URL, must not be null
+     * @throws ClassNotFoundException if the DuckDB JDBC driver is not found
+     * @throws SQLException if a database access error occurs
+     */
+    static void share(final String url) throws ClassNotFoundException, SQLException {
+        share(url, new Properties());
+    }
+
+    /**
+     * Open and keep a shared DuckDB database at the specified JDBC connection URL,
+     * configured with the specified DuckDB settings, for reuse by subsequent calls
+     * to <code>open</code> in this process.
+     *
+     * @param url JDBC connection URL, must not be null
+     * @param properties DuckDB settings, must not be null
+     * @throws ClassNotFoundException if the DuckDB JDBC driver is not found
+     * @throws SQLException if a database access error occurs
+     */
+    static void share(final String url, final Properties properties) throws ClassNotFoundException, SQLException {
+        if (!SHARED.containsKey(url)) {
+            Class.forName("org.duckdb.DuckDBDriver");
+            SHARED.put(url, DriverManager.getConnection(url, properties));
+        }
+    }
+
+    /**
+     * Return true if a shared DuckDB database is open for the specified JDBC connection URL.
+     *
+     * @param url JDBC connection URL
+     * @return true if a shared DuckDB database is open for the specified JDBC connection URL
+     */
+    static boolean isShared(final String url) {
+        return SHARED.containsKey(url);
+    }
+
+    /**
+     * Close all shared DuckDB databases.
+     */
+    static void closeShared() {
+        for (Connection connection : SHARED.values()) {
+            try {
+                connection.close();
+            }
+            catch (SQLException e) {
+                // ignore
+            }
+        }
+        SHARED.clear();
+    }
+
+    /**
+     * Duplicate the specified connection, returning a new connection that shares
+     * the same DuckDB database instance.  Duplicated connections may be used
+     * concurrently from separate threads.
+     *
+     * @param connection connection to duplicate, must not be null
+     * @return a new connection that shares the same DuckDB database instance
+     * @throws SQLException if a database access error occurs
+     */
+    static Connection duplicate(final Connection connection) throws SQLException {
+        DuckDBConnection duckdbConnection = connection.unwrap(DuckDBConnection.class);
+        Connection duplicate = duckdbConnection.duplicate();
+        Profiling profiling = PROFILING.get(duckdbConnection);
+        if (profiling != null) {
+            try {
+                profile(duplicate, profiling);
+            }
+            catch (SQLException e) {
+                duplicate.close();
+                throw e;
+            }
+        }
+        return duplicate;
+    }
+
+    /**
+     * Enable query profiling in JSON format on the specified connection and on every
+     * connection duplicated from it.  DuckDB profiles per connection and rewrites the
+     * profiling output after each query, so each connection writes its own file, the
+     * specified file for the specified connection, and the specified file numbered
+     * in order of duplication for duplicated connections, e.g. <code>profile.1.json</code>.
+     *
+     * @param connection connection, must not be null
+     * @param file profiling output file, must not be null
+     * @throws SQLException if a database access error occurs
+     */
+    static void profile(final Connection connection, final File file) throws SQLException {
+        profile(connection, new Profiling(file));
+    }
+
+    private static void profile(final Connection connection, final Profiling profiling) throws SQLException {
+        File file = profiling.next();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(ENABLE_PROFILING_SQL);
+            statement.execute(String.format(PROFILING_OUTPUT_SQL, Sql.quoteLiteral(file.toString())));
+        }
+        PROFILING.put(connection.unwrap(DuckDBConnection.class), profiling);
+        Metrics.duckdbProfile(file);
+    }
+
+    /**
+     * Query profiling output files for a connection and the connections duplicated from it.
+     */
+    private static final class Profiling {
+        /** Profiling output file for the first connection. */
+        private final File file;
+
+        /** Number of connections profiled. */
+        private final AtomicInteger count = new AtomicInteger();
+
+        Profiling(final File file) {
+            this.file = file;
+        }
+
+        /**
+         * Return the profiling output file for the next connection.
+         *
+         * @return the profiling output file for the next connection
+         */
+        File next() {
+            int n = count.getAndIncrement();
+            if (n == 0) {
+                return file;
+            }
+            String name = file.getName();
+            int dot = name.lastIndexOf('.');
+            String numbered = (dot > 0) ? name.substring(0, dot) + "." + n + name.substring(dot) : name + "." + n;
+            return new File(file.getAbsoluteFile().getParentFile(), numbered);
+        }
+    }
+}
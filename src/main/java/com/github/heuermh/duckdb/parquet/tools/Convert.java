@@ -16,16 +16,40 @@
 package com.github.heuermh.duckdb.parquet.tools;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import java.math.BigDecimal;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.Statement;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import java.util.stream.Stream;
 
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
 
 /**
  * Convert input Parquet file to DuckDB as Parquet file.
@@ -33,46 +57,450 @@ import picocli.CommandLine.Parameters;
 @Command(name = "convert")
 public final class Convert implements Callable<Integer> {
 
-    @Option(names = { "-i", "--input-parquet-file" }, required = true)
-    private File inputParquetFile = null;
+    @Option(names = { "-i", "--input-parquet-file" }, arity = "1..*", required = true, descriptionKey = "input-parquet-files")
+    private List<String> inputPaths;
 
-    @Option(names = { "-o", "--output-parquet-file" }, required = true)
+    @Option(names = { "-o", "--output-parquet-file" })
     private File outputParquetFile = null;
 
-    @Option(names = { "-u", "--url" })
-    private String url = "jdbc:duckdb:";
+    @Option(names = { "-d", "--output-directory" })
+    private File outputDirectory = null;
+
+    @Mixin
+    private SessionOptions sessionOptions;
+
+    @Option(names = { "-w", "--workers" })
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    @Mixin
+    private WriterOptions writerOptions;
+
+    @Option(names = { "--sort-by" }, split = ",")
+    private List<String> sortBy = new ArrayList<String>();
+
+    @Option(names = { "--cluster-by" }, split = ",")
+    private List<String> clusterBy = new ArrayList<String>();
+
+    @Option(names = { "--overlap-report" })
+    private File overlapReport;
+
+    @Option(names = { "--resumable" })
+    private boolean resumable;
+
+    @Option(names = { "--rows-per-part" })
+    private long rowsPerPart = DEFAULT_ROWS_PER_PART;
+
+    @Option(names = { "--slices" })
+    private Integer slices;
+
+    @Option(names = { "--summary" })
+    private boolean summary;
+
+    @Option(names = { "--skip-header" })
+    private boolean skipHeader;
 
-    @Option(names = { "-c", "--codec" })
-    private String parquetCodec = "ZSTD";
+    @Spec
+    private CommandSpec spec;
 
-    /** Create SQL statement. */
-    private static final String CREATE_SQL = "CREATE TABLE records AS SELECT * from read_parquet('%s')";
+    /** Copy SQL statement, streams records from the input Parquet file without materializing a table. */
+    private static final String COPY_SQL = "COPY (%s) TO '%s' (%s)";
 
-    /** Copy SQL statement. */
-    private static final String COPY_SQL = "COPY records TO '%s' (FORMAT 'PARQUET', CODEC '%s')";
+    /** Select SQL query. */
+    private static final String SELECT_SQL = "SELECT * from read_parquet('%s')";
+
+    /** Cluster SQL query, with Z-order key columns ranked against quantiles from a bounded sample, sorted once. */
+    private static final String CLUSTER_SQL = "SELECT * EXCLUDE (%s) FROM (SELECT r.*, %s from read_parquet('%s') r, (SELECT %s FROM (SELECT %s from read_parquet('%s') USING SAMPLE reservoir(%d ROWS) REPEATABLE (%d))) q) ORDER BY %s";
+
+    /** Total number of bits in Z-order keys. */
+    private static final int ZORDER_BITS = 64;
+
+    /** Maximum number of bits per column in Z-order keys. */
+    private static final int MAX_ZORDER_BITS_PER_COLUMN = 10;
+
+    /** Number of rows sampled for Z-order quantiles. */
+    private static final int ZORDER_SAMPLE_ROWS = 262144;
+
+    /** Z-order sample seed, so that clustering is repeatable. */
+    private static final int ZORDER_SAMPLE_SEED = 42;
+
+    /** Default number of rows per part for resumable conversions. */
+    static final long DEFAULT_ROWS_PER_PART = 10000000L;
+
+    /** Part select list. */
+    private static final String PART_COLUMNS = "* EXCLUDE (file_row_number)";
+
+    /** Part copy options, intermediate part files favor write speed. */
+    private static final String PART_COPY_OPTIONS = "FORMAT 'PARQUET', CODEC 'SNAPPY'";
+
+    /** Assemble SQL query, reads part files in order. */
+    private static final String ASSEMBLE_SQL = "SELECT * from read_parquet([%s])";
+
+    /** Row count SQL query, reads only the Parquet file footer. */
+    private static final String ROWS_SQL = "SELECT num_rows from parquet_file_metadata('%s')";
+
+    /** Headers to write. */
+    private static final String HEADERS = "input_file\toutput_file\trows\telapsed_ms\trows_per_second\tpeak_rss_bytes\twriter_options";
+
+    /** Overlap report headers to write. */
+    private static final String OVERLAP_HEADERS = "input_file\tcolumn\toverlap_before\toverlap_after";
 
     @Override
     public Integer call() throws Exception {
+        writerOptions.validate(spec.commandLine());
+        sessionOptions.validate(spec.commandLine());
+        if (clusterBy.size() > (ZORDER_BITS / 2)) {
+            throw new ParameterException(spec.commandLine(), "--cluster-by supports at most " + (ZORDER_BITS / 2) + " columns");
+        }
+        if ((resumable || slices != null) && (!sortBy.isEmpty() || !clusterBy.isEmpty())) {
+            throw new ParameterException(spec.commandLine(), "--resumable and --slices do not support --sort-by or --cluster-by, since parts are converted independently");
+        }
+        if (slices != null && slices < 1) {
+            throw new ParameterException(spec.commandLine(), "--slices must be greater than zero, was " + slices);
+        }
+        if (slices != null && outputParquetFile != null) {
+            throw new ParameterException(spec.commandLine(), "--slices writes a directory of Parquet files per input Parquet file, specify --output-directory instead of --output-parquet-file");
+        }
+        if (slices != null && writerOptions.isDirectory()) {
+            throw new ParameterException(spec.commandLine(), "--slices does not support --partition-by, --max-file-size, or --rows-per-file, since each slice is written as one Parquet file");
+        }
+        if (rowsPerPart < 1L) {
+            throw new ParameterException(spec.commandLine(), "--rows-per-part must be greater than zero, was " + rowsPerPart);
+        }
+        List<String> inputParquetFiles = ParquetFiles.expand(inputPaths);
+        List<File> outputParquetFiles = outputParquetFiles(inputParquetFiles);
 
-        // connect to DuckDB
-        Class.forName("org.duckdb.DuckDBDriver");
-        try (Connection connection = DriverManager.getConnection(url)) {
+        // connect to DuckDB, sharing one database instance across all workers
+        try (Connection connection = sessionOptions.open()) {
+            ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(workers, inputParquetFiles.size())));
+            try {
+                List<Future<Conversion>> futures = new ArrayList<Future<Conversion>>(inputParquetFiles.size());
+                for (int i = 0, size = inputParquetFiles.size(); i < size; i++) {
+                    String inputParquetFile = inputParquetFiles.get(i);
+                    File outputParquetFile = outputParquetFiles.get(i);
+                    futures.add(executorService.submit(() -> convert(connection, inputParquetFile, outputParquetFile)));
+                }
 
-            // create in-memory DuckDB table from Parquet file
-            try (Statement create = connection.createStatement()) {
-                String sql = String.format(CREATE_SQL, inputParquetFile.toString());
-                create.execute(sql);
-            }
+                // print header
+                if (summary && !skipHeader) {
+                    System.out.println(HEADERS);
+                }
+
+                // print per-file summary in input order
+                List<String> overlaps = new ArrayList<String>();
+                for (Future<Conversion> future : futures) {
+                    try {
+                        Conversion conversion = future.get();
+                        if (summary) {
+                            System.out.println(conversion.summary);
+                        }
+                        overlaps.addAll(conversion.overlaps);
+                    }
+                    catch (ExecutionException e) {
+                        if (e.getCause() instanceof Exception) {
+                            throw (Exception) e.getCause();
+                        }
+                        throw e;
+                    }
+                }
+
+                // write manifest
+                if (writerOptions.manifest() != null) {
+                    Manifest.write(connection, outputParquetFiles, writerOptions.manifest());
+                }
 
-            // copy records from DuckDB table to disk as Parquet file
-            try (Statement copy = connection.createStatement()) {
-                String sql = String.format(COPY_SQL, outputParquetFile.toString(), parquetCodec);
-                copy.execute(sql);
+                // write overlap report
+                if (overlapReport != null) {
+                    try (PrintWriter writer = new PrintWriter(overlapReport, "UTF-8")) {
+                        if (!skipHeader) {
+                            writer.print(OVERLAP_HEADERS + "\n");
+                        }
+                        for (String overlap : overlaps) {
+                            writer.print(overlap + "\n");
+                        }
+                    }
+                }
+            }
+            finally {
+                executorService.shutdownNow();
             }
         }
         return 0;
     }
 
+    /**
+     * Return output Parquet files for the specified input Parquet files.
+     *
+     * @param inputParquetFiles input Parquet files
+     * @return output Parquet files for the specified input Parquet files
+     */
+    private List<File> outputParquetFiles(final List<String> inputParquetFiles) {
+        if (inputParquetFiles.isEmpty()) {
+            throw new ParameterException(spec.commandLine(), "No input Parquet files found in " + inputPaths);
+        }
+        if ((outputParquetFile == null) == (outputDirectory == null)) {
+            throw new ParameterException(spec.commandLine(), "Exactly one of --output-parquet-file or --output-directory must be specified");
+        }
+        List<File> outputParquetFiles = new ArrayList<File>(inputParquetFiles.size());
+        if (outputParquetFile != null) {
+            if (inputParquetFiles.size() > 1) {
+                throw new ParameterException(spec.commandLine(), "--output-directory must be specified for more than one input Parquet file");
+            }
+            outputParquetFiles.add(outputParquetFile);
+        }
+        else {
+            outputDirectory.mkdirs();
+            Set<String> fileNames = new HashSet<String>(inputParquetFiles.size());
+            for (String inputParquetFile : inputParquetFiles) {
+                String fileName = ParquetFiles.fileName(inputParquetFile);
+                if (!fileNames.add(fileName)) {
+                    throw new ParameterException(spec.commandLine(), "More than one input Parquet file named " + fileName);
+                }
+                outputParquetFiles.add(new File(outputDirectory, fileName));
+            }
+        }
+        return outputParquetFiles;
+    }
+
+    /**
+     * Return the select SQL query for the specified input Parquet file, sorted and clustered if specified.
+     *
+     * @param inputParquetFile input Parquet file
+     * @return the select SQL query for the specified input Parquet file
+     */
+    private String selectSql(final String inputParquetFile) {
+        if (clusterBy.isEmpty()) {
+            String sql = String.format(SELECT_SQL, inputParquetFile);
+            return sortBy.isEmpty() ? sql : sql + " ORDER BY " + Sql.quoteIdentifiers(sortBy);
+        }
+
+        // rank each cluster column into 2^bits buckets by binary search over quantiles of a
+        // bounded sample, then sort once by bit-interleaved Z-order key
+        int n = clusterBy.size();
+        int bits = Math.min(MAX_ZORDER_BITS_PER_COLUMN, ZORDER_BITS / n);
+        int buckets = 1 << bits;
+        List<String> fractions = new ArrayList<String>(buckets - 1);
+        for (int k = 1; k < buckets; k++) {
+            // exact, buckets is a power of two
+            fractions.add(BigDecimal.valueOf(k).divide(BigDecimal.valueOf(buckets)).toPlainString());
+        }
+        List<String> keys = new ArrayList<String>(n);
+        List<String> ranks = new ArrayList<String>(n);
+        List<String> quantiles = new ArrayList<String>(n);
+        for (int j = 0; j < n; j++) {
+            String key = "__zorder_" + j;
+            String column = Sql.quoteIdentifier(clusterBy.get(j));
+            keys.add(key);
+            ranks.add("CAST(" + rank("r." + column, "q." + key, 0, buckets) + " AS UBIGINT) AS " + key);
+            quantiles.add("quantile_disc(" + column + ", [" + String.join(", ", fractions) + "]) AS " + key);
+        }
+        StringBuilder zorder = new StringBuilder();
+        for (int b = 0; b < bits; b++) {
+            for (int j = 0; j < n; j++) {
+                if (zorder.length() > 0) {
+                    zorder.append(" | ");
+                }
+                zorder.append("(((").append(keys.get(j)).append(" >> ").append(b).append(") & 1) << ").append(b * n + j).append(")");
+            }
+        }
+        String orderBy = sortBy.isEmpty() ? zorder.toString() : zorder + ", " + Sql.quoteIdentifiers(sortBy);
+        return String.format(CLUSTER_SQL, String.join(", ", keys), String.join(", ", ranks), inputParquetFile, String.join(", ", quantiles),
+                             Sql.quoteIdentifiers(clusterBy), inputParquetFile, ZORDER_SAMPLE_ROWS, ZORDER_SAMPLE_SEED, orderBy);
+    }
+
+    /**
+     * Return a SQL expression for the bucket of the specified column in <code>[low, high)</code>,
+     * by binary search over a list of bucket boundaries, where boundary <code>k</code> (one-based)
+     * is the lowest value of bucket <code>k</code>.  Nulls rank in the highest bucket.
+     *
+     * @param column column expression
+     * @param boundaries bucket boundaries list expression
+     * @param low lowest bucket, inclusive
+     * @param high highest bucket, exclusive
+     * @return a SQL expression for the bucket of the specified column
+     */
+    private static String rank(final String column, final String boundaries, final int low, final int high) {
+        if (high - low == 1) {
+            return String.valueOf(low);
+        }
+        int mid = (low + high) >>> 1;
+        return "CASE WHEN " + column + " < " + boundaries + "[" + mid + "] THEN " + rank(column, boundaries, low, mid) + " ELSE " + rank(column, boundaries, mid, high) + " END";
+    }
+
+    /**
+     * Convert the specified input Parquet file on a connection duplicated from the specified connection.
+     *
+     * @param connection connection
+     * @param inputParquetFile input Parquet file
+     * @param outputParquetFile output Parquet file
+     * @return summary for the conversion
+     * @throws Exception if an error occurs
+     */
+    private Conversion convert(final Connection connection, final String inputParquetFile, final File outputParquetFile) throws Exception {
+        long start = System.nanoTime();
+        try (Connection duplicate = Connections.duplicate(connection)) {
+
+            // stream records from Parquet file to disk as Parquet file
+            if (resumable || slices != null) {
+                convertSlices(duplicate, inputParquetFile, outputParquetFile);
+            }
+            else {
+                try (Statement copy = duplicate.createStatement()) {
+                    String sql = String.format(COPY_SQL, selectSql(inputParquetFile), outputParquetFile.toString(), writerOptions.copyOptions());
+                    copy.execute(sql);
+                    Metrics.rows(copy.getUpdateCount());
+                }
+            }
+            Metrics.time(Metrics.QUERY, start);
+        }
+        long elapsed = (System.nanoTime() - start) / 1000000L;
+
+        // report on a separate connection, so that the conversion is the last query profiled on its connection
+        try (Connection duplicate = Connections.duplicate(connection)) {
+            Conversion conversion = new Conversion();
+            if (summary) {
+                long rows = rows(duplicate, outputParquetFile);
+                long peakRss = Memory.peakResidentSetSize();
+                conversion.summary = inputParquetFile + "\t" + outputParquetFile + "\t" + rows + "\t" + elapsed + "\t"
+                    + (elapsed > 0L ? (rows * 1000L) / elapsed : rows) + "\t" + (peakRss < 0L ? "" : peakRss) + "\t" + writerOptions.describe();
+            }
+            if (overlapReport != null) {
+                Set<String> columns = new LinkedHashSet<String>(clusterBy);
+                columns.addAll(sortBy);
+                for (String column : columns) {
+                    double before = Overlap.overlap(duplicate, inputParquetFile, column);
+                    double after = Overlap.overlap(duplicate, ParquetFiles.scanPath(outputParquetFile), column);
+                    conversion.overlaps.add(inputParquetFile + "\t" + column + "\t" + before + "\t" + after);
+                }
+            }
+            return conversion;
+        }
+    }
+
+    /**
+     * Convert the specified input Parquet file in parts of whole row groups, skipping parts
+     * completed by a previous attempt if resumable.  If sliced, parts are converted concurrently
+     * with the requested writer options directly into a directory of Parquet files, one per
+     * slice in input order, which is moved into place as the output under the output directory.
+     * Otherwise parts are converted one at a time and assembled in order into a single output
+     * Parquet file with the requested writer options.
+     * Part files and the checkpoint are kept in a <code>.parts</code> directory next to the
+     * output until the output has been moved into place.
+     *
+     * @param connection connection
+     * @param inputParquetFile input Parquet file
+     * @param outputParquetFile output Parquet file
+     * @throws Exception if an error occurs
+     */
+    private void convertSlices(final Connection connection, final String inputParquetFile, final File outputParquetFile) throws Exception {
+        // plan slices on row group boundaries, from the footer only
+        List<long[]> ranges = resumable
+            ? RowGroupSlices.byRows(connection, inputParquetFile, rowsPerPart)
+            : RowGroupSlices.byCount(connection, inputParquetFile, slices);
+
+        File partsDirectory = new File(outputParquetFile.getPath() + ".parts");
+        if (!resumable) {
+            delete(partsDirectory.toPath());
+        }
+        partsDirectory.mkdirs();
+        File checkpointFile = new File(partsDirectory, "checkpoint");
+        Checkpoint checkpoint = resumable ? new Checkpoint(checkpointFile, inputParquetFile, ranges, writerOptions.describe()) : null;
+
+        // slices are written once with the requested writer options, resumable parts are re-encoded when assembled
+        boolean direct = slices != null;
+        String partCopyOptions = direct ? writerOptions.copyOptions() : PART_COPY_OPTIONS;
+
+        // convert each remaining part to a temporary file, concurrently if sliced, then move it into place before checkpointing
+        List<String> parts = RowGroupSlices.map(connection, ranges, direct ? slices : 1, (duplicate, i, range) -> {
+                File part = new File(partsDirectory, String.format("part-%05d.parquet", i));
+                if (checkpoint != null && checkpoint.isComplete(i) && part.exists()) {
+                    return part.toString();
+                }
+                File temp = new File(partsDirectory, "." + part.getName() + ".tmp");
+                try (Statement copy = duplicate.createStatement()) {
+                    String sql = RowGroupSlices.select(inputParquetFile, range, PART_COLUMNS);
+                    copy.execute(String.format(COPY_SQL, sql, temp.toString(), partCopyOptions));
+                    if (direct) {
+                        Metrics.rows(copy.getUpdateCount());
+                    }
+                }
+                Files.move(temp.toPath(), part.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                if (checkpoint != null) {
+                    checkpoint.complete(i);
+                }
+                return part.toString();
+            });
+
+        // move the directory of slices into place as the output
+        if (direct) {
+            Files.deleteIfExists(checkpointFile.toPath());
+            delete(outputParquetFile.toPath());
+            Files.move(partsDirectory.toPath(), outputParquetFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            return;
+        }
+
+        // assemble parts in order with the requested writer options, then move the output into place
+        try (Statement copy = connection.createStatement()) {
+            File temp = new File(outputParquetFile.getAbsoluteFile().getParentFile(), "." + outputParquetFile.getName() + ".tmp");
+            delete(temp.toPath());
+            copy.execute(String.format(COPY_SQL, String.format(ASSEMBLE_SQL, Sql.quoteLiterals(parts)), temp.toString(), writerOptions.copyOptions()));
+            Metrics.rows(copy.getUpdateCount());
+            if (outputParquetFile.isDirectory()) {
+                delete(outputParquetFile.toPath());
+            }
+            Files.move(temp.toPath(), outputParquetFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        delete(partsDirectory.toPath());
+    }
+
+    /**
+     * Recursively delete the specified file or directory, if it exists.
+     *
+     * @param path file or directory to delete
+     * @throws IOException if an I/O error occurs
+     */
+    private static void delete(final Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path p : (Iterable<Path>) paths.sorted((a, b) -> b.compareTo(a))::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    /**
+     * Return the number of rows in the specified Parquet file.
+     *
+     * @param connection connection
+     * @param parquetFile Parquet file or directory of Parquet files
+     * @return the number of rows in the specified Parquet file
+     * @throws Exception if an error occurs
+     */
+    static long rows(final Connection connection, final File parquetFile) throws Exception {
+        long rows = 0L;
+        try (Statement query = connection.createStatement()) {
+            try (ResultSet resultSet = query.executeQuery(String.format(ROWS_SQL, ParquetFiles.scanPath(parquetFile)))) {
+                while (resultSet.next()) {
+                    rows += resultSet.getLong(1);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Conversion.
+     */
+    private static final class Conversion {
+        /** Summary line, if any. */
+        String summary;
+
+        /** Overlap report lines, if any. */
+        final List<String> overlaps = new ArrayList<String>();
+    }
+
+
     /**
      * Main.
      *
@@ -18,52 +18,138 @@ package com.github.heuermh.duckdb.parquet.tools;
 import java.io.File;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.Statement;
 
+import java.util.Collections;
+
 import java.util.concurrent.Callable;
 
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
 
 /**
- * Create DuckDB table and write as Parquet file.
+ * Create DuckDB table and write as Parquet file, or stream CSV or newline-delimited
+ * JSON input to Parquet file.
  */
 @Command(name = "create")
 public final class Create implements Callable<Integer> {
 
-    @Option(names = { "-s", "--create-table-sql" }, required = true)
+    /**
+     * Streaming input format.
+     */
+    enum InputFormat {
+        CSV,
+        NDJSON
+    }
+
+    @Option(names = { "-s", "--create-table-sql" })
     private String createTableSql;
 
+    @Option(names = { "--input-format" })
+    private InputFormat inputFormat;
+
+    @Option(names = { "--input-file" })
+    private String inputFile = STDIN;
+
+    @Option(names = { "--input-options" })
+    private String inputOptions;
+
     @Option(names = { "-o", "--output-parquet-file" }, required = true)
     private File outputParquetFile = null;
 
-    @Option(names = { "-u", "--url" })
-    private String url = "jdbc:duckdb:";
+    @Mixin
+    private SessionOptions sessionOptions;
+
+    @Mixin
+    private WriterOptions writerOptions;
 
-    @Option(names = { "-c", "--codec" })
-    private String parquetCodec = "ZSTD";
+    @Spec
+    private CommandSpec spec;
 
     /** Copy SQL statement. */
-    private static final String COPY_SQL = "COPY records TO '%s' (FORMAT 'PARQUET', CODEC '%s')";
+    private static final String COPY_SQL = "COPY records TO '%s' (%s)";
+
+    /** Standard input. */
+    static final String STDIN = "/dev/stdin";
+
+    /** Stream copy SQL statement, reads input and writes row groups as they fill without materializing a table. */
+    private static final String STREAM_SQL = "COPY (SELECT * FROM %s) TO '%s' (%s)";
+
+    /** Read CSV SQL table function. */
+    private static final String READ_CSV_SQL = "read_csv(%s%s)";
+
+    /** Read newline-delimited JSON SQL table function. */
+    private static final String READ_NDJSON_SQL = "read_json(%s, format = 'newline_delimited'%s)";
+
+    /** Drop SQL statement. */
+    private static final String DROP_SQL = "DROP TABLE IF EXISTS records";
 
     @Override
     public Integer call() throws Exception {
+        writerOptions.validate(spec.commandLine());
+        sessionOptions.validate(spec.commandLine());
+        if ((createTableSql == null) == (inputFormat == null)) {
+            throw new ParameterException(spec.commandLine(), "Exactly one of --create-table-sql or --input-format must be specified");
+        }
+        if (inputFormat != null && STDIN.equals(inputFile) && sessionOptions.isShared()) {
+            throw new ParameterException(spec.commandLine(), "--input-file must be specified for a shared database, since requests do not have stdin");
+        }
+
+        // stream input to Parquet file, memory is bounded by row group size rather than input size
+        if (inputFormat != null) {
+            try (Connection connection = sessionOptions.open()) {
+                long start = System.nanoTime();
+                try (Statement copy = connection.createStatement()) {
+                    String options = (inputOptions == null || inputOptions.trim().isEmpty()) ? "" : ", " + inputOptions.trim();
+                    String source = String.format(inputFormat == InputFormat.CSV ? READ_CSV_SQL : READ_NDJSON_SQL, Sql.quoteLiteral(inputFile), options);
+                    copy.execute(String.format(STREAM_SQL, source, outputParquetFile.toString(), writerOptions.copyOptions()));
+                    Metrics.rows(copy.getUpdateCount());
+                }
+                Metrics.time(Metrics.QUERY, start);
+
+                // write manifest
+                if (writerOptions.manifest() != null) {
+                    Manifest.write(connection, Collections.singletonList(outputParquetFile), writerOptions.manifest());
+                }
+            }
+            return 0;
+        }
 
         // connect to DuckDB
-        Class.forName("org.duckdb.DuckDBDriver");
-        try (Connection connection = DriverManager.getConnection(url)) {
+        try (Connection connection = sessionOptions.open()) {
+            boolean shared = sessionOptions.isShared();
+            try {
+                // create in-memory DuckDB table
+                long start = System.nanoTime();
+                try (Statement create = connection.createStatement()) {
+                    create.execute(createTableSql);
+                }
 
-            // create in-memory DuckDB table
-            try (Statement create = connection.createStatement()) {
-                create.execute(createTableSql);
+                // copy records from DuckDB table to disk as Parquet file
+                try (Statement copy = connection.createStatement()) {
+                    String sql = String.format(COPY_SQL, outputParquetFile.toString(), writerOptions.copyOptions());
+                    copy.execute(sql);
+                    Metrics.rows(copy.getUpdateCount());
+                }
+                Metrics.time(Metrics.QUERY, start);
+            }
+            finally {
+                // drop records table from shared database, so that it may be created again by the next request
+                if (shared) {
+                    try (Statement drop = connection.createStatement()) {
+                        drop.execute(DROP_SQL);
+                    }
+                }
             }
 
-            // copy records from DuckDB table to disk as Parquet file
-            try (Statement copy = connection.createStatement()) {
-                String sql = String.format(COPY_SQL, outputParquetFile.toString(), parquetCodec);
-                copy.execute(sql);
+            // write manifest
+            if (writerOptions.manifest() != null) {
+                Manifest.write(connection, Collections.singletonList(outputParquetFile), writerOptions.manifest());
             }
         }
         return 0;
@@ -18,7 +18,6 @@ package com.github.heuermh.duckdb.parquet.tools;
 import java.io.File;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.Statement;
@@ -31,8 +30,11 @@ import java.util.concurrent.Callable;
 import com.google.common.io.Files;
 
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
 
 /**
  * Describe Parquet file as loaded by DuckDB in DBML format.
@@ -46,8 +48,14 @@ public final class Dbml implements Callable<Integer> {
     @Option(names = { "-t", "--table-name" }, required = false)
     private String tableName;
 
-    @Option(names = { "-u", "--url" })
-    private String url = "jdbc:duckdb:";
+    @Option(names = { "--footer-only" })
+    private boolean footerOnly;
+
+    @Mixin
+    private SessionOptions sessionOptions;
+
+    @Spec
+    private CommandSpec spec;
 
     /** Describe SQL query. */
     private static final String DESCRIBE_SQL = "SELECT * from read_parquet('%s') WHERE 1=0";
@@ -55,9 +63,30 @@ public final class Dbml implements Callable<Integer> {
     @Override
     public Integer call() throws Exception {
 
+        // read Parquet file footer without DuckDB
+        if (footerOnly) {
+            List<String[]> columns = FooterTables.describe(FooterTables.read(inputParquetFile.toString()));
+
+            if (!columns.isEmpty()) {
+                System.out.print("Table ");
+                System.out.print(tableName == null ? baseName(inputParquetFile) : tableName);
+                System.out.println(" {");
+            }
+
+            // print rows
+            for (String[] column : columns) {
+                System.out.println("  " + column[0] + " " + column[1].toLowerCase());
+            }
+
+            if (!columns.isEmpty()) {
+                System.out.println("}");
+            }
+            return 0;
+        }
+
         // connect to DuckDB
-        Class.forName("org.duckdb.DuckDBDriver");
-        try (Connection connection = DriverManager.getConnection(url)) {
+        sessionOptions.validate(spec.commandLine());
+        try (Connection connection = sessionOptions.open()) {
 
             // describe Parquet file columns as loaded by DuckDB
             try (Statement create = connection.createStatement()) {
@@ -15,22 +15,29 @@
  */
 package com.github.heuermh.duckdb.parquet.tools;
 
-import java.io.File;
-
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.Statement;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
 
 /**
  * Describe Parquet file columns as loaded by DuckDB.
@@ -38,47 +45,142 @@ import picocli.CommandLine.Parameters;
 @Command(name = "describe")
 public final class Describe implements Callable<Integer> {
 
-    @Option(names = { "-i", "--input-parquet-file" }, required = true)
-    private File inputParquetFile = null;
+    @Option(names = { "-i", "--input-parquet-file" }, arity = "1..*", required = true, descriptionKey = "input-parquet-files")
+    private List<String> inputPaths;
+
+    @Mixin
+    private SessionOptions sessionOptions;
 
-    @Option(names = { "-u", "--url" })
-    private String url = "jdbc:duckdb:";
+    @Option(names = { "-w", "--workers" })
+    private int workers = Runtime.getRuntime().availableProcessors();
 
     @Option(names = { "--skip-header" })
     private boolean skipHeader;
 
+    @Option(names = { "--footer-only" })
+    private boolean footerOnly;
+
+    @Mixin
+    private FooterCache footerCache;
+
+    @Spec
+    private CommandSpec spec;
+
     /** Describe SQL query. */
     private static final String DESCRIBE_SQL = "SELECT * from read_parquet('%s') WHERE 1=0";
 
     /** Headers to write. */
-    private static final String HEADERS = "column\tname\ttype";
+    private static final String HEADERS = "file_name\tcolumn\tname\ttype";
 
     @Override
     public Integer call() throws Exception {
+        List<String> inputParquetFiles = ParquetFiles.expand(inputPaths);
+        if (inputParquetFiles.isEmpty()) {
+            throw new ParameterException(spec.commandLine(), "No input Parquet files found in " + inputPaths);
+        }
+        sessionOptions.validate(spec.commandLine());
+        footerCache.validate(spec.commandLine());
+
+        // read Parquet file footers without DuckDB
+        if (footerOnly) {
+            List<ParquetFooter.FileMetaData> footers = FooterTables.read(inputParquetFiles);
+            List<List<String[]>> describes = new ArrayList<List<String[]>>(footers.size());
+            for (ParquetFooter.FileMetaData footer : footers) {
+                describes.add(FooterTables.describe(footer));
+            }
+            print(inputParquetFiles, describes);
+            return 0;
+        }
 
-        // connect to DuckDB
-        Class.forName("org.duckdb.DuckDBDriver");
-        try (Connection connection = DriverManager.getConnection(url)) {
-
-            // describe Parquet file columns as loaded by DuckDB
-            try (Statement create = connection.createStatement()) {
-                String sql = String.format(DESCRIBE_SQL, inputParquetFile.toString());
-                try (ResultSet resultSet = create.executeQuery(sql)) {
-                    ResultSetMetaData metaData = resultSet.getMetaData();
+        // connect to DuckDB, sharing one database instance across all workers
+        try (Connection connection = sessionOptions.open()) {
 
-                    // print header
-                    if (!skipHeader && (metaData.getColumnCount() > 0)) {
-                        System.out.println(HEADERS);
+            // only describe files not found in the footer cache, if enabled
+            Map<String, List<String[]>> cached = footerCache.describes(connection, inputParquetFiles);
+            ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(workers, inputParquetFiles.size())));
+            try {
+                List<Future<List<String[]>>> futures = new ArrayList<Future<List<String[]>>>(inputParquetFiles.size());
+                for (String inputParquetFile : inputParquetFiles) {
+                    futures.add(cached.containsKey(inputParquetFile) ? null : executorService.submit(() -> describe(connection, inputParquetFile)));
+                }
+                List<List<String[]>> describes = new ArrayList<List<String[]>>(futures.size());
+                Map<String, List<String[]>> described = new HashMap<String, List<String[]>>();
+                for (int i = 0, size = futures.size(); i < size; i++) {
+                    Future<List<String[]>> future = futures.get(i);
+                    if (future == null) {
+                        describes.add(cached.get(inputParquetFiles.get(i)));
+                        continue;
+                    }
+                    try {
+                        List<String[]> columns = future.get();
+                        describes.add(columns);
+                        described.put(inputParquetFiles.get(i), columns);
+                    }
+                    catch (ExecutionException e) {
+                        if (e.getCause() instanceof Exception) {
+                            throw (Exception) e.getCause();
+                        }
+                        throw e;
                     }
+                }
+                footerCache.putDescribes(connection, described);
+                print(inputParquetFiles, describes);
+            }
+            finally {
+                executorService.shutdownNow();
+            }
+        }
+        return 0;
+    }
 
-                    // print rows
+    /**
+     * Describe the specified Parquet file columns as loaded by DuckDB, on a connection
+     * duplicated from the specified connection.
+     *
+     * @param connection connection
+     * @param inputParquetFile input Parquet file
+     * @return column names and types for the specified Parquet file
+     * @throws Exception if an error occurs
+     */
+    private static List<String[]> describe(final Connection connection, final String inputParquetFile) throws Exception {
+        try (Connection duplicate = Connections.duplicate(connection)) {
+            try (Statement create = duplicate.createStatement()) {
+                String sql = String.format(DESCRIBE_SQL, inputParquetFile);
+                try (ResultSet resultSet = create.executeQuery(sql)) {
+                    ResultSetMetaData metaData = resultSet.getMetaData();
+                    List<String[]> columns = new ArrayList<String[]>(metaData.getColumnCount());
                     for (int i = 1; i < (metaData.getColumnCount() + 1); i++) {
-                        System.out.println(i + "\t" + metaData.getColumnName(i) + "\t" + metaData.getColumnTypeName(i));
+                        columns.add(new String[] { metaData.getColumnName(i), metaData.getColumnTypeName(i) });
                     }
+                    return columns;
                 }
             }
         }
-        return 0;
+    }
+
+    /**
+     * Print column names and types for the specified Parquet files.
+     *
+     * @param inputParquetFiles input Parquet files
+     * @param describes column names and types for each input Parquet file
+     */
+    private void print(final List<String> inputParquetFiles, final List<List<String[]>> describes) {
+        StringBuilder sb = new StringBuilder();
+
+        // print header
+        if (!skipHeader && describes.stream().anyMatch(columns -> !columns.isEmpty())) {
+            sb.append(HEADERS).append("\n");
+        }
+
+        // print rows
+        for (int f = 0, files = inputParquetFiles.size(); f < files; f++) {
+            List<String[]> columns = describes.get(f);
+            for (int i = 0, size = columns.size(); i < size; i++) {
+                sb.append(inputParquetFiles.get(f)).append("\t").append(i + 1).append("\t").append(columns.get(i)[0]).append("\t").append(columns.get(i)[1]).append("\n");
+            }
+        }
+        System.out.print(sb);
+        System.out.flush();
     }
 
     /**
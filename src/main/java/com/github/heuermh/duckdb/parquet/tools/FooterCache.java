@@ -0,0 +1,440 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+
+/**
+ * Persistent cache of footer-derived results, shared by commands that read Parquet file footers.
+ *
+ * <p>Results are kept in a DuckDB database attached to the session, keyed by kind of result,
+ * file path, size, and modification time, so that repeated runs only read the footers of new
+ * or changed local files.  Local files are keyed by absolute, normalized path, so that relative
+ * paths from different working directories do not collide.  Remote files are never cached.
+ * Least recently used entries of a kind are evicted when the number of cached files of that
+ * kind exceeds the maximum; the cache database file is not limited in bytes.  Cached results
+ * are dropped when the cache database was written by a different version of DuckDB, whose
+ * table functions may return different columns or values.</p>
+ */
+final class FooterCache {
+
+    @Option(names = { "--footer-cache" })
+    private boolean enabled;
+
+    @Option(names = { "--footer-cache-directory" })
+    private File directory = defaultDirectory();
+
+    @Option(names = { "--footer-cache-max-files" })
+    private long maxFiles = DEFAULT_MAX_FILES;
+
+    /** True if the cache database is attached for this command. */
+    private boolean attached;
+
+    /** Metadata kind, rows from <code>parquet_metadata</code>. */
+    static final String METADATA = "metadata";
+
+    /** Schema kind, rows from <code>parquet_schema</code>. */
+    static final String SCHEMA = "schema";
+
+    /** Describe kind, column names and types as loaded by DuckDB. */
+    static final String DESCRIBE = "describe";
+
+    /** Default maximum number of cached files, per kind of result. */
+    static final long DEFAULT_MAX_FILES = 1000000L;
+
+    /** Maximum number of file paths per SQL statement. */
+    private static final int CHUNK_SIZE = 10000;
+
+    /** Cache database file name. */
+    private static final String DATABASE_FILE_NAME = "footers.duckdb";
+
+    /** Attach SQL statement, attached databases are kept by a shared database across requests. */
+    private static final String ATTACH_SQL = "ATTACH IF NOT EXISTS %s AS footer_cache";
+
+    /** Version table SQL statement. */
+    private static final String VERSION_TABLE_SQL = "CREATE TABLE IF NOT EXISTS footer_cache.version (duckdb_version VARCHAR)";
+
+    /** Version SQL query, for the version of DuckDB that wrote the cache and the running version. */
+    private static final String VERSION_SQL = "SELECT (SELECT max(duckdb_version) FROM footer_cache.version) IS NOT DISTINCT FROM version()";
+
+    /** Drop table SQL statement. */
+    private static final String DROP_TABLE_SQL = "DROP TABLE IF EXISTS footer_cache.%s";
+
+    /** Update version SQL statements. */
+    private static final String[] UPDATE_VERSION_SQL = { "DELETE FROM footer_cache.version", "INSERT INTO footer_cache.version VALUES (version())" };
+
+    /** Files table SQL statement. */
+    private static final String FILES_TABLE_SQL = "CREATE TABLE IF NOT EXISTS footer_cache.files (kind VARCHAR, file_name VARCHAR, size BIGINT, mtime BIGINT, last_used TIMESTAMP, PRIMARY KEY (kind, file_name))";
+
+    /** Describe table SQL statement. */
+    private static final String DESCRIBE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS footer_cache.describe (file_name VARCHAR, column_index INTEGER, name VARCHAR, type VARCHAR)";
+
+    /** Result table SQL statement, with the columns of the table function. */
+    private static final String RESULT_TABLE_SQL = "CREATE TABLE IF NOT EXISTS footer_cache.%s AS SELECT * FROM %s([%s]) LIMIT 0";
+
+    /** Cached files SQL query. */
+    private static final String FILES_SQL = "SELECT file_name, size, mtime FROM footer_cache.files WHERE kind = '%s'";
+
+    /** Delete results SQL statement. */
+    private static final String DELETE_SQL = "DELETE FROM footer_cache.%s WHERE file_name IN (%s)";
+
+    /** Insert results SQL statement. */
+    private static final String INSERT_SQL = "INSERT INTO footer_cache.%s SELECT * FROM %s([%s])";
+
+    /** Insert or replace files SQL statement. */
+    private static final String UPSERT_FILES_SQL = "INSERT OR REPLACE INTO footer_cache.files VALUES %s";
+
+    /** Touch files SQL statement. */
+    private static final String TOUCH_SQL = "UPDATE footer_cache.files SET last_used = now() WHERE kind = '%s' AND file_name IN (%s)";
+
+    /** Evict least recently used files of a kind SQL statement. */
+    private static final String EVICT_SQL = "DELETE FROM footer_cache.files WHERE rowid IN (SELECT rowid FROM footer_cache.files WHERE kind = '%1$s' ORDER BY last_used ASC LIMIT greatest(0, (SELECT count(*) - %2$d FROM footer_cache.files WHERE kind = '%1$s')))";
+
+    /** Delete evicted results SQL statement. */
+    private static final String DELETE_EVICTED_SQL = "DELETE FROM footer_cache.%s WHERE file_name NOT IN (SELECT file_name FROM footer_cache.files WHERE kind = '%s')";
+
+    /** Cached results SQL query, in the order of the specified files, with file names as specified. */
+    private static final String RESULTS_SQL = "(SELECT c.* REPLACE (r.file_name AS file_name) FROM footer_cache.%s c JOIN (SELECT unnest(k) AS cache_key, unnest(l) AS file_name, generate_subscripts(l, 1) AS i FROM (SELECT [%s] AS k, [%s] AS l)) r ON c.file_name = r.cache_key ORDER BY r.i, c.rowid)";
+
+    /** Uncached results SQL query. */
+    private static final String UNCACHED_SQL = "%s([%s])";
+
+    /** Insert describes SQL statement. */
+    private static final String INSERT_DESCRIBE_SQL = "INSERT INTO footer_cache.describe VALUES %s";
+
+    /** Cached describes SQL query. */
+    private static final String DESCRIBES_SQL = "SELECT file_name, name, type FROM footer_cache.describe WHERE file_name IN (%s) ORDER BY file_name, column_index";
+
+
+    /**
+     * Validate these footer cache options.
+     *
+     * @param commandLine command line, for reporting parameter exceptions
+     * @throws ParameterException if any of these footer cache options are not valid
+     */
+    void validate(final picocli.CommandLine commandLine) {
+        if (maxFiles < 1L) {
+            throw new ParameterException(commandLine, "--footer-cache-max-files must be greater than zero, was " + maxFiles);
+        }
+    }
+
+    /**
+     * Return true if the footer cache is enabled.
+     *
+     * @return true if the footer cache is enabled
+     */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Return a table expression for the results of the specified footer table function over the
+     * specified Parquet files, in order, reading footers only for files not already cached.
+     *
+     * @param connection connection, must not be null
+     * @param kind kind of result, {@link #METADATA} or {@link #SCHEMA}
+     * @param function table function, e.g. <code>parquet_metadata</code>
+     * @param parquetFiles Parquet files, must not be null
+     * @return a table expression for the results of the specified footer table function
+     * @throws SQLException if a database access error occurs
+     */
+    String table(final Connection connection, final String kind, final String function, final List<String> parquetFiles) throws SQLException {
+        String uncached = String.format(UNCACHED_SQL, function, Sql.quoteLiterals(parquetFiles));
+        if (!attach(connection)) {
+            return uncached;
+        }
+        List<String> keys = keys(parquetFiles);
+        if (keys == null) {
+            // remote files are not cached
+            return uncached;
+        }
+        Map<String, long[]> attributes = attributes(keys);
+        if (attributes.size() < new HashSet<String>(keys).size()) {
+            // unreadable files are not cached
+            return uncached;
+        }
+        List<String> stale = stale(connection, kind, attributes);
+        try (Statement statement = connection.createStatement()) {
+            if (!stale.isEmpty()) {
+                statement.execute(String.format(RESULT_TABLE_SQL, kind, function, Sql.quoteLiteral(stale.get(0))));
+                for (List<String> chunk : chunks(stale)) {
+                    String literals = Sql.quoteLiterals(chunk);
+                    statement.execute(String.format(DELETE_SQL, kind, literals));
+                    statement.execute(String.format(INSERT_SQL, kind, function, literals));
+                }
+            }
+            update(statement, kind, stale, attributes);
+        }
+        return String.format(RESULTS_SQL, kind, Sql.quoteLiterals(keys), Sql.quoteLiterals(parquetFiles));
+    }
+
+    /**
+     * Return cached column names and types as loaded by DuckDB for the specified Parquet files.
+     * Files that are not cached, have changed, or are remote are not included.
+     *
+     * @param connection connection, must not be null
+     * @param parquetFiles Parquet files, must not be null
+     * @return cached column names and types, keyed by Parquet file
+     * @throws SQLException if a database access error occurs
+     */
+    Map<String, List<String[]>> describes(final Connection connection, final List<String> parquetFiles) throws SQLException {
+        Map<String, List<String[]>> describes = new HashMap<String, List<String[]>>();
+        if (!attach(connection)) {
+            return describes;
+        }
+        Map<String, String> keys = localKeys(parquetFiles);
+        Map<String, long[]> attributes = attributes(new ArrayList<String>(keys.values()));
+        List<String> stale = stale(connection, DESCRIBE, attributes);
+        Map<String, long[]> fresh = new LinkedHashMap<String, long[]>(attributes);
+        fresh.keySet().removeAll(stale);
+
+        try (Statement statement = connection.createStatement()) {
+            Map<String, List<String[]>> cached = new HashMap<String, List<String[]>>();
+            for (List<String> chunk : chunks(new ArrayList<String>(fresh.keySet()))) {
+                try (ResultSet resultSet = statement.executeQuery(String.format(DESCRIBES_SQL, Sql.quoteLiterals(chunk)))) {
+                    while (resultSet.next()) {
+                        cached.computeIfAbsent(resultSet.getString(1), f -> new ArrayList<String[]>()).add(new String[] { resultSet.getString(2), resultSet.getString(3) });
+                    }
+                }
+            }
+            for (Map.Entry<String, String> entry : keys.entrySet()) {
+                if (fresh.containsKey(entry.getValue())) {
+                    // files without columns have no rows
+                    describes.put(entry.getKey(), cached.getOrDefault(entry.getValue(), new ArrayList<String[]>()));
+                }
+            }
+            update(statement, DESCRIBE, new ArrayList<String>(), fresh);
+        }
+        return describes;
+    }
+
+    /**
+     * Cache the specified column names and types as loaded by DuckDB.
+     *
+     * @param connection connection, must not be null
+     * @param describes column names and types, keyed by Parquet file, must not be null
+     * @throws SQLException if a database access error occurs
+     */
+    void putDescribes(final Connection connection, final Map<String, List<String[]>> describes) throws SQLException {
+        if (describes.isEmpty() || !attach(connection)) {
+            return;
+        }
+        Map<String, List<String[]>> byKey = new HashMap<String, List<String[]>>();
+        for (Map.Entry<String, String> entry : localKeys(new ArrayList<String>(describes.keySet())).entrySet()) {
+            byKey.put(entry.getValue(), describes.get(entry.getKey()));
+        }
+        Map<String, long[]> attributes = attributes(new ArrayList<String>(byKey.keySet()));
+        List<String> keys = new ArrayList<String>(attributes.keySet());
+        try (Statement statement = connection.createStatement()) {
+            for (List<String> chunk : chunks(keys)) {
+                statement.execute(String.format(DELETE_SQL, DESCRIBE, Sql.quoteLiterals(chunk)));
+                List<String> values = new ArrayList<String>();
+                for (String key : chunk) {
+                    List<String[]> columns = byKey.get(key);
+                    for (int i = 0, size = columns.size(); i < size; i++) {
+                        values.add("(" + Sql.quoteLiteral(key) + ", " + (i + 1) + ", " + Sql.quoteLiteral(columns.get(i)[0]) + ", " + Sql.quoteLiteral(columns.get(i)[1]) + ")");
+                    }
+                }
+                if (!values.isEmpty()) {
+                    statement.execute(String.format(INSERT_DESCRIBE_SQL, String.join(", ", values)));
+                }
+            }
+            update(statement, DESCRIBE, keys, attributes);
+        }
+    }
+
+    /**
+     * Attach the cache database to the specified connection, if enabled, dropping cached
+     * results written by a different version of DuckDB.  If the cache database cannot be
+     * attached, for example because another process holds its lock, a warning is printed
+     * to stderr and the footer cache is disabled for this command.
+     *
+     * @param connection connection
+     * @return true if the cache database is attached
+     */
+    private boolean attach(final Connection connection) {
+        if (!enabled) {
+            return false;
+        }
+        if (attached) {
+            return true;
+        }
+        try (Statement statement = connection.createStatement()) {
+            directory.mkdirs();
+            statement.execute(String.format(ATTACH_SQL, Sql.quoteLiteral(new File(directory, DATABASE_FILE_NAME).toString())));
+            statement.execute(VERSION_TABLE_SQL);
+            boolean current;
+            try (ResultSet resultSet = statement.executeQuery(VERSION_SQL)) {
+                resultSet.next();
+                current = resultSet.getBoolean(1);
+            }
+            if (!current) {
+                for (String table : new String[] { "files", DESCRIBE, METADATA, SCHEMA }) {
+                    statement.execute(String.format(DROP_TABLE_SQL, table));
+                }
+                for (String sql : UPDATE_VERSION_SQL) {
+                    statement.execute(sql);
+                }
+            }
+            statement.execute(FILES_TABLE_SQL);
+            statement.execute(DESCRIBE_TABLE_SQL);
+            attached = true;
+        }
+        catch (SQLException e) {
+            System.err.println("Could not open footer cache in " + directory + ", continuing without cache: " + e.getMessage());
+            enabled = false;
+        }
+        return attached;
+    }
+
+    /**
+     * Return the cached files of the specified kind that are missing or have changed.
+     */
+    private static List<String> stale(final Connection connection, final String kind, final Map<String, long[]> attributes) throws SQLException {
+        Map<String, long[]> cached = new HashMap<String, long[]>();
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(String.format(FILES_SQL, kind))) {
+            while (resultSet.next()) {
+                cached.put(resultSet.getString(1), new long[] { resultSet.getLong(2), resultSet.getLong(3) });
+            }
+        }
+        List<String> stale = new ArrayList<String>();
+        for (Map.Entry<String, long[]> entry : attributes.entrySet()) {
+            long[] c = cached.get(entry.getKey());
+            if (c == null || c[0] != entry.getValue()[0] || c[1] != entry.getValue()[1]) {
+                stale.add(entry.getKey());
+            }
+        }
+        return stale;
+    }
+
+    /**
+     * Record the specified refreshed files, mark all the specified files as used, and evict
+     * least recently used entries of the specified kind over the maximum.
+     */
+    private void update(final Statement statement, final String kind, final List<String> refreshed, final Map<String, long[]> attributes) throws SQLException {
+        for (List<String> chunk : chunks(refreshed)) {
+            List<String> values = new ArrayList<String>(chunk.size());
+            for (String parquetFile : chunk) {
+                long[] a = attributes.get(parquetFile);
+                values.add("('" + kind + "', " + Sql.quoteLiteral(parquetFile) + ", " + a[0] + ", " + a[1] + ", now())");
+            }
+            statement.execute(String.format(UPSERT_FILES_SQL, String.join(", ", values)));
+        }
+        for (List<String> chunk : chunks(new ArrayList<String>(attributes.keySet()))) {
+            statement.execute(String.format(TOUCH_SQL, kind, Sql.quoteLiterals(chunk)));
+        }
+        if (!refreshed.isEmpty()) {
+            statement.execute(String.format(EVICT_SQL, kind, maxFiles));
+            statement.execute(String.format(DELETE_EVICTED_SQL, kind, kind));
+        }
+    }
+
+    /**
+     * Return the cache key for the specified local Parquet file, its absolute, normalized path.
+     *
+     * @param parquetFile local Parquet file, must not be null
+     * @return the cache key for the specified local Parquet file
+     */
+    static String key(final String parquetFile) {
+        return Paths.get(parquetFile).toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * Return cache keys for the specified Parquet files, in order, or null if any are remote.
+     */
+    private static List<String> keys(final List<String> parquetFiles) {
+        List<String> keys = new ArrayList<String>(parquetFiles.size());
+        for (String parquetFile : parquetFiles) {
+            if (ParquetFiles.isRemote(parquetFile)) {
+                return null;
+            }
+            keys.add(key(parquetFile));
+        }
+        return keys;
+    }
+
+    /**
+     * Return cache keys for the specified local Parquet files, keyed by Parquet file,
+     * skipping remote files.
+     */
+    private static Map<String, String> localKeys(final List<String> parquetFiles) {
+        Map<String, String> keys = new LinkedHashMap<String, String>(parquetFiles.size());
+        for (String parquetFile : parquetFiles) {
+            if (!ParquetFiles.isRemote(parquetFile)) {
+                keys.put(parquetFile, key(parquetFile));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Return size and modification time for each of the specified cache keys,
+     * skipping unreadable files.
+     */
+    private static Map<String, long[]> attributes(final List<String> keys) {
+        Map<String, long[]> attributes = new LinkedHashMap<String, long[]>(keys.size());
+        for (String key : keys) {
+            try {
+                BasicFileAttributes a = Files.readAttributes(Paths.get(key), BasicFileAttributes.class);
+                attributes.put(key, new long[] { a.size(), a.lastModifiedTime().toMillis() });
+            }
+            catch (IOException e) {
+                // skip
+            }
+        }
+        return attributes;
+    }
+
+    private static List<List<String>> chunks(final List<String> values) {
+        List<List<String>> chunks = new ArrayList<List<String>>();
+        for (int i = 0, size = values.size(); i < size; i += CHUNK_SIZE) {
+            chunks.add(values.subList(i, Math.min(size, i + CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Return the default cache directory, under <code>$XDG_CACHE_HOME</code> if set,
+     * or <code>~/.cache</code> otherwise.
+     */
+    private static File defaultDirectory() {
+        String cacheHome = System.getenv("XDG_CACHE_HOME");
+        Path base = (cacheHome == null || cacheHome.isEmpty()) ? Paths.get(System.getProperty("user.home"), ".cache") : Paths.get(cacheHome);
+        return base.resolve("duckdb-parquet-tools").toFile();
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.github.heuermh.duckdb.parquet.tools.ArrowResults.Kind;
+import com.github.heuermh.duckdb.parquet.tools.ParquetFooter.ColumnChunk;
+import com.github.heuermh.duckdb.parquet.tools.ParquetFooter.ColumnMetaData;
+import com.github.heuermh.duckdb.parquet.tools.ParquetFooter.FileMetaData;
+import com.github.heuermh.duckdb.parquet.tools.ParquetFooter.KeyValue;
+import com.github.heuermh.duckdb.parquet.tools.ParquetFooter.RowGroup;
+import com.github.heuermh.duckdb.parquet.tools.ParquetFooter.SchemaElement;
+import com.github.heuermh.duckdb.parquet.tools.ParquetFooter.Statistics;
+import com.github.heuermh.duckdb.parquet.tools.ParquetTypes.Node;
+
+/**
+ * Tables derived from Parquet file footers read without starting DuckDB, with the
+ * same columns as the equivalent DuckDB queries.
+ */
+final class FooterTables {
+
+    /** Meta headers, as <code>parquet_metadata</code>. */
+    static final String[] META_HEADERS = { "file_name", "row_group_id", "row_group_num_rows", "row_group_num_columns", "row_group_bytes",
+                                           "column_id", "file_offset", "num_values", "path_in_schema", "type", "stats_min", "stats_max",
+                                           "stats_null_count", "stats_distinct_count", "stats_min_value", "stats_max_value", "compression",
+                                           "encodings", "index_page_offset", "dictionary_page_offset", "data_page_offset", "total_compressed_size",
+                                           "total_uncompressed_size", "key_value_metadata", "bloom_filter_offset", "bloom_filter_length",
+                                           "min_is_exact", "max_is_exact", "row_group_compressed_bytes" };
+
+    /** Meta column kinds, as the <code>parquet_metadata</code> column types. */
+    static final Kind[] META_KINDS = { Kind.STRING, Kind.LONG, Kind.LONG, Kind.LONG, Kind.LONG,
+                                       Kind.LONG, Kind.LONG, Kind.LONG, Kind.STRING, Kind.STRING, Kind.STRING, Kind.STRING,
+                                       Kind.LONG, Kind.LONG, Kind.STRING, Kind.STRING, Kind.STRING,
+                                       Kind.STRING, Kind.LONG, Kind.LONG, Kind.LONG, Kind.LONG,
+                                       Kind.LONG, Kind.STRING, Kind.LONG, Kind.LONG,
+                                       Kind.BOOLEAN, Kind.BOOLEAN, Kind.LONG };
+
+    /** Schema headers, as <code>parquet_schema</code>. */
+    static final String[] SCHEMA_HEADERS = { "file_name", "name", "type", "type_length", "repetition_type", "num_children",
+                                             "converted_type", "scale", "precision", "field_id", "logical_type" };
+
+    /** Schema column kinds, as the <code>parquet_schema</code> column types. */
+    static final Kind[] SCHEMA_KINDS = { Kind.STRING, Kind.STRING, Kind.STRING, Kind.STRING, Kind.STRING, Kind.LONG,
+                                         Kind.STRING, Kind.LONG, Kind.LONG, Kind.LONG, Kind.STRING };
+
+    /** Ratios headers. */
+    static final String[] RATIOS_HEADERS = { "file_name", "column_id", "path_in_schema", "type", "n", "uncompressed", "compressed", "ratio", "savings" };
+
+    /** Ratios column kinds, as the ratios query column types. */
+    static final Kind[] RATIOS_KINDS = { Kind.STRING, Kind.LONG, Kind.STRING, Kind.STRING, Kind.NUMBER, Kind.NUMBER, Kind.NUMBER, Kind.NUMBER, Kind.NUMBER };
+
+
+    /**
+     * Private no-arg constructor.
+     */
+    private FooterTables() {
+        // empty
+    }
+
+
+    /**
+     * Read the footer of the specified local Parquet file.
+     *
+     * @param parquetFile local Parquet file
+     * @return the footer of the specified local Parquet file
+     * @throws IOException if an I/O error occurs
+     */
+    static FileMetaData read(final String parquetFile) throws IOException {
+        if (ParquetFiles.isRemote(parquetFile)) {
+            throw new IOException("Reading footers without DuckDB requires local Parquet files, was " + parquetFile);
+        }
+        return ParquetFooter.read(Paths.get(parquetFile));
+    }
+
+    /**
+     * Read the footers of the specified local Parquet files concurrently.
+     *
+     * @param parquetFiles local Parquet files
+     * @return the footers of the specified local Parquet files, in order
+     * @throws IOException if an I/O error occurs
+     */
+    static List<FileMetaData> read(final List<String> parquetFiles) throws IOException {
+        try {
+            return parquetFiles.parallelStream()
+                .map(parquetFile -> {
+                        try {
+                            return read(parquetFile);
+                        }
+                        catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                .collect(Collectors.toList());
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Return the primitive schema elements for each column, in column order.
+     *
+     * @param fileMetaData file metadata
+     * @return the primitive schema elements for each column, in column order
+     */
+    static List<SchemaElement> columns(final FileMetaData fileMetaData) {
+        List<SchemaElement> columns = new ArrayList<SchemaElement>();
+        for (SchemaElement schemaElement : fileMetaData.schema) {
+            if (schemaElement.numChildren == null || schemaElement.numChildren == 0) {
+                columns.add(schemaElement);
+            }
+        }
+        // first element is the root, which has children unless the schema is empty
+        if (!fileMetaData.schema.isEmpty() && columns.size() > 0 && columns.get(0) == fileMetaData.schema.get(0)) {
+            columns.remove(0);
+        }
+        return columns;
+    }
+
+    /**
+     * Return the meta table for the specified Parquet file.
+     *
+     * @param fileName file name
+     * @param fileMetaData file metadata
+     * @return the meta table for the specified Parquet file
+     */
+    static List<String[]> meta(final String fileName, final FileMetaData fileMetaData) {
+        List<SchemaElement> columns = columns(fileMetaData);
+        List<String[]> rows = new ArrayList<String[]>();
+        for (int g = 0, groups = fileMetaData.rowGroups.size(); g < groups; g++) {
+            RowGroup rowGroup = fileMetaData.rowGroups.get(g);
+            long compressedBytes = 0L;
+            for (ColumnChunk columnChunk : rowGroup.columns) {
+                compressedBytes += (columnChunk.metaData == null) ? 0L : columnChunk.metaData.totalCompressedSize;
+            }
+            for (int c = 0, size = rowGroup.columns.size(); c < size; c++) {
+                ColumnChunk columnChunk = rowGroup.columns.get(c);
+                ColumnMetaData m = columnChunk.metaData;
+                SchemaElement e = (c < columns.size()) ? columns.get(c) : new SchemaElement();
+                Statistics s = (m == null || m.statistics == null) ? new Statistics() : m.statistics;
+                rows.add(new String[] {
+                    fileName,
+                    str(g),
+                    str(rowGroup.numRows),
+                    str(rowGroup.columns.size()),
+                    str(rowGroup.totalByteSize),
+                    str(c),
+                    str(columnChunk.fileOffset),
+                    m == null ? null : str(m.numValues),
+                    m == null ? null : String.join(", ", m.pathInSchema),
+                    m == null ? null : ParquetFooter.name(ParquetFooter.TYPES, m.type),
+                    ParquetTypes.format(s.min, e),
+                    ParquetTypes.format(s.max, e),
+                    str(s.nullCount),
+                    str(s.distinctCount),
+                    ParquetTypes.format(s.minValue, e),
+                    ParquetTypes.format(s.maxValue, e),
+                    m == null ? null : ParquetFooter.name(ParquetFooter.CODECS, m.codec),
+                    m == null ? null : m.encodings.stream().map(v -> ParquetFooter.name(ParquetFooter.ENCODINGS, v)).collect(Collectors.joining(", ")),
+                    m == null ? null : str(m.indexPageOffset),
+                    m == null ? null : str(m.dictionaryPageOffset),
+                    m == null ? null : str(m.dataPageOffset),
+                    m == null ? null : str(m.totalCompressedSize),
+                    m == null ? null : str(m.totalUncompressedSize),
+                    m == null ? null : keyValues(m.keyValueMetadata),
+                    m == null ? null : str(m.bloomFilterOffset),
+                    m == null ? null : str(m.bloomFilterLength),
+                    str(s.isMinValueExact),
+                    str(s.isMaxValueExact),
+                    str(compressedBytes)
+                });
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Return the schema table for the specified Parquet file.
+     *
+     * @param fileName file name
+     * @param fileMetaData file metadata
+     * @return the schema table for the specified Parquet file
+     */
+    static List<String[]> schema(final String fileName, final FileMetaData fileMetaData) {
+        List<String[]> rows = new ArrayList<String[]>(fileMetaData.schema.size());
+        for (SchemaElement e : fileMetaData.schema) {
+            rows.add(new String[] {
+                fileName,
+                e.name,
+                ParquetFooter.name(ParquetFooter.TYPES, e.type),
+                str(e.typeLength),
+                ParquetFooter.name(ParquetFooter.REPETITION_TYPES, e.repetitionType),
+                str(e.numChildren),
+                ParquetFooter.name(ParquetFooter.CONVERTED_TYPES, e.convertedType),
+                str(e.scale),
+                str(e.precision),
+                str(e.fieldId),
+                ParquetTypes.format(e.logicalType)
+            });
+        }
+        return rows;
+    }
+
+    /**
+     * Return the ratios table for the specified Parquet file, summing over row groups.
+     *
+     * @param fileName file name
+     * @param fileMetaData file metadata
+     * @return the ratios table for the specified Parquet file
+     */
+    static List<String[]> ratios(final String fileName, final FileMetaData fileMetaData) {
+        Map<Integer, long[]> sums = new LinkedHashMap<Integer, long[]>();
+        Map<Integer, ColumnMetaData> first = new HashMap<Integer, ColumnMetaData>();
+        for (RowGroup rowGroup : fileMetaData.rowGroups) {
+            for (int c = 0, size = rowGroup.columns.size(); c < size; c++) {
+                ColumnMetaData m = rowGroup.columns.get(c).metaData;
+                if (m != null) {
+                    long[] sum = sums.computeIfAbsent(c, k -> new long[3]);
+                    sum[0] += m.numValues;
+                    sum[1] += m.totalUncompressedSize;
+                    sum[2] += m.totalCompressedSize;
+                    first.putIfAbsent(c, m);
+                }
+            }
+        }
+        List<String[]> rows = new ArrayList<String[]>(sums.size());
+        for (Map.Entry<Integer, long[]> entry : sums.entrySet()) {
+            ColumnMetaData m = first.get(entry.getKey());
+            long[] sum = entry.getValue();
+            double uncompressed = sum[1];
+            double compressed = sum[2];
+            rows.add(new String[] {
+                fileName,
+                str(entry.getKey()),
+                String.join(", ", m.pathInSchema),
+                ParquetFooter.name(ParquetFooter.TYPES, m.type),
+                str(sum[0]),
+                str(sum[1]),
+                str(sum[2]),
+                String.valueOf(uncompressed / compressed),
+                String.valueOf((1.0d - (compressed / uncompressed)) * 100.0d)
+            });
+        }
+        return rows;
+    }
+
+    /**
+     * Return the top-level column names and DuckDB types for the specified Parquet file.
+     *
+     * @param fileMetaData file metadata
+     * @return the top-level column names and DuckDB types for the specified Parquet file
+     */
+    static List<String[]> describe(final FileMetaData fileMetaData) {
+        List<String[]> rows = new ArrayList<String[]>();
+        if (!fileMetaData.schema.isEmpty()) {
+            Node root = ParquetTypes.tree(fileMetaData.schema);
+            for (Node child : root.children) {
+                rows.add(new String[] { child.element.name, ParquetTypes.duckdbType(child) });
+            }
+        }
+        return rows;
+    }
+
+    private static String keyValues(final List<KeyValue> keyValues) {
+        return keyValues.stream().map(kv -> kv.key + "=" + kv.value).collect(Collectors.joining(", ", "{", "}"));
+    }
+
+    private static String str(final Object value) {
+        return value == null ? null : String.valueOf(value);
+    }
+}
@@ -16,99 +16,476 @@
 package com.github.heuermh.duckdb.parquet.tools;
 
 import java.io.BufferedWriter;
-import java.io.File;
 import java.io.OutputStreamWriter;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.sql.Statement;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
-import java.util.Map;
+import java.util.Random;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import com.google.gson.stream.JsonWriter;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+
+import org.apache.arrow.vector.ipc.ArrowReader;
 
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
 
 /**
- * Write the first n records from a Parquet file in JSON format.
+ * Write the first n or sampled records from Parquet files in JSON or newline-delimited JSON format.
  */
 @Command(name = "head")
 public final class Head implements Callable<Integer> {
 
-    @Option(names = { "-i", "--input-parquet-file" }, required = true)
-    private File inputParquetFile = null;
+    /**
+     * Sample method.
+     */
+    enum Sample {
+        /** Exactly n records, chosen uniformly. */
+        RESERVOIR,
+
+        /** Each record with the specified percentage probability. */
+        BERNOULLI,
+
+        /** Each vector of records with the specified percentage probability. */
+        SYSTEM,
+
+        /** A random run of n records from each row group, reading only those row groups' pages. */
+        ROW_GROUP
+    }
+
+    @Option(names = { "-i", "--input-parquet-file" }, arity = "1..*", required = true, descriptionKey = "input-parquet-files")
+    private List<String> inputPaths;
 
-    @Option(names = { "-u", "--url" })
-    private String url = "jdbc:duckdb:";
+    @Mixin
+    private SessionOptions sessionOptions;
 
     @Option(names = { "-n", "--number" })
-    private int number = 5;
+    private Integer number;
 
     @Option(names = { "-p", "--pretty-print" })
     private boolean prettyPrint = false;
 
+    @Option(names = { "--ndjson" })
+    private boolean ndjson = false;
+
+    @Option(names = { "--columns" }, split = ",")
+    private List<String> columns = new ArrayList<String>();
+
+    @Option(names = { "--where" })
+    private String where;
+
+    @Option(names = { "--offset" })
+    private long offset = 0L;
+
+    @Option(names = { "--matching-row-groups" })
+    private boolean matchingRowGroups;
+
+    @Option(names = { "--sample" })
+    private Sample sample;
+
+    @Option(names = { "--sample-percent" })
+    private Double samplePercent;
+
+    @Option(names = { "--seed" })
+    private Long seed;
+
+    @Option(names = { "-w", "--workers" })
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    @Spec
+    private CommandSpec spec;
+
+    /** Default number of records. */
+    private static final int DEFAULT_NUMBER = 5;
+
+    /** Select SQL query, projection and filter are pushed into the Parquet scan. */
+    private static final String SELECT_SQL = "SELECT %s from read_parquet('%s'%s)%s";
+
     /** Head SQL query. */
-    private static final String HEAD_SQL = "SELECT * from read_parquet('%s') LIMIT %d";
+    private static final String HEAD_SQL = "%s LIMIT %d OFFSET %d";
+
+    /** Reservoir sample SQL query. */
+    private static final String RESERVOIR_SQL = "SELECT * FROM (%s) USING SAMPLE reservoir(%d ROWS)";
+
+    /** Percentage sample SQL query. */
+    private static final String PERCENT_SQL = "SELECT * FROM (%s) USING SAMPLE %s PERCENT (%s)";
+
+    /** Single thread SQL statement, DuckDB repeatable samples are only reproducible single-threaded. */
+    private static final String SINGLE_THREAD_SQL = "SET threads = 1";
+
+    /** Row group row counts SQL query. */
+    private static final String ROW_GROUPS_SQL = "SELECT row_group_id, any_value(row_group_num_rows) AS row_group_num_rows FROM parquet_metadata('%s') GROUP BY row_group_id ORDER BY row_group_id";
+
+    /** Row range filter, pushed into the Parquet scan. */
+    private static final String ROW_RANGE_FILTER = "file_row_number >= %d AND file_row_number < %d";
+
+    /** Row group report SQL query, counts row groups with records matching the filter. */
+    private static final String MATCHING_ROW_GROUPS_SQL = "WITH r AS (SELECT row_group_id, CAST(sum(row_group_num_rows) OVER (ORDER BY row_group_id) - row_group_num_rows AS BIGINT) AS row_group_start FROM (" + ROW_GROUPS_SQL + ")) SELECT (SELECT count(*) FROM r) AS row_groups, count(DISTINCT r.row_group_id) AS matching FROM (%s) m ASOF JOIN r ON m.file_row_number >= r.row_group_start";
 
     @Override
     public Integer call() throws Exception {
+        List<String> inputParquetFiles = ParquetFiles.expand(inputPaths);
+        if (inputParquetFiles.isEmpty()) {
+            throw new ParameterException(spec.commandLine(), "No input Parquet files found in " + inputPaths);
+        }
+        validate();
+        sessionOptions.validate(spec.commandLine());
+        boolean fileName = inputParquetFiles.size() > 1;
+        Random random = seed == null ? new Random() : new Random(seed);
+
         // create JSON writer
-        try (JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(System.out, "UTF-8")))) {
-            if (prettyPrint) {
-                writer.setIndent("  ");
-            }
-            writer.setSerializeNulls(false);
-            writer.beginArray();
-
-            // connect to DuckDB
-            Class.forName("org.duckdb.DuckDBDriver");
-            try (Connection connection = DriverManager.getConnection(url)) {
-
-                // query head records from Parquet file
-                try (Statement create = connection.createStatement()) {
-                    String sql = String.format(HEAD_SQL, inputParquetFile.toString(), number);
-                    try (ResultSet resultSet = create.executeQuery(sql)) {
-                        ResultSetMetaData metaData = resultSet.getMetaData();
-                        int columns = metaData.getColumnCount() + 1;
-
-                        // write JSON to stdout
-                        while (resultSet.next()) {
-                            writer.beginObject();
-
-                            for (int i = 1; i < columns; i++) {
-                                Object value = resultSet.getObject(i);
-
-                                if (value != null) {
-                                    writer.name(metaData.getColumnName(i));
-                                    if (value instanceof Boolean) {
-                                        writer.value((Boolean) value);
-                                    }
-                                    else if (value instanceof Number) {
-                                        writer.value((Number) value);
-                                    }
-                                    else {
-                                        writer.value(value.toString());
-                                    }
-                                }
-                            }
+        try (JsonRecords records = new JsonRecords(new BufferedWriter(new OutputStreamWriter(System.out, "UTF-8")), prettyPrint, ndjson)) {
+            records.begin();
+
+            // connect to DuckDB, sharing one database instance and Arrow allocator across all workers
+            try (Connection connection = sessionOptions.open(); BufferAllocator allocator = new RootAllocator()) {
+
+                // sample on one thread for reproducible samples, the thread count of a shared database is left as is
+                if (seed != null && !sessionOptions.isShared()) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute(SINGLE_THREAD_SQL);
+                    }
+                }
 
-                            writer.endObject();
+                // query up to workers files ahead concurrently, writing records in input order
+                int window = Math.max(1, Math.min(workers, inputParquetFiles.size()));
+                ExecutorService executorService = Executors.newFixedThreadPool(window);
+                Deque<Future<Results>> pending = new ArrayDeque<Future<Results>>(window);
+                try {
+                    int next = 0;
+                    for (String inputParquetFile : inputParquetFiles) {
+                        while (next < inputParquetFiles.size() && pending.size() < window) {
+                            String nextParquetFile = inputParquetFiles.get(next++);
+                            // seed row group samples per file in input order, so that samples are reproducible
+                            Random fileRandom = seed == null ? new Random() : new Random(random.nextLong());
+                            pending.add(executorService.submit(() -> query(connection, nextParquetFile, fileRandom, allocator)));
+                        }
+                        try (Results results = get(pending.removeFirst())) {
+                            if (results.report != null) {
+                                System.err.println(results.report);
+                            }
+                            results.write(records, fileName ? inputParquetFile : null);
+                        }
+                    }
+                }
+                finally {
+                    executorService.shutdown();
+                    // close results queried ahead but not written, after an error
+                    for (Future<Results> future : pending) {
+                        try {
+                            future.get().close();
+                        }
+                        catch (Exception e) {
+                            // ignore
                         }
                     }
                 }
             }
-            writer.endArray();
+            records.end();
         }
         return 0;
     }
 
+    /**
+     * Return the results of the specified future, rethrowing the cause of an execution exception.
+     *
+     * @param future future
+     * @return the results of the specified future
+     * @throws Exception if an error occurs
+     */
+    private static Results get(final Future<Results> future) throws Exception {
+        try {
+            return future.get();
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Query the head or sampled records of the specified Parquet file on a connection duplicated
+     * from the specified connection.
+     *
+     * @param connection connection
+     * @param inputParquetFile input Parquet file
+     * @param random source of randomness for row group samples
+     * @param allocator Arrow buffer allocator
+     * @return the results for the specified Parquet file, which must be closed
+     * @throws Exception if an error occurs
+     */
+    private Results query(final Connection connection, final String inputParquetFile, final Random random, final BufferAllocator allocator) throws Exception {
+        Connection duplicate = Connections.duplicate(connection);
+        try {
+            String report = matchingRowGroups ? matchingRowGroups(duplicate, inputParquetFile) : null;
+            return new Results(duplicate, allocator, sql(duplicate, inputParquetFile, random), report);
+        }
+        catch (Exception e) {
+            duplicate.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Validate options.
+     *
+     * @throws ParameterException if any options are not valid
+     */
+    private void validate() {
+        if (number != null && number < 0) {
+            throw new ParameterException(spec.commandLine(), "--number must not be negative, was " + number);
+        }
+        boolean percent = sample == Sample.BERNOULLI || sample == Sample.SYSTEM;
+        if (percent && samplePercent == null) {
+            throw new ParameterException(spec.commandLine(), "--sample-percent is required for sample " + sample);
+        }
+        if (!percent && samplePercent != null) {
+            throw new ParameterException(spec.commandLine(), "--sample-percent is only supported for samples " + Sample.BERNOULLI + " and " + Sample.SYSTEM);
+        }
+        if (samplePercent != null && (samplePercent <= 0.0d || samplePercent > 100.0d)) {
+            throw new ParameterException(spec.commandLine(), "--sample-percent must be greater than 0.0 and at most 100.0, was " + samplePercent);
+        }
+        if (sample == null && seed != null) {
+            throw new ParameterException(spec.commandLine(), "--seed is only supported with --sample");
+        }
+        if (offset < 0L) {
+            throw new ParameterException(spec.commandLine(), "--offset must not be negative, was " + offset);
+        }
+        if (sample != null && offset > 0L) {
+            throw new ParameterException(spec.commandLine(), "--offset is not supported with --sample");
+        }
+    }
+
+    /**
+     * Return the SQL queries for the head or sampled records of the specified Parquet file.
+     *
+     * @param connection connection
+     * @param inputParquetFile input Parquet file
+     * @param random source of randomness for row group samples
+     * @return the SQL queries for the head or sampled records of the specified Parquet file
+     * @throws SQLException if a database access error occurs
+     */
+    private List<String> sql(final Connection connection, final String inputParquetFile, final Random random) throws SQLException {
+        int n = number == null ? DEFAULT_NUMBER : number;
+        String repeatable = seed == null ? "" : " REPEATABLE (" + seed + ")";
+        String select = select(inputParquetFile, false, null);
+
+        if (sample == null) {
+            return Collections.singletonList(String.format(HEAD_SQL, select, n, offset));
+        }
+        switch (sample) {
+        case RESERVOIR:
+            return Collections.singletonList(String.format(RESERVOIR_SQL, select, n) + repeatable);
+        case BERNOULLI:
+        case SYSTEM:
+            // all sampled records, unless a number is specified
+            String sql = String.format(PERCENT_SQL, select, samplePercent, sample.name().toLowerCase()) + repeatable;
+            return Collections.singletonList(number == null ? sql : "SELECT * FROM (" + sql + ") LIMIT " + n);
+        default:
+            // one row range query per row group, each only reads the pages of its own row group
+            List<String> queries = new ArrayList<String>();
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet resultSet = statement.executeQuery(String.format(ROW_GROUPS_SQL, inputParquetFile))) {
+                    long start = 0L;
+                    while (resultSet.next()) {
+                        long rows = resultSet.getLong("row_group_num_rows");
+                        long rowGroupOffset = rows > n ? (long) (random.nextDouble() * (rows - n + 1)) : 0L;
+                        String range = String.format(ROW_RANGE_FILTER, start + rowGroupOffset, start + Math.min(rows, rowGroupOffset + n));
+                        queries.add(select(inputParquetFile, true, range));
+                        start += rows;
+                    }
+                }
+            }
+            return queries;
+        }
+    }
+
+    /**
+     * Return a select SQL query over the specified Parquet file with the projection and filter options.
+     *
+     * @param inputParquetFile input Parquet file
+     * @param fileRowNumber true to read the <code>file_row_number</code> column, excluded from the projection
+     * @param filter additional filter, if any
+     * @return a select SQL query over the specified Parquet file with the projection and filter options
+     */
+    private String select(final String inputParquetFile, final boolean fileRowNumber, final String filter) {
+        String projection = columns.isEmpty() ? (fileRowNumber ? "* EXCLUDE (file_row_number)" : "*") : Sql.quoteIdentifiers(columns);
+        List<String> filters = new ArrayList<String>();
+        if (filter != null) {
+            filters.add(filter);
+        }
+        if (where != null) {
+            filters.add("(" + where + ")");
+        }
+        return String.format(SELECT_SQL, projection, inputParquetFile, fileRowNumber ? ", file_row_number = true" : "", filters.isEmpty() ? "" : " WHERE " + String.join(" AND ", filters));
+    }
+
+    /**
+     * Return a report of how many row groups of the specified Parquet file have records matching
+     * the filter, found with a separate scan of the filter columns.  This is not the number of
+     * row groups DuckDB skipped by min/max statistics, which is not reported by the Parquet
+     * reader, but row groups without matching records bound how many could be skipped.
+     *
+     * @param connection connection
+     * @param inputParquetFile input Parquet file
+     * @return a report of how many row groups of the specified Parquet file have records matching the filter, if any
+     * @throws SQLException if a database access error occurs
+     */
+    private String matchingRowGroups(final Connection connection, final String inputParquetFile) throws SQLException {
+        String matching = String.format(SELECT_SQL, "file_row_number", inputParquetFile, ", file_row_number = true", where == null ? "" : " WHERE (" + where + ")");
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery(String.format(MATCHING_ROW_GROUPS_SQL, inputParquetFile, matching))) {
+                if (resultSet.next()) {
+                    long rowGroups = resultSet.getLong("row_groups");
+                    long matchingRowGroups = resultSet.getLong("matching");
+                    return inputParquetFile + ": " + matchingRowGroups + " of " + rowGroups + " row groups have matching records";
+                }
+                return null;
+            }
+        }
+    }
+
+
+    /**
+     * Head or sampled records of one Parquet file, on a connection duplicated for the file.
+     * The first query is executed when the file is queried ahead, and the remaining row group
+     * sample queries, if any, in turn as records are written, since a connection streams one
+     * result at a time.
+     */
+    private static final class Results implements AutoCloseable {
+        /** Duplicated connection. */
+        private final Connection connection;
+
+        /** Arrow buffer allocator. */
+        private final BufferAllocator allocator;
+
+        /** SQL queries, in order. */
+        private final List<String> queries;
+
+        /** Matching row groups report, if any. */
+        final String report;
+
+        /** Statement for the current query. */
+        private Statement statement;
+
+        /** Result set for the current query. */
+        private ResultSet resultSet;
+
+        /** Reader over Arrow record batches for the current query. */
+        private ArrowReader reader;
+
+
+        /**
+         * Create new results, executing the first of the specified queries.
+         *
+         * @param connection duplicated connection, closed with these results
+         * @param allocator Arrow buffer allocator
+         * @param queries SQL queries, in order
+         * @param report matching row groups report, if any
+         * @throws SQLException if a database access error occurs
+         */
+        Results(final Connection connection, final BufferAllocator allocator, final List<String> queries, final String report) throws SQLException {
+            this.connection = connection;
+            this.allocator = allocator;
+            this.queries = queries;
+            this.report = report;
+            if (!queries.isEmpty()) {
+                open(queries.get(0));
+            }
+        }
+
+
+        /**
+         * Write the records of all queries in order with the specified JSON writer.
+         *
+         * @param records JSON writer
+         * @param fileName file name to add to each record, if any
+         * @throws Exception if an error occurs
+         */
+        void write(final JsonRecords records, final String fileName) throws Exception {
+            for (int i = 0, size = queries.size(); i < size; i++) {
+                if (i > 0) {
+                    closeQuery();
+                    open(queries.get(i));
+                }
+                records.write(reader, fileName);
+            }
+        }
+
+        /**
+         * Execute the specified query, as the current query.
+         *
+         * @param sql SQL query
+         * @throws SQLException if a database access error occurs
+         */
+        private void open(final String sql) throws SQLException {
+            long start = System.nanoTime();
+            statement = connection.createStatement();
+            resultSet = statement.executeQuery(ArrowResults.text(connection, sql));
+            reader = ArrowResults.reader(resultSet, allocator);
+            Metrics.time(Metrics.QUERY, start);
+        }
+
+        /**
+         * Close the current query, if any, reader before result set before statement.
+         *
+         * @throws Exception if an error occurs
+         */
+        private void closeQuery() throws Exception {
+            try {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+            finally {
+                reader = null;
+                try {
+                    if (resultSet != null) {
+                        resultSet.close();
+                    }
+                }
+                finally {
+                    resultSet = null;
+                    if (statement != null) {
+                        statement.close();
+                    }
+                    statement = null;
+                }
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            try {
+                closeQuery();
+            }
+            finally {
+                connection.close();
+            }
+        }
+    }
+
     /**
      * Main.
      *
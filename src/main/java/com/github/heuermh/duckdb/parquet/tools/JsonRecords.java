@@ -0,0 +1,332 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+import com.github.heuermh.duckdb.parquet.tools.ArrowResults.Column;
+
+import org.apache.arrow.vector.VectorSchemaRoot;
+
+import org.apache.arrow.vector.ipc.ArrowReader;
+
+/**
+ * Writes records from Arrow record batches in JSON or newline-delimited JSON format.
+ *
+ * <p>
+ * A writer plan with one typed column and one pre-escaped name token per column is
+ * built once per stream, so rows are written with primitive getters and without
+ * per-cell metadata lookups.  Null values are omitted.
+ * </p>
+ */
+final class JsonRecords implements Closeable {
+    private final Writer writer;
+    private final boolean prettyPrint;
+    private final boolean ndjson;
+    private final char[] digits = new char[20];
+    private boolean first = true;
+
+    /** Pretty print indent. */
+    private static final String INDENT = "  ";
+
+    /** Pretty print newline and indent before each record. */
+    private static final String RECORD_INDENT = "\n" + INDENT;
+
+    /** Pretty print newline and indent before each property. */
+    private static final String PROPERTY_INDENT = "\n" + INDENT + INDENT;
+
+
+    /**
+     * Create a new JSON records writer.
+     *
+     * @param writer writer to write to, must not be null
+     * @param prettyPrint true to pretty print a JSON array of records
+     * @param ndjson true to write newline-delimited JSON, one record per line, instead of a JSON array
+     */
+    JsonRecords(final Writer writer, final boolean prettyPrint, final boolean ndjson) {
+        this.writer = writer;
+        this.prettyPrint = prettyPrint && !ndjson;
+        this.ndjson = ndjson;
+    }
+
+
+    /**
+     * Begin writing records.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void begin() throws IOException {
+        if (!ndjson) {
+            writer.write('[');
+        }
+    }
+
+    /**
+     * Write all the records in the specified stream of Arrow record batches.
+     *
+     * @param reader reader over Arrow record batches, must not be null
+     * @param fileName file name to add to each record as a <code>file_name</code> property, if any
+     * @throws IOException if an I/O error occurs
+     */
+    void write(final ArrowReader reader, final String fileName) throws IOException {
+        String fileNameProperty = fileName == null ? null : name("file_name") + quote(fileName);
+
+        // build writer plan once per stream, vectors are reused across record batches
+        VectorSchemaRoot root = reader.getVectorSchemaRoot();
+        Column[] columns = ArrowResults.columns(root);
+        String[] names = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            names[i] = name(columns[i].name());
+        }
+
+        long start = System.nanoTime();
+        while (reader.loadNextBatch()) {
+            Metrics.time(Metrics.FETCH, start);
+            start = System.nanoTime();
+            for (int row = 0, rows = root.getRowCount(); row < rows; row++) {
+                beginRecord();
+                boolean firstProperty = true;
+
+                if (fileNameProperty != null) {
+                    property(fileNameProperty, firstProperty);
+                    firstProperty = false;
+                }
+
+                for (int i = 0; i < columns.length; i++) {
+                    Column column = columns[i];
+                    if (column.isNull(row)) {
+                        continue;
+                    }
+                    property(names[i], firstProperty);
+                    firstProperty = false;
+
+                    switch (column.kind()) {
+                    case BOOLEAN:
+                        writer.write(column.getBoolean(row) ? "true" : "false");
+                        break;
+                    case LONG:
+                        writeLong(column.getLong(row));
+                        break;
+                    case NUMBER:
+                        writeNumber(column.getString(row));
+                        break;
+                    default:
+                        writeString(column.getString(row));
+                    }
+                }
+                endRecord(firstProperty);
+            }
+            Metrics.rows(root.getRowCount());
+            Metrics.time(Metrics.WRITE, start);
+            start = System.nanoTime();
+        }
+        Metrics.time(Metrics.FETCH, start);
+    }
+
+    /**
+     * End writing records.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void end() throws IOException {
+        if (!ndjson) {
+            if (prettyPrint && !first) {
+                writer.write('\n');
+            }
+            writer.write(']');
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void beginRecord() throws IOException {
+        if (!ndjson) {
+            if (!first) {
+                writer.write(',');
+            }
+            if (prettyPrint) {
+                writer.write(RECORD_INDENT);
+            }
+        }
+        writer.write('{');
+        first = false;
+    }
+
+    private void endRecord(final boolean empty) throws IOException {
+        if (prettyPrint && !empty) {
+            writer.write(RECORD_INDENT);
+        }
+        writer.write('}');
+        if (ndjson) {
+            writer.write('\n');
+        }
+    }
+
+    private void beginProperty(final boolean firstProperty) throws IOException {
+        if (!firstProperty) {
+            writer.write(',');
+        }
+        if (prettyPrint) {
+            writer.write(PROPERTY_INDENT);
+        }
+    }
+
+    private void property(final String name, final boolean firstProperty) throws IOException {
+        beginProperty(firstProperty);
+        writer.write(name);
+    }
+
+    /**
+     * Return the pre-escaped name token for the specified property name.
+     *
+     * @param name property name
+     * @return the pre-escaped name token for the specified property name
+     */
+    private String name(final String name) {
+        return quote(name) + (prettyPrint ? ": " : ":");
+    }
+
+    /**
+     * Return the specified value quoted and escaped as a JSON string.
+     *
+     * @param value value to quote
+     * @return the specified value quoted and escaped as a JSON string
+     */
+    static String quote(final String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            String escape = escape(c);
+            if (escape == null) {
+                sb.append(c);
+            }
+            else {
+                sb.append(escape);
+            }
+        }
+        sb.append('"');
+        return sb.toString();
+    }
+
+    /**
+     * Return the escape sequence for the specified character, or null if it need not be escaped.
+     *
+     * @param c character
+     * @return the escape sequence for the specified character, or null if it need not be escaped
+     */
+    private static String escape(final char c) {
+        switch (c) {
+        case '"':
+            return "\\\"";
+        case '\\':
+            return "\\\\";
+        case '\t':
+            return "\\t";
+        case '\b':
+            return "\\b";
+        case '\n':
+            return "\\n";
+        case '\r':
+            return "\\r";
+        case '\f':
+            return "\\f";
+        case '\u2028':
+            return "\\u2028";
+        case '\u2029':
+            return "\\u2029";
+        default:
+            return c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+        }
+    }
+
+    private void writeString(final String value) throws IOException {
+        writer.write('"');
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            String escape = escape(value.charAt(i));
+            if (escape != null) {
+                if (i > start) {
+                    writer.write(value, start, i - start);
+                }
+                writer.write(escape);
+                start = i + 1;
+            }
+        }
+        if (length > start) {
+            writer.write(value, start, length - start);
+        }
+        writer.write('"');
+    }
+
+    private void writeLong(final long value) throws IOException {
+        writeLong(writer, digits, value);
+    }
+
+    /**
+     * Write the specified long value to the specified writer without allocating.
+     *
+     * @param writer writer
+     * @param digits scratch buffer of at least 20 chars
+     * @param value value to write
+     * @throws IOException if an I/O error occurs
+     */
+    static void writeLong(final Writer writer, final char[] digits, final long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writer.write(Long.toString(value));
+            return;
+        }
+        long remaining = Math.abs(value);
+        int position = digits.length;
+        do {
+            digits[--position] = (char) ('0' + (remaining % 10L));
+            remaining /= 10L;
+        }
+        while (remaining != 0L);
+
+        if (value < 0L) {
+            digits[--position] = '-';
+        }
+        writer.write(digits, position, digits.length - position);
+    }
+
+    private void writeNumber(final String value) throws IOException {
+        if (isNumber(value)) {
+            writer.write(value);
+        }
+        else {
+            writeString(value);
+        }
+    }
+
+    /**
+     * Return true if the specified formatted number is representable as a JSON number,
+     * that is, is not <code>NaN</code> or infinite.
+     *
+     * @param value formatted number
+     * @return true if the specified formatted number is representable as a JSON number
+     */
+    static boolean isNumber(final String value) {
+        return !("NaN".equals(value) || value.endsWith("Infinity"));
+    }
+}
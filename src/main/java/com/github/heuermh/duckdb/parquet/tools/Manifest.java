@@ -0,0 +1,103 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Manifest of Parquet files written by a command.
+ */
+final class Manifest {
+
+    /** Row count SQL query, reads only the Parquet file footers. */
+    private static final String ROWS_SQL = "SELECT file_name, num_rows from parquet_file_metadata([%s])";
+
+    /** Headers to write. */
+    private static final String HEADERS = "file_name\trows\tbytes";
+
+    /**
+     * Private no-arg constructor.
+     */
+    private Manifest() {
+        // empty
+    }
+
+    /**
+     * Write a manifest listing every Parquet file in the specified outputs, with its
+     * row count and size in bytes, to the specified manifest file.
+     *
+     * @param connection connection
+     * @param outputs output Parquet files or directories of Parquet files
+     * @param manifestFile manifest file to write
+     * @throws Exception if an error occurs
+     */
+    static void write(final Connection connection, final List<File> outputs, final File manifestFile) throws Exception {
+        List<String> outputPaths = new ArrayList<String>(outputs.size());
+        for (File output : outputs) {
+            outputPaths.add(output.toString());
+        }
+        List<String> parquetFiles = ParquetFiles.expand(outputPaths);
+
+        Map<String, Long> rows = new HashMap<String, Long>(parquetFiles.size());
+        if (!parquetFiles.isEmpty()) {
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet resultSet = statement.executeQuery(String.format(ROWS_SQL, Sql.quoteLiterals(parquetFiles)))) {
+                    while (resultSet.next()) {
+                        rows.put(resultSet.getString(1), resultSet.getLong(2));
+                    }
+                }
+            }
+        }
+
+        try (PrintWriter writer = new PrintWriter(manifestFile, "UTF-8")) {
+            writer.print(HEADERS + "\n");
+            for (String parquetFile : parquetFiles) {
+                writer.print(parquetFile + "\t" + rows.getOrDefault(parquetFile, 0L) + "\t" + size(parquetFile) + "\n");
+            }
+        }
+    }
+
+    /**
+     * Return the size in bytes of the specified Parquet file, or an empty cell if it is
+     * remote or otherwise not a local file.
+     *
+     * @param parquetFile Parquet file
+     * @return the size in bytes of the specified Parquet file, or an empty cell
+     * @throws IOException if an I/O error occurs
+     */
+    private static String size(final String parquetFile) throws IOException {
+        if (ParquetFiles.isRemote(parquetFile)) {
+            return "";
+        }
+        Path path = Paths.get(parquetFile);
+        return Files.isRegularFile(path) ? String.valueOf(Files.size(path)) : "";
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Memory usage of the current process.
+ */
+final class Memory {
+
+    /** Process status, Linux only. */
+    private static final Path PROC_SELF_STATUS = Paths.get("/proc/self/status");
+
+    /**
+     * Private no-arg constructor.
+     */
+    private Memory() {
+        // empty
+    }
+
+    /**
+     * Return the peak resident set size of this process in bytes, including
+     * memory allocated natively by DuckDB, or <code>-1</code> if not available.
+     *
+     * @return the peak resident set size of this process in bytes, or <code>-1</code>
+     *    if not available
+     */
+    static long peakResidentSetSize() {
+        if (Files.isReadable(PROC_SELF_STATUS)) {
+            try (BufferedReader reader = Files.newBufferedReader(PROC_SELF_STATUS, StandardCharsets.UTF_8)) {
+                String line = null;
+                while ((line = reader.readLine()) != null) {
+                    // e.g. VmHWM:     123456 kB
+                    if (line.startsWith("VmHWM:")) {
+                        String[] tokens = line.substring(6).trim().split("\\s+");
+                        return Long.parseLong(tokens[0]) * 1024L;
+                    }
+                }
+            }
+            catch (IOException | NumberFormatException e) {
+                // ignore
+            }
+        }
+        return -1L;
+    }
+}
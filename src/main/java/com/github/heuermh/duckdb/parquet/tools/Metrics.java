@@ -0,0 +1,272 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import picocli.CommandLine.ParseResult;
+import picocli.CommandLine.RunLast;
+
+/**
+ * Metrics for the current command, enabled with <code>--profile</code>.
+ *
+ * <p>Timings are accumulated per phase across threads, and written with row counts,
+ * bytes read and written, and peak resident set size as one line of JSON appended
+ * to the profile file after each command.</p>
+ */
+final class Metrics {
+
+    /** Driver load phase. */
+    static final String DRIVER_LOAD = "driver_load";
+
+    /** Connect phase. */
+    static final String CONNECT = "connect";
+
+    /** Query phase, until the first results are available or a statement completes. */
+    static final String QUERY = "query";
+
+    /** Fetch phase, reading results. */
+    static final String FETCH = "fetch";
+
+    /** Write phase, formatting and writing output. */
+    static final String WRITE = "write";
+
+    /** Phases, in order. */
+    private static final String[] PHASES = { DRIVER_LOAD, CONNECT, QUERY, FETCH, WRITE };
+
+    /** Process I/O counters, Linux only. */
+    private static final Path PROC_SELF_IO = Paths.get("/proc/self/io");
+
+    /** Profile file, or null if not enabled. */
+    private static volatile File profile;
+
+    /** Start time. */
+    private static long start;
+
+    /** Bytes read by this process at start, or <code>-1</code> if not available. */
+    private static long startBytesRead;
+
+    /** Bytes written by this process at start, or <code>-1</code> if not available. */
+    private static long startBytesWritten;
+
+    /** Rows. */
+    private static final LongAdder ROWS = new LongAdder();
+
+    /** Timings in nanoseconds, by phase. */
+    private static final Map<String, LongAdder> TIMINGS = new ConcurrentHashMap<String, LongAdder>();
+
+    /** DuckDB JSON query profile files, one per profiled connection, in order. */
+    private static final List<File> DUCKDB_PROFILES = new CopyOnWriteArrayList<File>();
+
+    /**
+     * Private no-arg constructor.
+     */
+    private Metrics() {
+        // empty
+    }
+
+    /**
+     * Enable metrics for the current command, written to the specified profile file.
+     *
+     * @param file profile file, or null to disable metrics
+     */
+    static void enable(final File file) {
+        ROWS.reset();
+        TIMINGS.clear();
+        DUCKDB_PROFILES.clear();
+        start = System.nanoTime();
+        startBytesRead = io("rchar:");
+        startBytesWritten = io("wchar:");
+        profile = file;
+    }
+
+    /**
+     * Disable metrics, without writing metrics for the current command.
+     */
+    static void disable() {
+        profile = null;
+    }
+
+    /**
+     * Return true if metrics are enabled for the current command.
+     *
+     * @return true if metrics are enabled for the current command
+     */
+    static boolean isEnabled() {
+        return profile != null;
+    }
+
+    /**
+     * Return the DuckDB JSON query profile file written alongside the profile file for the
+     * main connection, or null if metrics are not enabled.  Connections duplicated from the
+     * main connection write numbered files alongside, e.g. <code>profile.ndjson.duckdb.1.json</code>.
+     *
+     * @return the DuckDB JSON query profile file, or null if metrics are not enabled
+     */
+    static File duckdbProfile() {
+        File file = profile;
+        return file == null ? null : new File(file.getPath() + ".duckdb.json");
+    }
+
+    /**
+     * Record the specified DuckDB JSON query profile file for the current command.
+     *
+     * @param file DuckDB JSON query profile file
+     */
+    static void duckdbProfile(final File file) {
+        if (profile != null) {
+            DUCKDB_PROFILES.add(file);
+        }
+    }
+
+    /**
+     * Add the time elapsed since the specified start time to the specified phase.
+     *
+     * @param phase phase
+     * @param startNanos start time, from <code>System.nanoTime()</code>
+     */
+    static void time(final String phase, final long startNanos) {
+        if (profile != null) {
+            TIMINGS.computeIfAbsent(phase, p -> new LongAdder()).add(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Add the specified number of rows.
+     *
+     * @param rows number of rows
+     */
+    static void rows(final long rows) {
+        if (profile != null && rows > 0L) {
+            ROWS.add(rows);
+        }
+    }
+
+    /**
+     * Execute the last subcommand in the specified parse result, then write metrics
+     * if enabled.  For use as a picocli execution strategy.
+     *
+     * @param parseResult parse result
+     * @return exit code
+     */
+    static int execute(final ParseResult parseResult) {
+        int exitCode = 1;
+        try {
+            exitCode = new RunLast().execute(parseResult);
+            return exitCode;
+        }
+        finally {
+            File file = profile;
+            if (file != null) {
+                List<picocli.CommandLine> commandLines = parseResult.asCommandLineList();
+                String command = commandLines.get(commandLines.size() - 1).getCommandName();
+                try {
+                    write(file, command, exitCode);
+                }
+                catch (IOException e) {
+                    System.err.println("Could not write profile " + file + ": " + e.getMessage());
+                }
+                profile = null;
+            }
+        }
+    }
+
+    /**
+     * Append metrics for the specified command to the specified profile file.
+     *
+     * @param file profile file
+     * @param command command name
+     * @param exitCode exit code
+     * @throws IOException if an I/O error occurs
+     */
+    private static void write(final File file, final String command, final int exitCode) throws IOException {
+        long elapsed = System.nanoTime() - start;
+        long bytesRead = io("rchar:");
+        long bytesWritten = io("wchar:");
+        long peakRss = Memory.peakResidentSetSize();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"command\":").append(JsonRecords.quote(command));
+        sb.append(",\"exit_code\":").append(exitCode);
+        sb.append(",\"elapsed_ms\":").append(elapsed / 1000000.0d);
+        sb.append(",\"timings_ms\":{");
+        for (int i = 0; i < PHASES.length; i++) {
+            LongAdder nanos = TIMINGS.get(PHASES[i]);
+            sb.append(i > 0 ? "," : "").append(JsonRecords.quote(PHASES[i])).append(":").append(nanos == null ? 0.0d : nanos.sum() / 1000000.0d);
+        }
+        sb.append("},\"rows\":").append(ROWS.sum());
+        sb.append(",\"bytes_read\":").append((bytesRead < 0L || startBytesRead < 0L) ? "null" : String.valueOf(bytesRead - startBytesRead));
+        sb.append(",\"bytes_written\":").append((bytesWritten < 0L || startBytesWritten < 0L) ? "null" : String.valueOf(bytesWritten - startBytesWritten));
+        sb.append(",\"peak_rss_bytes\":").append(peakRss < 0L ? "null" : String.valueOf(peakRss));
+        sb.append(",\"duckdb_profiles\":[");
+        int profiles = 0;
+        for (File duckdbProfile : DUCKDB_PROFILES) {
+            if (duckdbProfile.exists()) {
+                sb.append(profiles++ > 0 ? "," : "").append(JsonRecords.quote(duckdbProfile.getPath()));
+            }
+        }
+        sb.append("]");
+        sb.append("}\n");
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            writer.write(sb.toString());
+        }
+    }
+
+    /**
+     * Return the specified I/O counter for this process, including I/O by DuckDB,
+     * or <code>-1</code> if not available.
+     *
+     * @param key counter key, e.g. <code>rchar:</code>
+     * @return the specified I/O counter for this process, or <code>-1</code> if not available
+     */
+    private static long io(final String key) {
+        if (Files.isReadable(PROC_SELF_IO)) {
+            try (BufferedReader reader = Files.newBufferedReader(PROC_SELF_IO, StandardCharsets.UTF_8)) {
+                String line = null;
+                while ((line = reader.readLine()) != null) {
+                    // e.g. rchar: 123456
+                    if (line.startsWith(key)) {
+                        return Long.parseLong(line.substring(key.length()).trim());
+                    }
+                }
+            }
+            catch (IOException | NumberFormatException e) {
+                // ignore
+            }
+        }
+        return -1L;
+    }
+}
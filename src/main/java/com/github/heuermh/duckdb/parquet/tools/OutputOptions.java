@@ -0,0 +1,91 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.File;
+
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+
+/**
+ * Tabular output options, shared by commands that write tables.
+ */
+final class OutputOptions {
+
+    /**
+     * Output format.
+     */
+    enum Format {
+        TSV,
+        CSV,
+        NDJSON,
+        ARROW,
+        PARQUET
+    }
+
+    @Option(names = { "-f", "--format" })
+    private Format format = Format.TSV;
+
+    @Option(names = { "-o", "--output-file" })
+    private File outputFile;
+
+    @Option(names = { "--skip-header" })
+    private boolean skipHeader;
+
+
+    /**
+     * Validate these output options.
+     *
+     * @param commandLine command line, for reporting parameter exceptions
+     * @param duckdb true if output will be written by a DuckDB query
+     * @throws ParameterException if any of these output options are not valid
+     */
+    void validate(final picocli.CommandLine commandLine, final boolean duckdb) {
+        if (format == Format.PARQUET && outputFile == null) {
+            throw new ParameterException(commandLine, "--output-file is required for format " + Format.PARQUET);
+        }
+        if ((format == Format.ARROW || format == Format.PARQUET) && !duckdb) {
+            throw new ParameterException(commandLine, "format " + format + " is not supported for results not queried by DuckDB, e.g. with --footer-only");
+        }
+    }
+
+    /**
+     * Return the output format.
+     *
+     * @return the output format
+     */
+    Format format() {
+        return format;
+    }
+
+    /**
+     * Return the output file, or null to write to stdout.
+     *
+     * @return the output file, or null to write to stdout
+     */
+    File outputFile() {
+        return outputFile;
+    }
+
+    /**
+     * Return true to skip writing the header.
+     *
+     * @return true to skip writing the header
+     */
+    boolean skipHeader() {
+        return skipHeader;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Overlap of min/max statistics between row groups for a column in a Parquet file.
+ *
+ * <p>The overlap is the fraction of pairs of row groups whose [min, max] ranges for the column
+ * intersect.  Lower values mean that min/max statistics can prune more row groups for range
+ * and equality predicates on the column; well-clustered columns approach zero.  Shared by
+ * the convert overlap report and the stats command.</p>
+ */
+final class Overlap {
+
+    /** Statistics SQL query, one row per row group, reads only the Parquet file footers. */
+    private static final String STATS_SQL = "SELECT coalesce(stats_min_value, stats_min) AS lo, coalesce(stats_max_value, stats_max) AS hi"
+        + " FROM parquet_metadata(%s) WHERE path_in_schema = %s ORDER BY file_name, row_group_id";
+
+    /**
+     * Private no-arg constructor.
+     */
+    private Overlap() {
+        // empty
+    }
+
+    /**
+     * Return the overlap of min/max statistics between row groups for the specified column
+     * in the specified Parquet file, as a fraction between <code>0.0</code> and <code>1.0</code>.
+     * Row groups without statistics are counted as overlapping all others.
+     *
+     * @param connection connection
+     * @param parquetFile Parquet file, or glob over Parquet files
+     * @param column top-level column name
+     * @return the overlap of min/max statistics between row groups for the specified column,
+     *    or <code>0.0</code> if there are fewer than two row groups
+     * @throws Exception if an error occurs
+     */
+    static double overlap(final Connection connection, final String parquetFile, final String column) throws Exception {
+        List<String> lo = new ArrayList<String>();
+        List<String> hi = new ArrayList<String>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(String.format(STATS_SQL, Sql.quoteLiteral(parquetFile), Sql.quoteLiteral(column)))) {
+            while (resultSet.next()) {
+                lo.add(resultSet.getString(1));
+                hi.add(resultSet.getString(2));
+            }
+        }
+        Double overlap = overlap(lo, hi);
+        return overlap == null ? 0.0d : overlap;
+    }
+
+    /**
+     * Return the fraction of row group pairs whose min/max ranges overlap.  Row groups without
+     * min/max statistics overlap all others.  Statistics are compared as numbers if all of them
+     * parse as numbers, otherwise as strings, which orders ISO dates and timestamps correctly.
+     *
+     * @param lo min statistics, one per row group, null if missing
+     * @param hi max statistics, one per row group, null if missing
+     * @return the fraction of row group pairs whose min/max ranges overlap, or null if there
+     *    are fewer than two row groups
+     */
+    static Double overlap(final List<String> lo, final List<String> hi) {
+        int n = lo.size();
+        if (n < 2) {
+            return null;
+        }
+        List<Comparable<?>> los = new ArrayList<Comparable<?>>(n);
+        List<Comparable<?>> his = new ArrayList<Comparable<?>>(n);
+        boolean numeric = true;
+        for (int i = 0; i < n; i++) {
+            if (lo.get(i) != null && hi.get(i) != null) {
+                numeric &= isNumber(lo.get(i)) && isNumber(hi.get(i));
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (lo.get(i) != null && hi.get(i) != null) {
+                los.add(numeric ? (Comparable<?>) Double.valueOf(lo.get(i)) : lo.get(i));
+                his.add(numeric ? (Comparable<?>) Double.valueOf(hi.get(i)) : hi.get(i));
+            }
+        }
+
+        // count pairs (a, b) with a.hi < b.lo by binary search over sorted maxes, O(n log n)
+        @SuppressWarnings("unchecked")
+        Comparable<Object>[] sortedHis = his.toArray(new Comparable[0]);
+        Arrays.sort(sortedHis);
+        long disjoint = 0L;
+        for (Comparable<?> b : los) {
+            disjoint += lowerBound(sortedHis, b);
+        }
+        long pairs = ((long) n * (n - 1L)) / 2L;
+        return ((double) (pairs - disjoint)) / pairs;
+    }
+
+    private static int lowerBound(final Comparable<Object>[] sorted, final Object value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].compareTo(value) < 0) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean isNumber(final String value) {
+        try {
+            Double.parseDouble(value);
+            return true;
+        }
+        catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Parquet file input paths.
+ */
+final class ParquetFiles {
+
+    /** Parquet file extension. */
+    private static final String EXTENSION = ".parquet";
+
+    /** Glob characters. */
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    /**
+     * Private no-arg constructor.
+     */
+    private ParquetFiles() {
+        // empty
+    }
+
+    /**
+     * Expand the specified input paths into a list of Parquet file paths.
+     *
+     * <p>Directories are walked recursively for files with a <code>.parquet</code>
+     * extension, local paths containing glob characters are matched against
+     * the local file system, and remote URLs and all other paths are returned
+     * as is. File lists may be provided as <code>@filelist</code> arguments,
+     * which are expanded by the command line parser.</p>
+     *
+     * @param inputPaths input paths, must not be null
+     * @return the specified input paths expanded into a list of Parquet file paths,
+     *    in order and without duplicates
+     * @throws IOException if an I/O error occurs
+     */
+    static List<String> expand(final List<String> inputPaths) throws IOException {
+        Set<String> parquetFiles = new LinkedHashSet<String>();
+        for (String inputPath : inputPaths) {
+            if (isRemote(inputPath)) {
+                parquetFiles.add(inputPath);
+            }
+            else if (isGlob(inputPath)) {
+                parquetFiles.addAll(glob(inputPath));
+            }
+            else if (Files.isDirectory(Paths.get(inputPath))) {
+                parquetFiles.addAll(walk(Paths.get(inputPath)));
+            }
+            else {
+                parquetFiles.add(inputPath);
+            }
+        }
+        return new ArrayList<String>(parquetFiles);
+    }
+
+    /**
+     * Return the file name of the specified Parquet file path.
+     *
+     * @param parquetFile Parquet file path
+     * @return the file name of the specified Parquet file path
+     */
+    static String fileName(final String parquetFile) {
+        int index = parquetFile.lastIndexOf('/');
+        return index < 0 ? parquetFile : parquetFile.substring(index + 1);
+    }
+
+    /**
+     * Return a path that DuckDB table functions can read for the specified
+     * output, a Parquet file or a directory of Parquet files.
+     *
+     * @param output output Parquet file or directory of Parquet files
+     * @return a path that DuckDB table functions can read for the specified output
+     */
+    static String scanPath(final File output) {
+        return output.isDirectory() ? output.toString() + "/**/*" + EXTENSION : output.toString();
+    }
+
+    /**
+     * Return true if the specified input path is a remote URL, such as <code>s3://</code>
+     * or <code>https://</code>, which is passed to DuckDB as is.
+     *
+     * @param inputPath input path
+     * @return true if the specified input path is a remote URL
+     */
+    static boolean isRemote(final String inputPath) {
+        return inputPath.contains("://");
+    }
+
+    /**
+     * Return true if the specified input path contains glob characters.
+     *
+     * @param inputPath input path
+     * @return true if the specified input path contains glob characters
+     */
+    static boolean isGlob(final String inputPath) {
+        for (int i = 0, size = GLOB_CHARACTERS.length(); i < size; i++) {
+            if (inputPath.indexOf(GLOB_CHARACTERS.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> walk(final Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths
+                .filter(Files::isRegularFile)
+                .filter(path -> path.getFileName().toString().toLowerCase().endsWith(EXTENSION))
+                .sorted()
+                .map(Path::toString)
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Return the regular files matching the specified glob pattern, walking from the longest
+     * leading path without glob characters no deeper than the pattern, unless the pattern
+     * contains <code>**</code>.
+     */
+    private static List<String> glob(final String pattern) throws IOException {
+        // walk from the longest leading path without glob characters
+        Path base = null;
+        int depth = 0;
+        for (Path element : Paths.get(pattern)) {
+            if (depth > 0 || isGlob(element.toString())) {
+                depth++;
+            }
+            else {
+                base = (base == null) ? element : base.resolve(element);
+            }
+        }
+        if (pattern.startsWith("/")) {
+            base = (base == null) ? Paths.get("/") : Paths.get("/").resolve(base);
+        }
+        if (base == null) {
+            base = Paths.get(".");
+        }
+        if (!Files.isDirectory(base)) {
+            return new ArrayList<String>();
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + Paths.get(pattern).normalize());
+        int maxDepth = pattern.contains("**") ? Integer.MAX_VALUE : depth;
+        try (Stream<Path> paths = Files.walk(base, maxDepth)) {
+            return paths
+                .filter(Files::isRegularFile)
+                .map(Path::normalize)
+                .filter(matcher::matches)
+                .sorted()
+                .map(Path::toString)
+                .collect(Collectors.toList());
+        }
+    }
+}
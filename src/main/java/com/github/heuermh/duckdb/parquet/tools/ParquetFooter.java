@@ -0,0 +1,748 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pure Java Parquet file footer reader, decoding <code>FileMetaData</code> from a
+ * memory-mapped read of the tail of a Parquet file without starting DuckDB.
+ */
+final class ParquetFooter {
+
+    /** Parquet magic bytes. */
+    static final int MAGIC = 0x31524150; // "PAR1", little endian
+
+    /** Parquet encrypted footer magic bytes. */
+    static final int ENCRYPTED_MAGIC = 0x45524150; // "PARE", little endian
+
+    /** Physical type names, by value. */
+    static final String[] TYPES = { "BOOLEAN", "INT32", "INT64", "INT96", "FLOAT", "DOUBLE", "BYTE_ARRAY", "FIXED_LEN_BYTE_ARRAY" };
+
+    /** Field repetition type names, by value. */
+    static final String[] REPETITION_TYPES = { "REQUIRED", "OPTIONAL", "REPEATED" };
+
+    /** Converted type names, by value. */
+    static final String[] CONVERTED_TYPES = { "UTF8", "MAP", "MAP_KEY_VALUE", "LIST", "ENUM", "DECIMAL", "DATE", "TIME_MILLIS",
+                                              "TIME_MICROS", "TIMESTAMP_MILLIS", "TIMESTAMP_MICROS", "UINT_8", "UINT_16", "UINT_32",
+                                              "UINT_64", "INT_8", "INT_16", "INT_32", "INT_64", "JSON", "BSON", "INTERVAL" };
+
+    /** Compression codec names, by value. */
+    static final String[] CODECS = { "UNCOMPRESSED", "SNAPPY", "GZIP", "LZO", "BROTLI", "LZ4", "ZSTD", "LZ4_RAW" };
+
+    /** Encoding names, by value. */
+    static final String[] ENCODINGS = { "PLAIN", "GROUP_VAR_INT", "PLAIN_DICTIONARY", "RLE", "BIT_PACKED", "DELTA_BINARY_PACKED",
+                                        "DELTA_LENGTH_BYTE_ARRAY", "DELTA_BYTE_ARRAY", "RLE_DICTIONARY", "BYTE_STREAM_SPLIT" };
+
+    /** Logical type names, by union field id. */
+    static final String[] LOGICAL_TYPES = { null, "STRING", "MAP", "LIST", "ENUM", "DECIMAL", "DATE", "TIME", "TIMESTAMP", null,
+                                            "INTEGER", "UNKNOWN", "JSON", "BSON", "UUID", "FLOAT16", "VARIANT", "GEOMETRY", "GEOGRAPHY" };
+
+
+    /**
+     * Private no-arg constructor.
+     */
+    private ParquetFooter() {
+        // empty
+    }
+
+
+    /**
+     * Read the file metadata from the footer of the specified Parquet file.
+     *
+     * @param path path to a local Parquet file, must not be null
+     * @return the file metadata from the footer of the specified Parquet file
+     * @throws IOException if an I/O error occurs or the file is not a valid Parquet file
+     */
+    static FileMetaData read(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 12L) {
+                throw new IOException(path + " is not a Parquet file, size " + size + " is too small");
+            }
+            ByteBuffer tail = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, tail, size - 8L);
+            int length = tail.getInt(0);
+            int magic = tail.getInt(4);
+            if (magic == ENCRYPTED_MAGIC) {
+                throw new IOException(path + " has an encrypted footer, which is not supported");
+            }
+            if (magic != MAGIC) {
+                throw new IOException(path + " is not a Parquet file, missing magic bytes at end of file");
+            }
+            if (length <= 0 || length > (size - 12L)) {
+                throw new IOException(path + " is not a valid Parquet file, footer length " + length + " is invalid");
+            }
+            ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, size - 8L - length, length);
+            return readFileMetaData(new ThriftCompactReader(footer));
+        }
+    }
+
+    /**
+     * Read from the specified channel into the specified buffer at the specified position until the buffer is full.
+     *
+     * @param channel channel to read from
+     * @param buffer buffer to read into
+     * @param position position in the channel
+     * @throws IOException if an I/O error occurs
+     */
+    static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file at position " + offset);
+            }
+            offset += read;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Return the name for the specified value in the specified names, or the value
+     * as a string if not found.
+     *
+     * @param names names, by value
+     * @param value value, may be null
+     * @return the name for the specified value, or <code>null</code> if value is null
+     */
+    static String name(final String[] names, final Integer value) {
+        if (value == null) {
+            return null;
+        }
+        return (value >= 0 && value < names.length && names[value] != null) ? names[value] : String.valueOf(value);
+    }
+
+    /**
+     * Read a <code>FileMetaData</code> struct from the specified reader.  Fields not used by this
+     * reader are skipped.
+     *
+     * @param reader Thrift compact protocol reader, positioned at the start of the struct
+     * @return the file metadata read from the specified reader
+     * @throws IOException if an I/O error occurs or the footer is truncated or malformed
+     */
+    static FileMetaData readFileMetaData(final ThriftCompactReader reader) throws IOException {
+        FileMetaData fileMetaData = new FileMetaData();
+        reader.readStructBegin();
+        int type;
+        while ((type = reader.readFieldBegin()) != ThriftCompactReader.STOP) {
+            switch (reader.fieldId()) {
+            case 1:
+                fileMetaData.version = reader.readI32();
+                break;
+            case 2:
+                for (int i = 0, size = reader.readListBegin(); i < size; i++) {
+                    fileMetaData.schema.add(readSchemaElement(reader));
+                }
+                break;
+            case 3:
+                fileMetaData.numRows = reader.readI64();
+                break;
+            case 4:
+                for (int i = 0, size = reader.readListBegin(); i < size; i++) {
+                    fileMetaData.rowGroups.add(readRowGroup(reader));
+                }
+                break;
+            case 5:
+                fileMetaData.keyValueMetadata = readKeyValues(reader);
+                break;
+            case 6:
+                fileMetaData.createdBy = reader.readString();
+                break;
+            default:
+                reader.skip(type);
+            }
+        }
+        reader.readStructEnd();
+        return fileMetaData;
+    }
+
+    /**
+     * Read a <code>SchemaElement</code> struct from the specified reader.  Fields not used by this
+     * reader are skipped.
+     *
+     * @param reader Thrift compact protocol reader, positioned at the start of the struct
+     * @return the schema element read from the specified reader
+     * @throws IOException if an I/O error occurs or the footer is truncated or malformed
+     */
+    static SchemaElement readSchemaElement(final ThriftCompactReader reader) throws IOException {
+        SchemaElement schemaElement = new SchemaElement();
+        reader.readStructBegin();
+        int type;
+        while ((type = reader.readFieldBegin()) != ThriftCompactReader.STOP) {
+            switch (reader.fieldId()) {
+            case 1:
+                schemaElement.type = reader.readI32();
+                break;
+            case 2:
+                schemaElement.typeLength = reader.readI32();
+                break;
+            case 3:
+                schemaElement.repetitionType = reader.readI32();
+                break;
+            case 4:
+                schemaElement.name = reader.readString();
+                break;
+            case 5:
+                schemaElement.numChildren = reader.readI32();
+                break;
+            case 6:
+                schemaElement.convertedType = reader.readI32();
+                break;
+            case 7:
+                schemaElement.scale = reader.readI32();
+                break;
+            case 8:
+                schemaElement.precision = reader.readI32();
+                break;
+            case 9:
+                schemaElement.fieldId = reader.readI32();
+                break;
+            case 10:
+                schemaElement.logicalType = readLogicalType(reader);
+                break;
+            default:
+                reader.skip(type);
+            }
+        }
+        reader.readStructEnd();
+        return schemaElement;
+    }
+
+    /**
+     * Read a <code>LogicalType</code> union, keeping the kind and the parameters of decimal, time, timestamp, and integer types from the specified reader.  Fields not used by this
+     * reader are skipped.
+     *
+     * @param reader Thrift compact protocol reader, positioned at the start of the struct
+     * @return the logical type read from the specified reader
+     * @throws IOException if an I/O error occurs or the footer is truncated or malformed
+     */
+    static LogicalType readLogicalType(final ThriftCompactReader reader) throws IOException {
+        LogicalType logicalType = new LogicalType();
+        reader.readStructBegin();
+        int type;
+        while ((type = reader.readFieldBegin()) != ThriftCompactReader.STOP) {
+            int kind = reader.fieldId();
+            if (type != ThriftCompactReader.STRUCT) {
+                reader.skip(type);
+                continue;
+            }
+            logicalType.kind = kind;
+
+            // union member struct
+            reader.readStructBegin();
+            int memberType;
+            while ((memberType = reader.readFieldBegin()) != ThriftCompactReader.STOP) {
+                int id = reader.fieldId();
+                if (kind == 5 && id == 1) {
+                    logicalType.scale = reader.readI32();
+                }
+                else if (kind == 5 && id == 2) {
+                    logicalType.precision = reader.readI32();
+                }
+                else if ((kind == 7 || kind == 8) && id == 1) {
+                    logicalType.isAdjustedToUTC = reader.readBoolean();
+                }
+                else if ((kind == 7 || kind == 8) && id == 2 && memberType == ThriftCompactReader.STRUCT) {
+                    // time unit union, field id is the unit
+                    reader.readStructBegin();
+                    int unitType;
+                    while ((unitType = reader.readFieldBegin()) != ThriftCompactReader.STOP) {
+                        logicalType.unit = (int) reader.fieldId();
+                        reader.skip(unitType);
+                    }
+                    reader.readStructEnd();
+                }
+                else if (kind == 10 && id == 1) {
+                    logicalType.bitWidth = (int) reader.readByte();
+                }
+                else if (kind == 10 && id == 2) {
+                    logicalType.isSigned = reader.readBoolean();
+                }
+                else {
+                    reader.skip(memberType);
+                }
+            }
+            reader.readStructEnd();
+        }
+        reader.readStructEnd();
+        return logicalType;
+    }
+
+    /**
+     * Read a <code>RowGroup</code> struct from the specified reader.  Fields not used by this
+     * reader are skipped.
+     *
+     * @param reader Thrift compact protocol reader, positioned at the start of the struct
+     * @return the row group read from the specified reader
+     * @throws IOException if an I/O error occurs or the footer is truncated or malformed
+     */
+    static RowGroup readRowGroup(final ThriftCompactReader reader) throws IOException {
+        RowGroup rowGroup = new RowGroup();
+        reader.readStructBegin();
+        int type;
+        while ((type = reader.readFieldBegin()) != ThriftCompactReader.STOP) {
+            switch (reader.fieldId()) {
+            case 1:
+                for (int i = 0, size = reader.readListBegin(); i < size; i++) {
+                    rowGroup.columns.add(readColumnChunk(reader));
+                }
+                break;
+            case 2:
+                rowGroup.totalByteSize = reader.readI64();
+                break;
+            case 3:
+                rowGroup.numRows = reader.readI64();
+                break;
+            case 5:
+                rowGroup.fileOffset = reader.readI64();
+                break;
+            case 6:
+                rowGroup.totalCompressedSize = reader.readI64();
+                break;
+            case 7:
+                rowGroup.ordinal = reader.readI32();
+                break;
+            default:
+                reader.skip(type);
+            }
+        }
+        reader.readStructEnd();
+        return rowGroup;
+    }
+
+    /**
+     * Read a <code>ColumnChunk</code> struct from the specified reader.  Fields not used by this
+     * reader are skipped.
+     *
+     * @param reader Thrift compact protocol reader, positioned at the start of the struct
+     * @return the column chunk read from the specified reader
+     * @throws IOException if an I/O error occurs or the footer is truncated or malformed
+     */
+    static ColumnChunk readColumnChunk(final ThriftCompactReader reader) throws IOException {
+        ColumnChunk columnChunk = new ColumnChunk();
+        reader.readStructBegin();
+        int type;
+        while ((type = reader.readFieldBegin()) != ThriftCompactReader.STOP) {
+            switch (reader.fieldId()) {
+            case 1:
+                columnChunk.filePath = reader.readString();
+                break;
+            case 2:
+                columnChunk.fileOffset = reader.readI64();
+                break;
+            case 3:
+                columnChunk.metaData = readColumnMetaData(reader);
+                break;
+            case 4:
+                columnChunk.offsetIndexOffset = reader.readI64();
+                break;
+            case 5:
+                columnChunk.offsetIndexLength = reader.readI32();
+                break;
+            case 6:
+                columnChunk.columnIndexOffset = reader.readI64();
+                break;
+            case 7:
+                columnChunk.columnIndexLength = reader.readI32();
+                break;
+            default:
+                reader.skip(type);
+            }
+        }
+        reader.readStructEnd();
+        return columnChunk;
+    }
+
+    /**
+     * Read a <code>ColumnMetaData</code> struct from the specified reader.  Fields not used by this
+     * reader are skipped.
+     *
+     * @param reader Thrift compact protocol reader, positioned at the start of the struct
+     * @return the column metadata read from the specified reader
+     * @throws IOException if an I/O error occurs or the footer is truncated or malformed
+     */
+    static ColumnMetaData readColumnMetaData(final ThriftCompactReader reader) throws IOException {
+        ColumnMetaData columnMetaData = new ColumnMetaData();
+        reader.readStructBegin();
+        int type;
+        while ((type = reader.readFieldBegin()) != ThriftCompactReader.STOP) {
+            switch (reader.fieldId()) {
+            case 1:
+                columnMetaData.type = reader.readI32();
+                break;
+            case 2:
+                for (int i = 0, size = reader.readListBegin(); i < size; i++) {
+                    columnMetaData.encodings.add(reader.readI32());
+                }
+                break;
+            case 3:
+                for (int i = 0, size = reader.readListBegin(); i < size; i++) {
+                    columnMetaData.pathInSchema.add(reader.readString());
+                }
+                break;
+            case 4:
+                columnMetaData.codec = reader.readI32();
+                break;
+            case 5:
+                columnMetaData.numValues = reader.readI64();
+                break;
+            case 6:
+                columnMetaData.totalUncompressedSize = reader.readI64();
+                break;
+            case 7:
+                columnMetaData.totalCompressedSize = reader.readI64();
+                break;
+            case 8:
+                columnMetaData.keyValueMetadata = readKeyValues(reader);
+                break;
+            case 9:
+                columnMetaData.dataPageOffset = reader.readI64();
+                break;
+            case 10:
+                columnMetaData.indexPageOffset = reader.readI64();
+                break;
+            case 11:
+                columnMetaData.dictionaryPageOffset = reader.readI64();
+                break;
+            case 12:
+                columnMetaData.statistics = readStatistics(reader);
+                break;
+            case 14:
+                columnMetaData.bloomFilterOffset = reader.readI64();
+                break;
+            case 15:
+                columnMetaData.bloomFilterLength = reader.readI32();
+                break;
+            default:
+                reader.skip(type);
+            }
+        }
+        reader.readStructEnd();
+        return columnMetaData;
+    }
+
+    /**
+     * Read a <code>Statistics</code> struct from the specified reader.  Fields not used by this
+     * reader are skipped.
+     *
+     * @param reader Thrift compact protocol reader, positioned at the start of the struct
+     * @return the statistics read from the specified reader
+     * @throws IOException if an I/O error occurs or the footer is truncated or malformed
+     */
+    static Statistics readStatistics(final ThriftCompactReader reader) throws IOException {
+        Statistics statistics = new Statistics();
+        reader.readStructBegin();
+        int type;
+        while ((type = reader.readFieldBegin()) != ThriftCompactReader.STOP) {
+            switch (reader.fieldId()) {
+            case 1:
+                statistics.max = reader.readBinary();
+                break;
+            case 2:
+                statistics.min = reader.readBinary();
+                break;
+            case 3:
+                statistics.nullCount = reader.readI64();
+                break;
+            case 4:
+                statistics.distinctCount = reader.readI64();
+                break;
+            case 5:
+                statistics.maxValue = reader.readBinary();
+                break;
+            case 6:
+                statistics.minValue = reader.readBinary();
+                break;
+            case 7:
+                statistics.isMaxValueExact = reader.readBoolean();
+                break;
+            case 8:
+                statistics.isMinValueExact = reader.readBoolean();
+                break;
+            default:
+                reader.skip(type);
+            }
+        }
+        reader.readStructEnd();
+        return statistics;
+    }
+
+    /**
+     * Read a list of <code>KeyValue</code> structs from the specified reader.  Fields not used by this
+     * reader are skipped.
+     *
+     * @param reader Thrift compact protocol reader, positioned at the start of the list
+     * @return the key value metadata read from the specified reader
+     * @throws IOException if an I/O error occurs or the footer is truncated or malformed
+     */
+    static List<KeyValue> readKeyValues(final ThriftCompactReader reader) throws IOException {
+        int size = reader.readListBegin();
+        List<KeyValue> keyValues = new ArrayList<KeyValue>(size);
+        for (int i = 0; i < size; i++) {
+            KeyValue keyValue = new KeyValue();
+            reader.readStructBegin();
+            int type;
+            while ((type = reader.readFieldBegin()) != ThriftCompactReader.STOP) {
+                switch (reader.fieldId()) {
+                case 1:
+                    keyValue.key = reader.readString();
+                    break;
+                case 2:
+                    keyValue.value = reader.readString();
+                    break;
+                default:
+                    reader.skip(type);
+                }
+            }
+            reader.readStructEnd();
+            keyValues.add(keyValue);
+        }
+        return keyValues;
+    }
+
+
+    /**
+     * File metadata.
+     */
+    static final class FileMetaData {
+        /** Parquet format version. */
+        int version;
+
+        /** Schema elements, flattened depth first with the root first. */
+        final List<SchemaElement> schema = new ArrayList<SchemaElement>();
+
+        /** Number of rows in the file. */
+        long numRows;
+
+        /** Row groups. */
+        final List<RowGroup> rowGroups = new ArrayList<RowGroup>();
+
+        /** File key value metadata. */
+        List<KeyValue> keyValueMetadata = new ArrayList<KeyValue>();
+
+        /** Application that wrote the file, if any. */
+        String createdBy;
+    }
+
+    /**
+     * Schema element.
+     */
+    static final class SchemaElement {
+        /** Physical type, see {@link #TYPES}, or null for groups. */
+        Integer type;
+
+        /** Length in bytes of <code>FIXED_LEN_BYTE_ARRAY</code> values, if any. */
+        Integer typeLength;
+
+        /** Field repetition type, see {@link #REPETITION_TYPES}, or null for the root. */
+        Integer repetitionType;
+
+        /** Name. */
+        String name;
+
+        /** Number of children, or null for leaf columns. */
+        Integer numChildren;
+
+        /** Converted type, see {@link #CONVERTED_TYPES}, if any. */
+        Integer convertedType;
+
+        /** Decimal scale, if any. */
+        Integer scale;
+
+        /** Decimal precision, if any. */
+        Integer precision;
+
+        /** Field id, if any. */
+        Integer fieldId;
+
+        /** Logical type, if any. */
+        LogicalType logicalType;
+    }
+
+    /**
+     * Logical type, a union keyed by field id.
+     */
+    static final class LogicalType {
+        /** Union field id, see {@link #LOGICAL_TYPES}. */
+        int kind;
+
+        /** Decimal scale, if any. */
+        Integer scale;
+
+        /** Decimal precision, if any. */
+        Integer precision;
+
+        /** True if a time or timestamp is adjusted to UTC, if any. */
+        Boolean isAdjustedToUTC;
+
+        /** Time or timestamp unit union field id, 1 for millis, 2 for micros, or 3 for nanos, if any. */
+        Integer unit;
+
+        /** Integer bit width, if any. */
+        Integer bitWidth;
+
+        /** True if an integer is signed, if any. */
+        Boolean isSigned;
+    }
+
+    /**
+     * Row group.
+     */
+    static final class RowGroup {
+        /** Column chunks, one per leaf column. */
+        final List<ColumnChunk> columns = new ArrayList<ColumnChunk>();
+
+        /** Total uncompressed size in bytes of column data. */
+        long totalByteSize;
+
+        /** Number of rows. */
+        long numRows;
+
+        /** File offset of the first page, if any. */
+        Long fileOffset;
+
+        /** Total compressed size in bytes, if any. */
+        Long totalCompressedSize;
+
+        /** Ordinal of this row group in the file, if any. */
+        Integer ordinal;
+    }
+
+    /**
+     * Column chunk.
+     */
+    static final class ColumnChunk {
+        /** Path of the file containing column data, or null if in this file. */
+        String filePath;
+
+        /** Deprecated file offset of the column metadata. */
+        long fileOffset;
+
+        /** Column metadata, if any. */
+        ColumnMetaData metaData;
+
+        /** File offset of the offset index, if any. */
+        Long offsetIndexOffset;
+
+        /** Length in bytes of the offset index, if any. */
+        Integer offsetIndexLength;
+
+        /** File offset of the column index, if any. */
+        Long columnIndexOffset;
+
+        /** Length in bytes of the column index, if any. */
+        Integer columnIndexLength;
+    }
+
+    /**
+     * Column metadata.
+     */
+    static final class ColumnMetaData {
+        /** Physical type, see {@link #TYPES}. */
+        int type;
+
+        /** Encodings, see {@link #ENCODINGS}. */
+        final List<Integer> encodings = new ArrayList<Integer>();
+
+        /** Path of this column in the schema. */
+        final List<String> pathInSchema = new ArrayList<String>();
+
+        /** Compression codec, see {@link #CODECS}. */
+        int codec;
+
+        /** Number of values, including nulls. */
+        long numValues;
+
+        /** Total uncompressed size in bytes, including page headers. */
+        long totalUncompressedSize;
+
+        /** Total compressed size in bytes, including page headers. */
+        long totalCompressedSize;
+
+        /** Column key value metadata. */
+        List<KeyValue> keyValueMetadata = new ArrayList<KeyValue>();
+
+        /** File offset of the first data page. */
+        long dataPageOffset;
+
+        /** File offset of the first index page, if any. */
+        Long indexPageOffset;
+
+        /** File offset of the dictionary page, if any. */
+        Long dictionaryPageOffset;
+
+        /** Statistics, if any. */
+        Statistics statistics;
+
+        /** File offset of the bloom filter, if any. */
+        Long bloomFilterOffset;
+
+        /** Length in bytes of the bloom filter, if any. */
+        Integer bloomFilterLength;
+    }
+
+    /**
+     * Statistics.
+     */
+    static final class Statistics {
+        /** Deprecated maximum value, with signed sort order, if any. */
+        byte[] max;
+
+        /** Deprecated minimum value, with signed sort order, if any. */
+        byte[] min;
+
+        /** Number of null values, if any. */
+        Long nullCount;
+
+        /** Number of distinct values, if any. */
+        Long distinctCount;
+
+        /** Maximum value, plain encoded, if any. */
+        byte[] maxValue;
+
+        /** Minimum value, plain encoded, if any. */
+        byte[] minValue;
+
+        /** True if the maximum value is an actual value, rather than a truncated bound, if any. */
+        Boolean isMaxValueExact;
+
+        /** True if the minimum value is an actual value, rather than a truncated bound, if any. */
+        Boolean isMinValueExact;
+    }
+
+    /**
+     * Key value metadata.
+     */
+    static final class KeyValue {
+        /** Key. */
+        String key;
+
+        /** Value, if any. */
+        String value;
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.IOException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.zip.CRC32;
+
+/**
+ * Pure Java Parquet page header reader, decoding <code>PageHeader</code>s by walking a
+ * memory-mapped column chunk from header to header without reading page data.
+ */
+final class ParquetPages {
+
+    /** Data page type. */
+    static final int DATA_PAGE = 0;
+
+    /** Index page type. */
+    static final int INDEX_PAGE = 1;
+
+    /** Dictionary page type. */
+    static final int DICTIONARY_PAGE = 2;
+
+    /** Data page V2 type. */
+    static final int DATA_PAGE_V2 = 3;
+
+    /** Page type names, by value. */
+    static final String[] PAGE_TYPES = { "DATA_PAGE", "INDEX_PAGE", "DICTIONARY_PAGE", "DATA_PAGE_V2" };
+
+    /** Plain encoding. */
+    static final int PLAIN = 0;
+
+    /** Plain dictionary encoding, deprecated. */
+    static final int PLAIN_DICTIONARY = 2;
+
+    /** RLE dictionary encoding. */
+    static final int RLE_DICTIONARY = 8;
+
+
+    /**
+     * Private no-arg constructor.
+     */
+    private ParquetPages() {
+        // empty
+    }
+
+
+    /**
+     * Return the start of the specified column chunk, its dictionary page if any, otherwise its first data page.
+     *
+     * @param columnMetaData column metadata
+     * @return the start of the specified column chunk
+     */
+    static long start(final ParquetFooter.ColumnMetaData columnMetaData) {
+        return start(columnMetaData.dictionaryPageOffset, columnMetaData.dataPageOffset);
+    }
+
+    /**
+     * Return the start of a column chunk, its dictionary page if any, otherwise its first data page.
+     *
+     * @param dictionaryPageOffset dictionary page offset, may be null
+     * @param dataPageOffset data page offset
+     * @return the start of a column chunk
+     */
+    static long start(final Long dictionaryPageOffset, final long dataPageOffset) {
+        // some writers set a dictionary page offset of zero for chunks without a dictionary page
+        return (dictionaryPageOffset != null && dictionaryPageOffset > 0L && dictionaryPageOffset < dataPageOffset) ? dictionaryPageOffset : dataPageOffset;
+    }
+
+    /**
+     * Read the page headers of the column chunk at the specified position.
+     *
+     * @param channel file channel to read from
+     * @param start start of the column chunk
+     * @param length total compressed size of the column chunk, including page headers
+     * @return the page headers of the column chunk at the specified position
+     * @throws IOException if an I/O error occurs or a page header is not valid
+     */
+    static List<PageHeader> read(final FileChannel channel, final long start, final long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Column chunk at " + start + " is too large to map, " + length + " bytes");
+        }
+        if (start < 0L || length < 0L || start + length > channel.size()) {
+            throw new IOException("Column chunk at " + start + " of " + length + " bytes extends past the end of the file");
+        }
+        MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        ThriftCompactReader reader = new ThriftCompactReader(chunk);
+        List<PageHeader> pageHeaders = new ArrayList<PageHeader>();
+        long position = 0L;
+        while (position < length) {
+            try {
+                chunk.position((int) position);
+                PageHeader pageHeader = readPageHeader(reader);
+                pageHeader.offset = start + position;
+                pageHeader.headerLength = (int) (chunk.position() - position);
+                pageHeaders.add(pageHeader);
+
+                // skip the page data
+                position = (long) chunk.position() + pageHeader.compressedPageSize;
+            }
+            catch (BufferUnderflowException e) {
+                throw new IOException("Page header at " + (start + position) + " extends past the end of its column chunk");
+            }
+        }
+        if (position != length) {
+            PageHeader last = pageHeaders.get(pageHeaders.size() - 1);
+            throw new IOException("Page data at " + (last.offset + last.headerLength) + " of " + last.compressedPageSize + " bytes extends past the end of its column chunk at " + (start + length));
+        }
+        return pageHeaders;
+    }
+
+    /**
+     * Return true if the CRC of the specified page, if present, matches the CRC-32 of its
+     * compressed page data.
+     *
+     * @param channel file channel to read from
+     * @param pageHeader page header with a CRC
+     * @return true if the CRC of the specified page matches the CRC-32 of its compressed page data
+     * @throws IOException if an I/O error occurs
+     */
+    static boolean checkCrc(final FileChannel channel, final PageHeader pageHeader) throws IOException {
+        if (pageHeader.crc == null) {
+            return true;
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(channel.map(FileChannel.MapMode.READ_ONLY, pageHeader.offset + pageHeader.headerLength, pageHeader.compressedPageSize));
+        return ((int) crc32.getValue()) == pageHeader.crc;
+    }
+
+    static PageHeader readPageHeader(final ThriftCompactReader reader) throws IOException {
+        PageHeader pageHeader = new PageHeader();
+        reader.readStructBegin();
+        int type;
+        while ((type = reader.readFieldBegin()) != ThriftCompactReader.STOP) {
+            switch (reader.fieldId()) {
+            case 1:
+                pageHeader.type = reader.readI32();
+                break;
+            case 2:
+                pageHeader.uncompressedPageSize = reader.readI32();
+                break;
+            case 3:
+                pageHeader.compressedPageSize = reader.readI32();
+                break;
+            case 4:
+                pageHeader.crc = reader.readI32();
+                break;
+            case 5:
+                readDataPageHeader(reader, pageHeader);
+                break;
+            case 7:
+                readDictionaryPageHeader(reader, pageHeader);
+                break;
+            case 8:
+                readDataPageHeaderV2(reader, pageHeader);
+                break;
+            default:
+                reader.skip(type);
+            }
+        }
+        reader.readStructEnd();
+        if (pageHeader.compressedPageSize < 0) {
+            throw new IOException("Page header has invalid compressed page size " + pageHeader.compressedPageSize);
+        }
+        return pageHeader;
+    }
+
+    static void readDataPageHeader(final ThriftCompactReader reader, final PageHeader pageHeader) throws IOException {
+        reader.readStructBegin();
+        int type;
+        while ((type = reader.readFieldBegin()) != ThriftCompactReader.STOP) {
+            switch (reader.fieldId()) {
+            case 1:
+                pageHeader.numValues = reader.readI32();
+                break;
+            case 2:
+                pageHeader.encoding = reader.readI32();
+                break;
+            default:
+                reader.skip(type);
+            }
+        }
+        reader.readStructEnd();
+    }
+
+    static void readDictionaryPageHeader(final ThriftCompactReader reader, final PageHeader pageHeader) throws IOException {
+        reader.readStructBegin();
+        int type;
+        while ((type = reader.readFieldBegin()) != ThriftCompactReader.STOP) {
+            switch (reader.fieldId()) {
+            case 1:
+                pageHeader.numValues = reader.readI32();
+                break;
+            case 2:
+                pageHeader.encoding = reader.readI32();
+                break;
+            default:
+                reader.skip(type);
+            }
+        }
+        reader.readStructEnd();
+    }
+
+    static void readDataPageHeaderV2(final ThriftCompactReader reader, final PageHeader pageHeader) throws IOException {
+        reader.readStructBegin();
+        int type;
+        while ((type = reader.readFieldBegin()) != ThriftCompactReader.STOP) {
+            switch (reader.fieldId()) {
+            case 1:
+                pageHeader.numValues = reader.readI32();
+                break;
+            case 2:
+                pageHeader.numNulls = reader.readI32();
+                break;
+            case 3:
+                pageHeader.numRows = reader.readI32();
+                break;
+            case 4:
+                pageHeader.encoding = reader.readI32();
+                break;
+            case 5:
+                pageHeader.definitionLevelsByteLength = reader.readI32();
+                break;
+            case 6:
+                pageHeader.repetitionLevelsByteLength = reader.readI32();
+                break;
+            case 7:
+                pageHeader.isCompressed = reader.readBoolean();
+                break;
+            default:
+                reader.skip(type);
+            }
+        }
+        reader.readStructEnd();
+    }
+
+
+    /**
+     * Page header.
+     */
+    static final class PageHeader {
+        long offset;
+        int headerLength;
+        int type;
+        int uncompressedPageSize;
+        int compressedPageSize;
+        Integer crc;
+        int numValues;
+        Integer encoding;
+        Integer numNulls;
+        Integer numRows;
+        Integer definitionLevelsByteLength;
+        Integer repetitionLevelsByteLength;
+        Boolean isCompressed;
+
+        /**
+         * Return true if this is a data page, V1 or V2.
+         *
+         * @return true if this is a data page, V1 or V2
+         */
+        boolean isDataPage() {
+            return type == DATA_PAGE || type == DATA_PAGE_V2;
+        }
+
+        /**
+         * Return true if this page is dictionary encoded.
+         *
+         * @return true if this page is dictionary encoded
+         */
+        boolean isDictionaryEncoded() {
+            return encoding != null && (encoding == PLAIN_DICTIONARY || encoding == RLE_DICTIONARY);
+        }
+    }
+}
@@ -0,0 +1,425 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.nio.charset.StandardCharsets;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.github.heuermh.duckdb.parquet.tools.ParquetFooter.LogicalType;
+import com.github.heuermh.duckdb.parquet.tools.ParquetFooter.SchemaElement;
+
+/**
+ * Maps Parquet schema elements to DuckDB types and formats Parquet statistics values,
+ * for reading Parquet file footers without starting DuckDB.
+ */
+final class ParquetTypes {
+
+    /** Julian day of the Unix epoch, for INT96 timestamps. */
+    private static final long JULIAN_EPOCH_DAY = 2440588L;
+
+    /** Nanoseconds per day, for INT96 timestamps. */
+    private static final long NANOS_PER_DAY = 86400L * 1000000000L;
+
+    /** Hex digits. */
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+
+    /**
+     * Private no-arg constructor.
+     */
+    private ParquetTypes() {
+        // empty
+    }
+
+
+    /**
+     * Schema node, a schema element and its children.
+     */
+    static final class Node {
+        /** Schema element. */
+        final SchemaElement element;
+
+        /** Child nodes, in schema order. */
+        final List<Node> children = new ArrayList<Node>();
+
+
+        /**
+         * Create a new schema node for the specified schema element.
+         *
+         * @param element schema element
+         */
+        Node(final SchemaElement element) {
+            this.element = element;
+        }
+
+
+        /**
+         * Return true if this node is a group, with children.
+         *
+         * @return true if this node is a group, with children
+         */
+        boolean isGroup() {
+            return element.numChildren != null && element.numChildren > 0;
+        }
+
+        /**
+         * Return true if this node has the <code>REPEATED</code> repetition type.
+         *
+         * @return true if this node has the <code>REPEATED</code> repetition type
+         */
+        boolean isRepeated() {
+            return element.repetitionType != null && element.repetitionType == 2;
+        }
+    }
+
+    /**
+     * Build a tree of schema nodes from the specified depth-first list of schema elements.
+     *
+     * @param schema depth-first list of schema elements, must not be empty
+     * @return the root schema node
+     */
+    static Node tree(final List<SchemaElement> schema) {
+        int[] index = new int[] { 0 };
+        return node(schema, index);
+    }
+
+    private static Node node(final List<SchemaElement> schema, final int[] index) {
+        Node node = new Node(schema.get(index[0]++));
+        int numChildren = (node.element.numChildren == null) ? 0 : node.element.numChildren;
+        for (int i = 0; i < numChildren && index[0] < schema.size(); i++) {
+            node.children.add(node(schema, index));
+        }
+        return node;
+    }
+
+    /**
+     * Return the DuckDB type of the specified field, including repetition.
+     *
+     * @param node schema node for a field
+     * @return the DuckDB type of the specified field
+     */
+    static String duckdbType(final Node node) {
+        String type = elementType(node);
+        return node.isRepeated() ? type + "[]" : type;
+    }
+
+    private static String elementType(final Node node) {
+        if (!node.isGroup()) {
+            return primitiveType(node.element);
+        }
+        SchemaElement e = node.element;
+        int kind = (e.logicalType == null) ? 0 : e.logicalType.kind;
+        int convertedType = (e.convertedType == null) ? -1 : e.convertedType;
+
+        // LIST annotated group
+        if ((kind == 3 || convertedType == 3) && node.children.size() == 1) {
+            Node repeated = node.children.get(0);
+            if (repeated.isGroup() && repeated.children.size() == 1
+                && !"array".equals(repeated.element.name) && !(e.name + "_tuple").equals(repeated.element.name)) {
+                return duckdbType(repeated.children.get(0)) + "[]";
+            }
+            return elementType(repeated) + "[]";
+        }
+
+        // MAP annotated group
+        if ((kind == 2 || convertedType == 1 || convertedType == 2) && node.children.size() == 1
+            && node.children.get(0).children.size() == 2) {
+            Node keyValue = node.children.get(0);
+            return "MAP(" + duckdbType(keyValue.children.get(0)) + ", " + duckdbType(keyValue.children.get(1)) + ")";
+        }
+
+        // otherwise STRUCT
+        StringBuilder sb = new StringBuilder("STRUCT(");
+        for (int i = 0, size = node.children.size(); i < size; i++) {
+            Node child = node.children.get(i);
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(quoteIfNeeded(child.element.name)).append(" ").append(duckdbType(child));
+        }
+        sb.append(")");
+        return sb.toString();
+    }
+
+    private static String quoteIfNeeded(final String name) {
+        return name.matches("[a-z_][a-z0-9_]*") ? name : Sql.quoteIdentifier(name);
+    }
+
+    /**
+     * Return the DuckDB type of the specified primitive schema element, excluding repetition.
+     *
+     * @param e primitive schema element
+     * @return the DuckDB type of the specified primitive schema element
+     */
+    static String primitiveType(final SchemaElement e) {
+        LogicalType logicalType = e.logicalType;
+        int kind = (logicalType == null) ? 0 : logicalType.kind;
+        int convertedType = (e.convertedType == null) ? -1 : e.convertedType;
+
+        if (kind == 5 || convertedType == 5) {
+            return "DECIMAL(" + precision(e) + "," + scale(e) + ")";
+        }
+        if (kind == 1 || kind == 4 || convertedType == 0 || convertedType == 4) {
+            return "VARCHAR";
+        }
+        if (kind == 12 || convertedType == 19) {
+            return "JSON";
+        }
+        if (kind == 14) {
+            return "UUID";
+        }
+        if (kind == 15) {
+            return "FLOAT";
+        }
+        if (kind == 6 || convertedType == 6) {
+            return "DATE";
+        }
+        if (kind == 7) {
+            return Boolean.TRUE.equals(logicalType.isAdjustedToUTC) ? "TIME WITH TIME ZONE" : "TIME";
+        }
+        if (convertedType == 7 || convertedType == 8) {
+            return "TIME";
+        }
+        if (kind == 8) {
+            if (Boolean.TRUE.equals(logicalType.isAdjustedToUTC)) {
+                return "TIMESTAMP WITH TIME ZONE";
+            }
+            return (logicalType.unit != null && logicalType.unit == 3) ? "TIMESTAMP_NS" : "TIMESTAMP";
+        }
+        if (convertedType == 9 || convertedType == 10) {
+            return "TIMESTAMP";
+        }
+        if (kind == 10 && logicalType.bitWidth != null) {
+            boolean signed = !Boolean.FALSE.equals(logicalType.isSigned);
+            switch (logicalType.bitWidth) {
+            case 8:
+                return signed ? "TINYINT" : "UTINYINT";
+            case 16:
+                return signed ? "SMALLINT" : "USMALLINT";
+            case 32:
+                return signed ? "INTEGER" : "UINTEGER";
+            default:
+                return signed ? "BIGINT" : "UBIGINT";
+            }
+        }
+        switch (convertedType) {
+        case 11:
+            return "UTINYINT";
+        case 12:
+            return "USMALLINT";
+        case 13:
+            return "UINTEGER";
+        case 14:
+            return "UBIGINT";
+        case 15:
+            return "TINYINT";
+        case 16:
+            return "SMALLINT";
+        case 17:
+            return "INTEGER";
+        case 18:
+            return "BIGINT";
+        case 21:
+            return "INTERVAL";
+        default:
+            break;
+        }
+        switch ((e.type == null) ? -1 : e.type) {
+        case 0:
+            return "BOOLEAN";
+        case 1:
+            return "INTEGER";
+        case 2:
+            return "BIGINT";
+        case 3:
+            return "TIMESTAMP";
+        case 4:
+            return "FLOAT";
+        case 5:
+            return "DOUBLE";
+        default:
+            return "BLOB";
+        }
+    }
+
+    private static int precision(final SchemaElement e) {
+        if (e.logicalType != null && e.logicalType.precision != null) {
+            return e.logicalType.precision;
+        }
+        return (e.precision == null) ? 0 : e.precision;
+    }
+
+    private static int scale(final SchemaElement e) {
+        if (e.logicalType != null && e.logicalType.scale != null) {
+            return e.logicalType.scale;
+        }
+        return (e.scale == null) ? 0 : e.scale;
+    }
+
+    /**
+     * Return the specified logical type formatted as a string, or <code>null</code> if null.
+     *
+     * @param logicalType logical type, may be null
+     * @return the specified logical type formatted as a string, or <code>null</code> if null
+     */
+    static String format(final LogicalType logicalType) {
+        if (logicalType == null || logicalType.kind == 0) {
+            return null;
+        }
+        String name = ParquetFooter.name(ParquetFooter.LOGICAL_TYPES, logicalType.kind);
+        switch (logicalType.kind) {
+        case 5:
+            return name + "(scale=" + logicalType.scale + ", precision=" + logicalType.precision + ")";
+        case 7:
+        case 8:
+            String unit = (logicalType.unit == null) ? null : (logicalType.unit == 1 ? "MILLIS" : (logicalType.unit == 2 ? "MICROS" : "NANOS"));
+            return name + "(isAdjustedToUTC=" + logicalType.isAdjustedToUTC + ", unit=" + unit + ")";
+        case 10:
+            return name + "(bitWidth=" + logicalType.bitWidth + ", isSigned=" + logicalType.isSigned + ")";
+        default:
+            return name;
+        }
+    }
+
+    /**
+     * Return the specified statistics value formatted according to the specified schema element.
+     *
+     * @param value statistics value, may be null
+     * @param e primitive schema element for the column
+     * @return the specified statistics value formatted according to the specified schema element,
+     *    or <code>null</code> if value is null
+     */
+    static String format(final byte[] value, final SchemaElement e) {
+        if (value == null) {
+            return null;
+        }
+        LogicalType logicalType = e.logicalType;
+        int kind = (logicalType == null) ? 0 : logicalType.kind;
+        int convertedType = (e.convertedType == null) ? -1 : e.convertedType;
+        boolean decimal = (kind == 5 || convertedType == 5);
+        ByteBuffer buffer = ByteBuffer.wrap(value).order(ByteOrder.LITTLE_ENDIAN);
+
+        try {
+            switch ((e.type == null) ? -1 : e.type) {
+            case 0:
+                return String.valueOf(value.length > 0 && value[0] != 0);
+            case 1:
+                int i = buffer.getInt();
+                if (decimal) {
+                    return BigDecimal.valueOf(i, scale(e)).toPlainString();
+                }
+                if (kind == 6 || convertedType == 6) {
+                    return LocalDate.ofEpochDay(i).toString();
+                }
+                if ((kind == 7 && logicalType.unit != null && logicalType.unit == 1) || convertedType == 7) {
+                    return LocalTime.ofNanoOfDay(i * 1000000L).toString();
+                }
+                if ((kind == 10 && Boolean.FALSE.equals(logicalType.isSigned)) || (convertedType >= 11 && convertedType <= 13)) {
+                    return Integer.toUnsignedString(i);
+                }
+                return String.valueOf(i);
+            case 2:
+                long l = buffer.getLong();
+                if (decimal) {
+                    return BigDecimal.valueOf(l, scale(e)).toPlainString();
+                }
+                long nanosPerUnit = nanosPerUnit(e);
+                if (kind == 8 || convertedType == 9 || convertedType == 10) {
+                    return timestamp(Math.floorDiv(l, 1000000000L / nanosPerUnit), Math.floorMod(l, 1000000000L / nanosPerUnit) * nanosPerUnit);
+                }
+                if (kind == 7 || convertedType == 8) {
+                    return LocalTime.ofNanoOfDay(l * nanosPerUnit).toString();
+                }
+                if ((kind == 10 && Boolean.FALSE.equals(logicalType.isSigned)) || convertedType == 14) {
+                    return Long.toUnsignedString(l);
+                }
+                return String.valueOf(l);
+            case 3:
+                long nanosOfDay = buffer.getLong();
+                long julianDay = buffer.getInt() & 0xffffffffL;
+                long nanos = (julianDay - JULIAN_EPOCH_DAY) * NANOS_PER_DAY + nanosOfDay;
+                return timestamp(Math.floorDiv(nanos, 1000000000L), Math.floorMod(nanos, 1000000000L));
+            case 4:
+                return String.valueOf(buffer.getFloat());
+            case 5:
+                return String.valueOf(buffer.getDouble());
+            default:
+                if (decimal) {
+                    return new BigDecimal(new BigInteger(value), scale(e)).toPlainString();
+                }
+                if (kind == 1 || kind == 4 || kind == 12 || convertedType == 0 || convertedType == 4 || convertedType == 19) {
+                    return new String(value, StandardCharsets.UTF_8);
+                }
+                if (kind == 14 && value.length == 16) {
+                    ByteBuffer uuid = ByteBuffer.wrap(value);
+                    return new UUID(uuid.getLong(), uuid.getLong()).toString();
+                }
+                return blob(value);
+            }
+        }
+        catch (RuntimeException ex) {
+            // truncated or otherwise unexpected statistics value
+            return blob(value);
+        }
+    }
+
+    private static long nanosPerUnit(final SchemaElement e) {
+        if (e.logicalType != null && e.logicalType.unit != null) {
+            return e.logicalType.unit == 1 ? 1000000L : (e.logicalType.unit == 2 ? 1000L : 1L);
+        }
+        return (e.convertedType != null && (e.convertedType == 7 || e.convertedType == 9)) ? 1000000L : 1000L;
+    }
+
+    private static String timestamp(final long epochSecond, final long nanos) {
+        return LocalDateTime.ofEpochSecond(epochSecond, (int) nanos, ZoneOffset.UTC).toString().replace('T', ' ');
+    }
+
+    /**
+     * Format the specified bytes as DuckDB casts a <code>BLOB</code> to <code>VARCHAR</code>,
+     * printable ASCII characters other than backslash and quotes as is, and other bytes as
+     * <code>\xHH</code> escapes.
+     *
+     * @param value bytes to format
+     * @return the specified bytes formatted as DuckDB casts a <code>BLOB</code> to <code>VARCHAR</code>
+     */
+    static String blob(final byte[] value) {
+        StringBuilder sb = new StringBuilder(value.length);
+        for (byte b : value) {
+            int c = b & 0xff;
+            if (c >= 32 && c < 127 && c != '\\' && c != '\'' && c != '"') {
+                sb.append((char) c);
+            }
+            else {
+                sb.append("\\x").append(HEX[c >>> 4]).append(HEX[c & 0x0f]);
+            }
+        }
+        return sb.toString();
+    }
+}
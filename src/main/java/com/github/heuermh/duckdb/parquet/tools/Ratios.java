@@ -15,22 +15,20 @@
  */
 package com.github.heuermh.duckdb.parquet.tools;
 
-import java.io.File;
-
 import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
-import java.sql.Statement;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import java.util.concurrent.Callable;
 
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
 
 /**
  * Show data compression ratios from a Parquet file as loaded by DuckDB.
@@ -38,61 +36,56 @@ import picocli.CommandLine.Parameters;
 @Command(name = "ratios")
 public final class Ratios implements Callable<Integer> {
 
-    @Option(names = { "-i", "--input-parquet-file" }, required = true)
-    private File inputParquetFile = null;
+    @Option(names = { "-i", "--input-parquet-file" }, arity = "1..*", required = true, descriptionKey = "input-parquet-files")
+    private List<String> inputPaths;
+
+    @Mixin
+    private SessionOptions sessionOptions;
 
-    @Option(names = { "-u", "--url" })
-    private String url = "jdbc:duckdb:";
+    @Option(names = { "--footer-only" })
+    private boolean footerOnly;
 
-    @Option(names = { "--skip-header" })
-    private boolean skipHeader;
+    @Mixin
+    private FooterCache footerCache;
 
-    /** Meta SQL statement. */
-    private static final String META_SQL = "CREATE TABLE m AS SELECT * from parquet_metadata('%s')";
+    @Mixin
+    private OutputOptions outputOptions;
+
+    @Spec
+    private CommandSpec spec;
 
     /** Ratios SQL query. */
-    private static final String RATIOS_SQL = "SELECT column_id, path_in_schema, type, sum(num_values) AS n, sum(total_uncompressed_size) AS uncompressed, sum(total_compressed_size) AS compressed, (uncompressed/compressed) AS ratio, ((1 - (compressed/uncompressed)) * 100.0) AS savings FROM m GROUP BY column_id, path_in_schema, type ORDER BY column_id ASC";
+    private static final String RATIOS_SQL = "SELECT file_name, column_id, path_in_schema, type, sum(num_values) AS n, sum(total_uncompressed_size) AS uncompressed, sum(total_compressed_size) AS compressed, (uncompressed/compressed) AS ratio, ((1 - (compressed/uncompressed)) * 100.0) AS savings FROM %s GROUP BY file_name, column_id, path_in_schema, type ORDER BY file_name ASC, column_id ASC";
 
     @Override
     public Integer call() throws Exception {
+        List<String> inputParquetFiles = ParquetFiles.expand(inputPaths);
+        if (inputParquetFiles.isEmpty()) {
+            throw new ParameterException(spec.commandLine(), "No input Parquet files found in " + inputPaths);
+        }
+        outputOptions.validate(spec.commandLine(), !footerOnly);
+        sessionOptions.validate(spec.commandLine());
+        footerCache.validate(spec.commandLine());
+
+        // read Parquet file footers without DuckDB
+        if (footerOnly) {
+            List<ParquetFooter.FileMetaData> footers = FooterTables.read(inputParquetFiles);
+            List<String[]> rows = new ArrayList<String[]>();
+            for (int i = 0, size = inputParquetFiles.size(); i < size; i++) {
+                rows.addAll(FooterTables.ratios(inputParquetFiles.get(i), footers.get(i)));
+            }
+            try (TabularOutput output = new TabularOutput(outputOptions)) {
+                output.write(FooterTables.RATIOS_HEADERS, FooterTables.RATIOS_KINDS, rows);
+            }
+            return 0;
+        }
 
         // connect to DuckDB
-        Class.forName("org.duckdb.DuckDBDriver");
-        try (Connection connection = DriverManager.getConnection(url)) {
-
-            try (Statement create = connection.createStatement()) {
-
-                // create parquet metadata table
-                create.execute(String.format(META_SQL, inputParquetFile.toString()));
-
-                // query ratios grouping by to sum over row groups
-                try (ResultSet resultSet = create.executeQuery(RATIOS_SQL)) {
-                    ResultSetMetaData metaData = resultSet.getMetaData();
-                    int columns = metaData.getColumnCount() + 1;
-
-                    // print header
-                    if (!skipHeader) {
-                        for (int i = 1; i < columns; i++) {
-                            System.out.print(metaData.getColumnLabel(i));
-                            if (i < (columns - 1)) {
-                                System.out.print("\t");
-                            }
-                        }
-                        System.out.print("\n");
-                    }
-
-                    // print rows
-                    while (resultSet.next()) {
-                        for (int i = 1; i < columns; i++) {
-                            Object value = resultSet.getObject(i);
-                            System.out.print(value == null ? "" : value.toString());
-                            if (i < (columns - 1)) {
-                                System.out.print("\t");
-                            }
-                        }
-                        System.out.print("\n");
-                    }
-                }
+        try (Connection connection = sessionOptions.open()) {
+
+            // query ratios grouping by to sum over row groups, streamed from parquet_metadata without a temp table
+            try (TabularOutput output = new TabularOutput(outputOptions)) {
+                output.write(connection, String.format(RATIOS_SQL, footerCache.table(connection, FooterCache.METADATA, "parquet_metadata", inputParquetFiles)));
             }
         }
         return 0;
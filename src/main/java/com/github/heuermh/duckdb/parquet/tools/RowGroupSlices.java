@@ -0,0 +1,202 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Row group slices of a Parquet file, as contiguous ranges of file row numbers on row group
+ * boundaries, processed concurrently on duplicated connections with results merged in order.
+ */
+final class RowGroupSlices {
+
+    /** Row groups SQL query, reads only the Parquet file footer. */
+    private static final String ROW_GROUPS_SQL = "SELECT row_group_id, any_value(row_group_num_rows) FROM parquet_metadata('%s') GROUP BY row_group_id ORDER BY row_group_id";
+
+    /** Slice SQL query, pushes the file row number filter into the Parquet scan so that other row groups are skipped. */
+    private static final String SLICE_SQL = "SELECT %s from read_parquet('%s', file_row_number = true) WHERE file_row_number >= %d AND file_row_number < %d";
+
+    /**
+     * Private no-arg constructor.
+     */
+    private RowGroupSlices() {
+        // empty
+    }
+
+    /**
+     * Function over a slice.
+     *
+     * @param <T> result type
+     */
+    interface SliceFunction<T> {
+
+        /**
+         * Apply this function to the specified slice.
+         *
+         * @param connection connection, duplicated for this slice
+         * @param index slice index
+         * @param slice slice, as a range of file row numbers
+         * @return the result
+         * @throws Exception if an error occurs
+         */
+        T apply(Connection connection, int index, long[] slice) throws Exception;
+    }
+
+    /**
+     * Return the row group row counts of the specified Parquet file, in order.
+     *
+     * @param connection connection
+     * @param parquetFile Parquet file
+     * @return the row group row counts of the specified Parquet file, in order
+     * @throws SQLException if a database access error occurs
+     */
+    static List<Long> rowGroups(final Connection connection, final String parquetFile) throws SQLException {
+        List<Long> rowGroups = new ArrayList<Long>();
+        try (Statement query = connection.createStatement();
+             ResultSet resultSet = query.executeQuery(String.format(ROW_GROUPS_SQL, parquetFile))) {
+            while (resultSet.next()) {
+                rowGroups.add(resultSet.getLong(2));
+            }
+        }
+        return rowGroups;
+    }
+
+    /**
+     * Split the specified Parquet file into slices of at least the specified number of rows,
+     * rounded up to whole row groups.
+     *
+     * @param connection connection
+     * @param parquetFile Parquet file
+     * @param rowsPerSlice rows per slice
+     * @return at least one slice
+     * @throws SQLException if a database access error occurs
+     */
+    static List<long[]> byRows(final Connection connection, final String parquetFile, final long rowsPerSlice) throws SQLException {
+        List<long[]> slices = new ArrayList<long[]>();
+        long start = 0L;
+        long end = 0L;
+        for (long rows : rowGroups(connection, parquetFile)) {
+            end += rows;
+            if ((end - start) >= rowsPerSlice) {
+                slices.add(new long[] { start, end });
+                start = end;
+            }
+        }
+        if (end > start || slices.isEmpty()) {
+            slices.add(new long[] { start, end });
+        }
+        return slices;
+    }
+
+    /**
+     * Split the specified Parquet file into up to the specified number of slices of whole
+     * row groups, balanced by row count.
+     *
+     * @param connection connection
+     * @param parquetFile Parquet file
+     * @param count maximum number of slices
+     * @return at least one slice
+     * @throws SQLException if a database access error occurs
+     */
+    static List<long[]> byCount(final Connection connection, final String parquetFile, final int count) throws SQLException {
+        List<Long> rowGroups = rowGroups(connection, parquetFile);
+        long total = 0L;
+        for (long rows : rowGroups) {
+            total += rows;
+        }
+        List<long[]> slices = new ArrayList<long[]>(count);
+        long start = 0L;
+        long end = 0L;
+        for (long rows : rowGroups) {
+            end += rows;
+            // close the slice once it reaches its share of the total
+            if (slices.size() < count - 1 && end >= (total * (slices.size() + 1)) / count) {
+                slices.add(new long[] { start, end });
+                start = end;
+            }
+        }
+        if (end > start || slices.isEmpty()) {
+            slices.add(new long[] { start, end });
+        }
+        return slices;
+    }
+
+    /**
+     * Return a select SQL query for the specified slice of the specified Parquet file.
+     *
+     * @param parquetFile Parquet file
+     * @param slice slice, as a range of file row numbers
+     * @param columns select list, e.g. <code>* EXCLUDE (file_row_number)</code>
+     * @return a select SQL query for the specified slice of the specified Parquet file
+     */
+    static String select(final String parquetFile, final long[] slice, final String columns) {
+        return String.format(SLICE_SQL, columns, parquetFile, slice[0], slice[1]);
+    }
+
+    /**
+     * Apply the specified function to each of the specified slices concurrently, each on its
+     * own connection duplicated from the specified connection, returning results in slice order.
+     *
+     * @param <T> result type
+     * @param connection connection to duplicate
+     * @param slices slices
+     * @param workers maximum number of concurrent workers
+     * @param function function to apply
+     * @return results in slice order
+     * @throws Exception if an error occurs
+     */
+    static <T> List<T> map(final Connection connection, final List<long[]> slices, final int workers, final SliceFunction<T> function) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(workers, slices.size())));
+        try {
+            List<Future<T>> futures = new ArrayList<Future<T>>(slices.size());
+            for (int i = 0, size = slices.size(); i < size; i++) {
+                int index = i;
+                futures.add(executorService.submit(() -> {
+                            try (Connection duplicate = Connections.duplicate(connection)) {
+                                return function.apply(duplicate, index, slices.get(index));
+                            }
+                        }));
+            }
+            List<T> results = new ArrayList<T>(futures.size());
+            for (Future<T> future : futures) {
+                try {
+                    results.add(future.get());
+                }
+                catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+            return results;
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+}
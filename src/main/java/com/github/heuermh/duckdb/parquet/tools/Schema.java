@@ -15,22 +15,20 @@
  */
 package com.github.heuermh.duckdb.parquet.tools;
 
-import java.io.File;
-
 import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
-import java.sql.Statement;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import java.util.concurrent.Callable;
 
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
 
 /**
  * Query the internal schema of a Parquet file as loaded by DuckDB.
@@ -38,55 +36,56 @@ import picocli.CommandLine.Parameters;
 @Command(name = "schema")
 public final class Schema implements Callable<Integer> {
 
-    @Option(names = { "-i", "--input-parquet-file" }, required = true)
-    private File inputParquetFile = null;
+    @Option(names = { "-i", "--input-parquet-file" }, arity = "1..*", required = true, descriptionKey = "input-parquet-files")
+    private List<String> inputPaths;
+
+    @Mixin
+    private SessionOptions sessionOptions;
+
+    @Option(names = { "--footer-only" })
+    private boolean footerOnly;
 
-    @Option(names = { "-u", "--url" })
-    private String url = "jdbc:duckdb:";
+    @Mixin
+    private FooterCache footerCache;
 
-    @Option(names = { "--skip-header" })
-    private boolean skipHeader;
+    @Mixin
+    private OutputOptions outputOptions;
+
+    @Spec
+    private CommandSpec spec;
 
     /** Schema SQL query. */
-    private static final String SCHEMA_SQL = "SELECT * from parquet_schema('%s')";
+    private static final String SCHEMA_SQL = "SELECT * from %s";
 
     @Override
     public Integer call() throws Exception {
+        List<String> inputParquetFiles = ParquetFiles.expand(inputPaths);
+        if (inputParquetFiles.isEmpty()) {
+            throw new ParameterException(spec.commandLine(), "No input Parquet files found in " + inputPaths);
+        }
+        outputOptions.validate(spec.commandLine(), !footerOnly);
+        sessionOptions.validate(spec.commandLine());
+        footerCache.validate(spec.commandLine());
+
+        // read Parquet file footers without DuckDB
+        if (footerOnly) {
+            List<ParquetFooter.FileMetaData> footers = FooterTables.read(inputParquetFiles);
+            List<String[]> rows = new ArrayList<String[]>();
+            for (int i = 0, size = inputParquetFiles.size(); i < size; i++) {
+                rows.addAll(FooterTables.schema(inputParquetFiles.get(i), footers.get(i)));
+            }
+            try (TabularOutput output = new TabularOutput(outputOptions)) {
+                output.write(FooterTables.SCHEMA_HEADERS, FooterTables.SCHEMA_KINDS, rows);
+            }
+            return 0;
+        }
 
         // connect to DuckDB
-        Class.forName("org.duckdb.DuckDBDriver");
-        try (Connection connection = DriverManager.getConnection(url)) {
-
-            // schema Parquet file columns as loaded by DuckDB
-            try (Statement create = connection.createStatement()) {
-                String sql = String.format(SCHEMA_SQL, inputParquetFile.toString());
-                try (ResultSet resultSet = create.executeQuery(sql)) {
-                    ResultSetMetaData metaData = resultSet.getMetaData();
-                    int columns = metaData.getColumnCount() + 1;
-
-                    // print header
-                    if (!skipHeader) {
-                        for (int i = 1; i < columns; i++) {
-                            System.out.print(metaData.getColumnLabel(i));
-                            if (i < (columns - 1)) {
-                                System.out.print("\t");
-                            }
-                        }
-                        System.out.print("\n");
-                    }
-
-                    // print rows
-                    while (resultSet.next()) {
-                        for (int i = 1; i < columns; i++) {
-                            Object value = resultSet.getObject(i);
-                            System.out.print(value == null ? "" : value.toString());
-                            if (i < (columns - 1)) {
-                                System.out.print("\t");
-                            }
-                        }
-                        System.out.print("\n");
-                    }
-                }
+        try (Connection connection = sessionOptions.open()) {
+
+            // schema Parquet file columns as loaded by DuckDB, DuckDB reads all footers in parallel
+            try (TabularOutput output = new TabularOutput(outputOptions)) {
+                output.write(connection, String.format(SCHEMA_SQL, footerCache.table(connection, FooterCache.SCHEMA, "parquet_schema", inputParquetFiles)));
             }
         }
         return 0;
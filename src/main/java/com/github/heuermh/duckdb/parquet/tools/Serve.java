@@ -0,0 +1,374 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
+import java.net.InetSocketAddress;
+
+import java.nio.charset.StandardCharsets;
+
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.ArgSpec;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.ParseResult;
+import picocli.CommandLine.Spec;
+
+/**
+ * Serve commands from a long-running process over HTTP on a local port.  Commands read and
+ * write local files with the permissions of the server, so every request must present the
+ * random token printed at startup as a bearer token.
+ */
+@Command(name = "serve")
+public final class Serve implements Callable<Integer> {
+
+    @Option(names = { "--host" })
+    private String host = "127.0.0.1";
+
+    @Option(names = { "-p", "--port" })
+    private int port = 8347;
+
+    @Mixin
+    private SessionOptions sessionOptions;
+
+    @Spec
+    private CommandSpec spec;
+
+    /** Command line for requests, reused across requests. */
+    private picocli.CommandLine commandLine;
+
+    /** Expected authorization header, with the random token for this server. */
+    private byte[] authorization;
+
+    /** Exit code response header. */
+    static final String EXIT_CODE = "X-Exit-Code";
+
+    /** HTTP OK. */
+    private static final int OK = 200;
+
+    /** HTTP bad request. */
+    private static final int BAD_REQUEST = 400;
+
+    /** HTTP unauthorized. */
+    private static final int UNAUTHORIZED = 401;
+
+    /** HTTP method not allowed. */
+    private static final int METHOD_NOT_ALLOWED = 405;
+
+    /** HTTP internal server error. */
+    private static final int INTERNAL_SERVER_ERROR = 500;
+
+    /** Size of stdout buffered before the response is streamed. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Number of random bytes in a token. */
+    private static final int TOKEN_BYTES = 32;
+
+
+    @Override
+    public Integer call() throws Exception {
+
+        // keep one warm DuckDB database open, shared by all requests
+        sessionOptions.validate(spec.commandLine());
+        sessionOptions.share();
+        commandLine = new CommandLine(new Tools());
+        String token = token();
+        authorization = ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext("/", this::handle);
+
+        // requests run one at a time, since commands write to System.out
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        server.setExecutor(executorService);
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    server.stop(0);
+                    executorService.shutdownNow();
+                    Connections.closeShared();
+                    stopped.countDown();
+        }));
+        server.start();
+        System.err.println("Serving duckdb-parquet-tools on http://" + host + ":" + server.getAddress().getPort() + "/");
+        System.err.println("Token: " + token);
+        stopped.await();
+        return 0;
+    }
+
+    /**
+     * Handle the specified request, with command line arguments one per line in
+     * the request body.  Output up to the buffer size is sent with a status for the
+     * exit code, longer output is streamed with chunked transfer encoding.
+     *
+     * @param exchange HTTP exchange
+     * @throws IOException if an I/O error occurs
+     */
+    private void handle(final HttpExchange exchange) throws IOException {
+        boolean aborted = false;
+        try {
+            if (!authorized(exchange)) {
+                respond(exchange, UNAUTHORIZED, -1, new byte[0]);
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, METHOD_NOT_ALLOWED, -1, new byte[0]);
+                return;
+            }
+            List<String> args = new ArrayList<String>();
+            try (InputStream inputStream = exchange.getRequestBody()) {
+                for (String line : new String(inputStream.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                    if (!line.isEmpty()) {
+                        args.add(line.endsWith("\r") ? line.substring(0, line.length() - 1) : line);
+                    }
+                }
+            }
+
+            if (isServe(args)) {
+                respond(exchange, BAD_REQUEST, 2, "serve cannot be run from a request to a running server\n".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            ResponseStream out = new ResponseStream(exchange);
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            PrintStream stdout = System.out;
+            PrintStream stderr = System.err;
+            int exitCode;
+            try (PrintStream outStream = new PrintStream(out, true, "UTF-8"); PrintStream errStream = new PrintStream(err, true, "UTF-8")) {
+                System.setOut(outStream);
+                System.setErr(errStream);
+                commandLine.setOut(new PrintWriter(new OutputStreamWriter(outStream, StandardCharsets.UTF_8), true));
+                commandLine.setErr(new PrintWriter(new OutputStreamWriter(errStream, StandardCharsets.UTF_8), true));
+                exitCode = commandLine.execute(args.toArray(new String[0]));
+                outStream.flush();
+                errStream.flush();
+            }
+            finally {
+                System.setOut(stdout);
+                System.setErr(stderr);
+
+                // --profile may be set before a request fails to parse, do not carry it over to the next request
+                Metrics.disable();
+            }
+
+            if (out.isStreaming()) {
+                if (exitCode != 0) {
+                    // the OK status has already been sent, so abort the response without its last chunk,
+                    // for the client to see an incomplete transfer rather than truncated output
+                    stderr.write(err.toByteArray());
+                    aborted = true;
+                    throw new IOException("Command failed with exit code " + exitCode + " after streaming its output, aborting response");
+                }
+            }
+            // stdout on success, stderr otherwise
+            else if (exitCode == 0) {
+                respond(exchange, OK, exitCode, out.toByteArray());
+            }
+            else {
+                respond(exchange, exitCode == 2 ? BAD_REQUEST : INTERNAL_SERVER_ERROR, exitCode, err.toByteArray());
+            }
+        }
+        finally {
+            if (!aborted) {
+                exchange.close();
+            }
+        }
+    }
+
+    /**
+     * Return true if the specified command line arguments run <code>serve</code> or
+     * <code>help serve</code>, which would block the single request thread.
+     *
+     * @param args command line arguments
+     * @return true if the specified command line arguments run <code>serve</code> or
+     *    <code>help serve</code>
+     */
+    private boolean isServe(final List<String> args) {
+        try {
+            ParseResult parseResult = commandLine.parseArgs(args.toArray(new String[0]));
+            while (parseResult.hasSubcommand()) {
+                parseResult = parseResult.subcommand();
+                String name = parseResult.commandSpec().name();
+                if ("serve".equals(name)) {
+                    return true;
+                }
+                if ("help".equals(name)) {
+                    for (ArgSpec argSpec : parseResult.matchedArgs()) {
+                        if (argSpec.stringValues().contains("serve")) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+        catch (ParameterException e) {
+            // let execute report the parse error
+            return false;
+        }
+    }
+
+    /**
+     * Return true if the specified request presents the token for this server.
+     *
+     * @param exchange HTTP exchange
+     * @return true if the specified request presents the token for this server
+     */
+    private boolean authorized(final HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && MessageDigest.isEqual(authorization, header.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Return a new random token.
+     *
+     * @return a new random token
+     */
+    private static String token() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Respond to the specified request with the specified status, exit code, and body.
+     *
+     * @param exchange HTTP exchange
+     * @param status HTTP status
+     * @param exitCode exit code, or -1 if no command was run
+     * @param body response body
+     * @throws IOException if an I/O error occurs
+     */
+    private static void respond(final HttpExchange exchange, final int status, final int exitCode, final byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.getResponseHeaders().set(EXIT_CODE, String.valueOf(exitCode));
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        }
+    }
+
+    /**
+     * Stdout for a request, buffered up to the buffer size so that short responses have a status
+     * for the exit code, then streamed with chunked transfer encoding so that long responses are
+     * not held in memory.
+     */
+    private static final class ResponseStream extends OutputStream {
+        /** HTTP exchange. */
+        private final HttpExchange exchange;
+
+        /** Buffered output, until streaming. */
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        /** Response body, once streaming. */
+        private OutputStream body;
+
+
+        /**
+         * Create a new response stream for the specified request.
+         *
+         * @param exchange HTTP exchange
+         */
+        ResponseStream(final HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+
+        /**
+         * Return true if the response has been sent with an OK status and is streaming.
+         *
+         * @return true if the response has been sent with an OK status and is streaming
+         */
+        boolean isStreaming() {
+            return body != null;
+        }
+
+        /**
+         * Return the buffered output, if not streaming.
+         *
+         * @return the buffered output, if not streaming
+         */
+        byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (body == null) {
+                if (buffer.size() + len <= BUFFER_SIZE) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                // exit code is not known yet, send OK and stream the rest
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                exchange.sendResponseHeaders(OK, 0);
+                body = new BufferedOutputStream(exchange.getResponseBody(), BUFFER_SIZE);
+                buffer.writeTo(body);
+                buffer.reset();
+            }
+            body.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (body != null) {
+                body.flush();
+            }
+        }
+    }
+
+    /**
+     * Main.
+     *
+     * @param args command line args
+     */
+    public static void main(final String[] args) {
+        System.exit(new CommandLine(new Serve()).execute(args));
+    }
+}
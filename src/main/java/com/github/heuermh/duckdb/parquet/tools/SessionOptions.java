@@ -0,0 +1,197 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.File;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import java.util.Properties;
+
+import java.util.regex.Pattern;
+
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+
+/**
+ * DuckDB session options, shared by commands that connect to DuckDB.
+ */
+final class SessionOptions {
+
+    @Option(names = { "-u", "--url" })
+    private String url = "jdbc:duckdb:";
+
+    @Option(names = { "--threads" })
+    private Integer threads;
+
+    @Option(names = { "--memory-limit" })
+    private String memoryLimit;
+
+    @Option(names = { "--temp-dir" })
+    private File tempDir;
+
+    @Option(names = { "--preserve-order" }, negatable = true)
+    private Boolean preserveOrder;
+
+    @Option(names = { "--object-cache" })
+    private boolean objectCache;
+
+    @Option(names = { "--print-settings" })
+    private boolean printSettings;
+
+    @Option(names = { "--profiling-output" })
+    private File profilingOutput;
+
+    /** Default preserve insertion order, if any. */
+    private Boolean defaultPreserveOrder;
+
+    /** Size in bytes, e.g. <code>4GB</code>, or a percentage of system memory, e.g. <code>50%</code>. */
+    private static final Pattern MEMORY = Pattern.compile("^([0-9]+\\s*([KMGT]i?)?B?|[0-9]+(\\.[0-9]+)?%)$", Pattern.CASE_INSENSITIVE);
+
+    /** Settings SQL query. */
+    private static final String SETTINGS_SQL = "SELECT name, value FROM duckdb_settings() WHERE name IN ('threads', 'memory_limit', 'temp_directory', 'preserve_insertion_order', 'enable_object_cache') ORDER BY name";
+
+
+    /**
+     * Validate these session options.
+     *
+     * @param commandLine command line, for reporting parameter exceptions
+     * @throws ParameterException if any of these session options are not valid
+     */
+    void validate(final picocli.CommandLine commandLine) {
+        if (threads != null && threads < 1) {
+            throw new ParameterException(commandLine, "--threads must be greater than zero, was " + threads);
+        }
+        if (memoryLimit != null && !MEMORY.matcher(memoryLimit.trim()).matches()) {
+            throw new ParameterException(commandLine, "--memory-limit must be a size in bytes or a percentage, e.g. 4GB or 50%, was " + memoryLimit);
+        }
+        if (isShared() && (threads != null || memoryLimit != null || tempDir != null || preserveOrder != null || objectCache)) {
+            throw new ParameterException(commandLine, "--threads, --memory-limit, --temp-dir, --[no-]preserve-order, and --object-cache configure the shared database, specify them for serve instead");
+        }
+    }
+
+    /**
+     * Return the JDBC connection URL.
+     *
+     * @return the JDBC connection URL
+     */
+    String url() {
+        return url;
+    }
+
+    /**
+     * Return true if a shared DuckDB database is open for the JDBC connection URL.
+     *
+     * @return true if a shared DuckDB database is open for the JDBC connection URL
+     */
+    boolean isShared() {
+        return Connections.isShared(url);
+    }
+
+    /**
+     * Preserve insertion order as specified, unless <code>--[no-]preserve-order</code>
+     * has already been specified.
+     *
+     * @param preserveOrder default preserve insertion order
+     */
+    void defaultPreserveOrder(final boolean preserveOrder) {
+        this.defaultPreserveOrder = preserveOrder;
+    }
+
+    /**
+     * Return these session options as DuckDB settings, for opening a new database.
+     *
+     * @return these session options as DuckDB settings
+     */
+    Properties properties() {
+        Properties properties = new Properties();
+        if (threads != null) {
+            properties.setProperty("threads", String.valueOf(threads));
+        }
+        if (memoryLimit != null) {
+            properties.setProperty("memory_limit", memoryLimit.trim());
+        }
+        if (tempDir != null) {
+            properties.setProperty("temp_directory", tempDir.toString());
+        }
+        Boolean preserve = (preserveOrder == null) ? defaultPreserveOrder : preserveOrder;
+        if (preserve != null) {
+            properties.setProperty("preserve_insertion_order", String.valueOf(preserve));
+        }
+        if (objectCache) {
+            properties.setProperty("enable_object_cache", "true");
+        }
+        return properties;
+    }
+
+    /**
+     * Open a new connection configured with these session options.  If a shared
+     * database is open for the JDBC connection URL, the new connection is duplicated
+     * from it and keeps the settings the shared database was opened with.
+     *
+     * @return a new connection configured with these session options
+     * @throws ClassNotFoundException if the DuckDB JDBC driver is not found
+     * @throws SQLException if a database access error occurs
+     */
+    Connection open() throws ClassNotFoundException, SQLException {
+        Connection connection = Connections.open(url, properties());
+        try {
+            configure(connection);
+            return connection;
+        }
+        catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Open and keep a shared DuckDB database configured with these session options.
+     *
+     * @throws ClassNotFoundException if the DuckDB JDBC driver is not found
+     * @throws SQLException if a database access error occurs
+     */
+    void share() throws ClassNotFoundException, SQLException {
+        Connections.share(url, properties());
+    }
+
+    /**
+     * Print settings to stderr and enable profiling on the specified connection and the
+     * connections duplicated from it, if specified or if metrics are enabled.
+     *
+     * @param connection connection
+     * @throws SQLException if a database access error occurs
+     */
+    private void configure(final Connection connection) throws SQLException {
+        File profile = (profilingOutput == null) ? Metrics.duckdbProfile() : profilingOutput;
+        if (!printSettings && profile == null) {
+            return;
+        }
+        if (printSettings) {
+            try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(SETTINGS_SQL)) {
+                while (resultSet.next()) {
+                    System.err.println(resultSet.getString(1) + "\t" + resultSet.getString(2));
+                }
+            }
+        }
+        if (profile != null) {
+            Connections.profile(connection, profile);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.util.List;
+
+import java.util.stream.Collectors;
+
+/**
+ * SQL utility methods.
+ */
+final class Sql {
+
+    /**
+     * Private no-arg constructor.
+     */
+    private Sql() {
+        // empty
+    }
+
+    /**
+     * Quote the specified identifier, e.g. a column name.
+     *
+     * @param identifier identifier to quote
+     * @return the specified identifier quoted
+     */
+    static String quoteIdentifier(final String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Quote and join the specified identifiers with commas.
+     *
+     * @param identifiers identifiers to quote and join
+     * @return the specified identifiers quoted and joined with commas
+     */
+    static String quoteIdentifiers(final List<String> identifiers) {
+        return identifiers.stream().map(Sql::quoteIdentifier).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Quote and join the specified string literals with commas.
+     *
+     * @param literals string literals to quote and join
+     * @return the specified string literals quoted and joined with commas
+     */
+    static String quoteLiterals(final List<String> literals) {
+        return literals.stream().map(Sql::quoteLiteral).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Quote the specified string literal.
+     *
+     * @param literal string literal to quote
+     * @return the specified string literal quoted
+     */
+    static String quoteLiteral(final String literal) {
+        return "'" + literal.replace("'", "''") + "'";
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.Callable;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
+
+/**
+ * Report per-column row group and page statistics, with metrics for how effectively
+ * min/max statistics can prune row groups.
+ */
+@Command(name = "stats")
+public final class Stats implements Callable<Integer> {
+
+    @Option(names = { "-i", "--input-parquet-file" }, arity = "1..*", required = true, descriptionKey = "input-parquet-files")
+    private List<String> inputPaths;
+
+    @Mixin
+    private SessionOptions sessionOptions;
+
+    @Option(names = { "--skip-pages" })
+    private boolean skipPages;
+
+    @Mixin
+    private OutputOptions outputOptions;
+
+    @Spec
+    private CommandSpec spec;
+
+    /** Column chunks SQL query, one row per column chunk streamed from parquet_metadata. */
+    private static final String CHUNKS_SQL = "SELECT file_name, column_id, path_in_schema, type, row_group_id, num_values, stats_null_count,"
+        + " coalesce(stats_min_value, stats_min) AS lo, coalesce(stats_max_value, stats_max) AS hi, dictionary_page_offset, data_page_offset, total_compressed_size"
+        + " FROM parquet_metadata([%s]) ORDER BY file_name, column_id, row_group_id";
+
+    /** Stats headers. */
+    static final String[] HEADERS = { "file_name", "column_id", "path_in_schema", "type", "row_groups", "num_values", "null_fraction", "stats_row_groups",
+                                      "overlap", "data_pages", "dictionary_pages", "dictionary_encoded_share", "plain_encoded_share" };
+
+    @Override
+    public Integer call() throws Exception {
+        List<String> inputParquetFiles = ParquetFiles.expand(inputPaths);
+        if (inputParquetFiles.isEmpty()) {
+            throw new ParameterException(spec.commandLine(), "No input Parquet files found in " + inputPaths);
+        }
+        outputOptions.validate(spec.commandLine(), false);
+        sessionOptions.validate(spec.commandLine());
+
+        // stream column chunks from parquet_metadata, aggregating per file and column
+        Map<String, List<ColumnStats>> columnStatsByFile = new LinkedHashMap<String, List<ColumnStats>>();
+        try (Connection connection = sessionOptions.open()) {
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet resultSet = statement.executeQuery(String.format(CHUNKS_SQL, Sql.quoteLiterals(inputParquetFiles)))) {
+                    ColumnStats columnStats = null;
+                    while (resultSet.next()) {
+                        String fileName = resultSet.getString("file_name");
+                        long columnId = resultSet.getLong("column_id");
+                        if (columnStats == null || !columnStats.fileName.equals(fileName) || columnStats.columnId != columnId) {
+                            columnStats = new ColumnStats(fileName, columnId, resultSet.getString("path_in_schema"), resultSet.getString("type"));
+                            columnStatsByFile.computeIfAbsent(fileName, f -> new ArrayList<ColumnStats>()).add(columnStats);
+                        }
+                        columnStats.add(resultSet);
+                    }
+                }
+            }
+        }
+
+        // read page headers of local files in parallel
+        if (!skipPages) {
+            try {
+                columnStatsByFile.entrySet().parallelStream()
+                    .filter(e -> !ParquetFiles.isRemote(e.getKey()))
+                    .forEach(e -> {
+                            try {
+                                readPages(e.getKey(), e.getValue());
+                            }
+                            catch (IOException ex) {
+                                throw new UncheckedIOException(ex);
+                            }
+                        });
+            }
+            catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        List<String[]> rows = new ArrayList<String[]>();
+        for (List<ColumnStats> columnStats : columnStatsByFile.values()) {
+            for (ColumnStats c : columnStats) {
+                rows.add(c.toRow());
+            }
+        }
+        try (TabularOutput output = new TabularOutput(outputOptions)) {
+            output.write(HEADERS, rows);
+        }
+        return 0;
+    }
+
+    /**
+     * Read the page headers of every column chunk of the specified local Parquet file.
+     *
+     * @param parquetFile local Parquet file
+     * @param columnStats column stats for the specified Parquet file
+     * @throws IOException if an I/O error occurs
+     */
+    private static void readPages(final String parquetFile, final List<ColumnStats> columnStats) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(parquetFile), StandardOpenOption.READ)) {
+            for (ColumnStats c : columnStats) {
+                c.pagesRead = true;
+                for (long[] chunk : c.chunks) {
+                    for (ParquetPages.PageHeader pageHeader : ParquetPages.read(channel, chunk[0], chunk[1])) {
+                        if (pageHeader.type == ParquetPages.DICTIONARY_PAGE) {
+                            c.dictionaryPages++;
+                        }
+                        else if (pageHeader.isDataPage()) {
+                            c.dataPages++;
+                            if (pageHeader.isDictionaryEncoded()) {
+                                c.dictionaryEncodedPages++;
+                            }
+                            else if (pageHeader.encoding != null && pageHeader.encoding == ParquetPages.PLAIN) {
+                                c.plainEncodedPages++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the specified numerator divided by the specified denominator, formatted as a
+     * string, or null if the denominator is zero.
+     *
+     * @param numerator numerator
+     * @param denominator denominator
+     * @return the specified numerator divided by the specified denominator, or null if the
+     *    denominator is zero
+     */
+    private static String fraction(final long numerator, final long denominator) {
+        return denominator == 0L ? null : String.valueOf(((double) numerator) / denominator);
+    }
+
+
+    /**
+     * Statistics for one column of one Parquet file.
+     */
+    private static final class ColumnStats {
+        /** Parquet file name. */
+        final String fileName;
+
+        /** Column id. */
+        final long columnId;
+
+        /** Path of this column in the schema. */
+        final String pathInSchema;
+
+        /** Physical type. */
+        final String type;
+
+        /** Minimum value per row group, or null if a row group has no minimum statistics. */
+        final List<String> lo = new ArrayList<String>();
+
+        /** Maximum value per row group, or null if a row group has no maximum statistics. */
+        final List<String> hi = new ArrayList<String>();
+
+        /** Start offset and compressed size in bytes per column chunk, for reading page headers. */
+        final List<long[]> chunks = new ArrayList<long[]>();
+
+        /** Number of values over all row groups. */
+        long numValues;
+
+        /** Number of null values over row groups with null count statistics. */
+        long nullCount;
+
+        /** Number of values over row groups with null count statistics. */
+        long nullCountValues;
+
+        /** Number of row groups with minimum and maximum statistics. */
+        long statsRowGroups;
+
+        /** True if page headers have been read. */
+        boolean pagesRead;
+
+        /** Number of data pages. */
+        long dataPages;
+
+        /** Number of dictionary pages. */
+        long dictionaryPages;
+
+        /** Number of dictionary encoded data pages. */
+        long dictionaryEncodedPages;
+
+        /** Number of plain encoded data pages. */
+        long plainEncodedPages;
+
+
+        /**
+         * Create new statistics for the specified column of the specified Parquet file.
+         *
+         * @param fileName Parquet file name
+         * @param columnId column id
+         * @param pathInSchema path of the column in the schema
+         * @param type physical type
+         */
+        ColumnStats(final String fileName, final long columnId, final String pathInSchema, final String type) {
+            this.fileName = fileName;
+            this.columnId = columnId;
+            this.pathInSchema = pathInSchema;
+            this.type = type;
+        }
+
+
+        /**
+         * Add the column chunk at the current row of the specified result set.
+         *
+         * @param resultSet result set of the column chunks SQL query, positioned at a row for this column
+         * @throws SQLException if a database access error occurs
+         */
+        void add(final ResultSet resultSet) throws SQLException {
+            long chunkValues = resultSet.getLong("num_values");
+            numValues += chunkValues;
+
+            long chunkNullCount = resultSet.getLong("stats_null_count");
+            if (!resultSet.wasNull()) {
+                nullCount += chunkNullCount;
+                nullCountValues += chunkValues;
+            }
+
+            String chunkLo = resultSet.getString("lo");
+            String chunkHi = resultSet.getString("hi");
+            lo.add(chunkLo);
+            hi.add(chunkHi);
+            if (chunkLo != null && chunkHi != null) {
+                statsRowGroups++;
+            }
+
+            long dictionaryPageOffset = resultSet.getLong("dictionary_page_offset");
+            Long dictionaryPageOffsetOrNull = resultSet.wasNull() ? null : dictionaryPageOffset;
+            long start = ParquetPages.start(dictionaryPageOffsetOrNull, resultSet.getLong("data_page_offset"));
+            chunks.add(new long[] { start, resultSet.getLong("total_compressed_size") });
+        }
+
+        /**
+         * Return these statistics as a row, in the order of the stats headers.
+         *
+         * @return these statistics as a row, in the order of the stats headers
+         */
+        String[] toRow() {
+            Double overlap = Overlap.overlap(lo, hi);
+            return new String[] {
+                fileName,
+                String.valueOf(columnId),
+                pathInSchema,
+                type,
+                String.valueOf(lo.size()),
+                String.valueOf(numValues),
+                fraction(nullCount, nullCountValues),
+                String.valueOf(statsRowGroups),
+                overlap == null ? null : String.valueOf(overlap),
+                pagesRead ? String.valueOf(dataPages) : null,
+                pagesRead ? String.valueOf(dictionaryPages) : null,
+                pagesRead ? fraction(dictionaryEncodedPages, dataPages) : null,
+                pagesRead ? fraction(plainEncodedPages, dataPages) : null
+            };
+        }
+    }
+
+    /**
+     * Main.
+     *
+     * @param args command line args
+     */
+    public static void main(final String[] args) {
+        System.exit(new CommandLine(new Stats()).execute(args));
+    }
+}
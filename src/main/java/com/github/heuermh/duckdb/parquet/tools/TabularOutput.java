@@ -0,0 +1,322 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import java.util.List;
+
+import com.github.heuermh.duckdb.parquet.tools.ArrowResults.Column;
+import com.github.heuermh.duckdb.parquet.tools.ArrowResults.Kind;
+import com.github.heuermh.duckdb.parquet.tools.OutputOptions.Format;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+
+import org.apache.arrow.vector.VectorSchemaRoot;
+
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+
+/**
+ * Tabular output in TSV, CSV, NDJSON, Arrow IPC, or Parquet format, shared by commands that write tables.
+ *
+ * <p>
+ * Query results are streamed from DuckDB as off-heap Arrow record batches.  Text formats
+ * are written through one large buffered UTF-8 writer, with a typed column plan built once
+ * per stream.  Arrow IPC format writes the record batches as they are.  Parquet format is
+ * written by DuckDB directly, without reading results into the JVM.
+ * </p>
+ */
+final class TabularOutput implements Closeable {
+    private final Format format;
+    private final boolean skipHeader;
+    private final String outputPath;
+    private final OutputStream outputStream;
+    private final Writer writer;
+    private final char[] digits = new char[20];
+
+    /** Output buffer size, in bytes or chars. */
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    /** Copy SQL statement. */
+    private static final String COPY_SQL = "COPY (%s) TO %s (FORMAT 'PARQUET')";
+
+
+    /**
+     * Create a new tabular output for the specified output options.
+     *
+     * @param options output options, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    TabularOutput(final OutputOptions options) throws IOException {
+        format = options.format();
+        skipHeader = options.skipHeader();
+        outputPath = options.outputFile() == null ? null : options.outputFile().getPath();
+
+        if (format == Format.PARQUET) {
+            outputStream = null;
+            writer = null;
+            return;
+        }
+        outputStream = new BufferedOutputStream(outputPath == null ? System.out : new FileOutputStream(outputPath), BUFFER_SIZE);
+        writer = format == Format.ARROW ? null : new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+
+    /**
+     * Write the results of the specified SQL query.
+     *
+     * @param connection connection, must not be null
+     * @param sql SQL query
+     * @throws IOException if an I/O error occurs
+     * @throws SQLException if a database access error occurs
+     */
+    void write(final Connection connection, final String sql) throws IOException, SQLException {
+        try (Statement statement = connection.createStatement()) {
+            long start = System.nanoTime();
+            if (format == Format.PARQUET) {
+                statement.execute(String.format(COPY_SQL, sql, Sql.quoteLiteral(outputPath)));
+                Metrics.rows(statement.getUpdateCount());
+                Metrics.time(Metrics.QUERY, start);
+                return;
+            }
+            try (ResultSet resultSet = statement.executeQuery(format == Format.ARROW ? sql : ArrowResults.text(connection, sql));
+                 BufferAllocator allocator = new RootAllocator();
+                 ArrowReader reader = ArrowResults.reader(resultSet, allocator)) {
+                Metrics.time(Metrics.QUERY, start);
+                write(reader);
+            }
+        }
+    }
+
+    /**
+     * Write the specified stream of Arrow record batches.
+     *
+     * @param reader reader over Arrow record batches, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    void write(final ArrowReader reader) throws IOException {
+        if (format == Format.ARROW) {
+            try (ArrowStreamWriter arrowWriter = new ArrowStreamWriter(reader.getVectorSchemaRoot(), reader, outputStream)) {
+                arrowWriter.start();
+                long start = System.nanoTime();
+                while (reader.loadNextBatch()) {
+                    Metrics.time(Metrics.FETCH, start);
+                    start = System.nanoTime();
+                    arrowWriter.writeBatch();
+                    Metrics.rows(reader.getVectorSchemaRoot().getRowCount());
+                    Metrics.time(Metrics.WRITE, start);
+                    start = System.nanoTime();
+                }
+                Metrics.time(Metrics.FETCH, start);
+                arrowWriter.end();
+            }
+            return;
+        }
+        if (format == Format.NDJSON) {
+            new JsonRecords(writer, false, true).write(reader, null);
+            return;
+        }
+        // build column plan and write header once per stream, vectors are reused across record batches
+        VectorSchemaRoot root = reader.getVectorSchemaRoot();
+        Column[] columns = ArrowResults.columns(root);
+        String[] headers = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            headers[i] = columns[i].name();
+        }
+        header(headers);
+
+        long start = System.nanoTime();
+        while (reader.loadNextBatch()) {
+            Metrics.time(Metrics.FETCH, start);
+            start = System.nanoTime();
+            for (int row = 0, rows = root.getRowCount(); row < rows; row++) {
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) {
+                        delimiter();
+                    }
+                    Column column = columns[i];
+                    if (column.isNull(row)) {
+                        continue;
+                    }
+                    switch (column.kind()) {
+                    case BOOLEAN:
+                        writer.write(column.getBoolean(row) ? "true" : "false");
+                        break;
+                    case LONG:
+                        JsonRecords.writeLong(writer, digits, column.getLong(row));
+                        break;
+                    case NUMBER:
+                        writer.write(column.getString(row));
+                        break;
+                    default:
+                        cell(column.getString(row));
+                    }
+                }
+                writer.write('\n');
+            }
+            Metrics.rows(root.getRowCount());
+            Metrics.time(Metrics.WRITE, start);
+            start = System.nanoTime();
+        }
+        Metrics.time(Metrics.FETCH, start);
+    }
+
+    /**
+     * Write the specified rows, as strings.
+     *
+     * @param headers headers
+     * @param rows rows, null values are written as empty cells
+     * @throws IOException if an I/O error occurs
+     */
+    void write(final String[] headers, final List<String[]> rows) throws IOException {
+        write(headers, null, rows);
+    }
+
+    /**
+     * Write the specified rows, with NDJSON values typed by the specified column kinds
+     * as they are for query results.
+     *
+     * @param headers headers
+     * @param kinds column kinds, or null to write every value as a string
+     * @param rows rows, null values are written as empty cells
+     * @throws IOException if an I/O error occurs
+     */
+    void write(final String[] headers, final Kind[] kinds, final List<String[]> rows) throws IOException {
+        long start = System.nanoTime();
+        try {
+            writeRows(headers, kinds, rows);
+        }
+        finally {
+            Metrics.rows(rows.size());
+            Metrics.time(Metrics.WRITE, start);
+        }
+    }
+
+    private void writeRows(final String[] headers, final Kind[] kinds, final List<String[]> rows) throws IOException {
+        if (format == Format.NDJSON) {
+            String[] names = new String[headers.length];
+            for (int i = 0; i < headers.length; i++) {
+                names[i] = JsonRecords.quote(headers[i]) + ":";
+            }
+            for (String[] row : rows) {
+                writer.write('{');
+                boolean first = true;
+                for (int i = 0; i < row.length; i++) {
+                    if (row[i] != null) {
+                        if (!first) {
+                            writer.write(',');
+                        }
+                        writer.write(names[i]);
+                        Kind kind = (kinds == null) ? Kind.STRING : kinds[i];
+                        if (kind == Kind.STRING || (kind == Kind.NUMBER && !JsonRecords.isNumber(row[i]))) {
+                            writer.write(JsonRecords.quote(row[i]));
+                        }
+                        else {
+                            writer.write(row[i]);
+                        }
+                        first = false;
+                    }
+                }
+                writer.write("}\n");
+            }
+            return;
+        }
+        header(headers);
+        for (String[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    delimiter();
+                }
+                cell(row[i]);
+            }
+            writer.write('\n');
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (outputStream == null) {
+            return;
+        }
+        if (writer != null) {
+            writer.flush();
+        }
+        if (outputPath == null) {
+            // leave stdout open
+            outputStream.flush();
+        }
+        else {
+            outputStream.close();
+        }
+    }
+
+    private void header(final String[] headers) throws IOException {
+        if (skipHeader) {
+            return;
+        }
+        for (int i = 0; i < headers.length; i++) {
+            if (i > 0) {
+                delimiter();
+            }
+            cell(headers[i]);
+        }
+        writer.write('\n');
+    }
+
+    private void delimiter() throws IOException {
+        writer.write(format == Format.CSV ? ',' : '\t');
+    }
+
+    private void cell(final String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (format == Format.CSV && needsQuotes(value)) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+        else {
+            writer.write(value);
+        }
+    }
+
+    private static boolean needsQuotes(final String value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal reader for the Thrift compact protocol, sufficient to decode Parquet file
+ * and page metadata.
+ */
+final class ThriftCompactReader {
+    /** Buffer to read from. */
+    private final ByteBuffer buffer;
+
+    /** Stack of last field ids, one per nested struct. */
+    private short[] lastFieldIds = new short[16];
+
+    /** Depth of nested structs. */
+    private int depth = 0;
+
+    /** Value of boolean field read in the field header. */
+    private boolean booleanValue;
+
+    /** Element type of the last list or set header read. */
+    private int elementType;
+
+    /** Stop field type. */
+    static final int STOP = 0;
+
+    /** Boolean true type, in field headers. */
+    static final int BOOLEAN_TRUE = 1;
+
+    /** Boolean false type, in field headers. */
+    static final int BOOLEAN_FALSE = 2;
+
+    /** Byte type. */
+    static final int BYTE = 3;
+
+    /** 16-bit integer type. */
+    static final int I16 = 4;
+
+    /** 32-bit integer type. */
+    static final int I32 = 5;
+
+    /** 64-bit integer type. */
+    static final int I64 = 6;
+
+    /** Double type. */
+    static final int DOUBLE = 7;
+
+    /** Binary or string type. */
+    static final int BINARY = 8;
+
+    /** List type. */
+    static final int LIST = 9;
+
+    /** Set type. */
+    static final int SET = 10;
+
+    /** Map type. */
+    static final int MAP = 11;
+
+    /** Struct type. */
+    static final int STRUCT = 12;
+
+
+    /**
+     * Create a new Thrift compact protocol reader for the specified buffer.
+     *
+     * @param buffer buffer to read from, must not be null
+     */
+    ThriftCompactReader(final ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+
+    /**
+     * Return the current position in the buffer.
+     *
+     * @return the current position in the buffer
+     */
+    int position() {
+        return buffer.position();
+    }
+
+    /**
+     * Begin reading a struct.
+     */
+    void readStructBegin() {
+        if (depth == lastFieldIds.length) {
+            short[] resized = new short[depth * 2];
+            System.arraycopy(lastFieldIds, 0, resized, 0, depth);
+            lastFieldIds = resized;
+        }
+        lastFieldIds[depth++] = 0;
+    }
+
+    /**
+     * End reading a struct.
+     */
+    void readStructEnd() {
+        depth--;
+    }
+
+    /**
+     * Read a field header, returning the field type, or <code>STOP</code> at the end of a struct.
+     * The field id is available from <code>fieldId()</code>.
+     *
+     * @return the field type, or <code>STOP</code> at the end of a struct
+     * @throws IOException if an I/O error occurs
+     */
+    int readFieldBegin() throws IOException {
+        int header = readByte() & 0xff;
+        int type = header & 0x0f;
+        if (type == STOP) {
+            return STOP;
+        }
+        int delta = (header & 0xf0) >>> 4;
+        short fieldId = (delta == 0) ? (short) zigzagToInt(readVarint32()) : (short) (lastFieldIds[depth - 1] + delta);
+        lastFieldIds[depth - 1] = fieldId;
+        if (type == BOOLEAN_TRUE || type == BOOLEAN_FALSE) {
+            booleanValue = (type == BOOLEAN_TRUE);
+        }
+        return type;
+    }
+
+    /**
+     * Return the id of the last field read.
+     *
+     * @return the id of the last field read
+     */
+    short fieldId() {
+        return lastFieldIds[depth - 1];
+    }
+
+    /**
+     * Read a boolean field value, as read in the field header.
+     *
+     * @return the boolean field value
+     */
+    boolean readBoolean() {
+        return booleanValue;
+    }
+
+    /**
+     * Read a byte.
+     *
+     * @return the byte
+     * @throws IOException if an I/O error occurs
+     */
+    byte readByte() throws IOException {
+        if (!buffer.hasRemaining()) {
+            throw new IOException("Unexpected end of Thrift compact protocol data at position " + buffer.position());
+        }
+        return buffer.get();
+    }
+
+    /**
+     * Read a 16- or 32-bit integer.
+     *
+     * @return the integer
+     * @throws IOException if an I/O error occurs
+     */
+    int readI32() throws IOException {
+        return zigzagToInt(readVarint32());
+    }
+
+    /**
+     * Read a 64-bit integer.
+     *
+     * @return the integer
+     * @throws IOException if an I/O error occurs
+     */
+    long readI64() throws IOException {
+        long n = readVarint64();
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    /**
+     * Read a double.
+     *
+     * @return the double
+     * @throws IOException if an I/O error occurs
+     */
+    double readDouble() throws IOException {
+        if (buffer.remaining() < 8) {
+            throw new IOException("Unexpected end of Thrift compact protocol data at position " + buffer.position());
+        }
+        return buffer.getDouble();
+    }
+
+    /**
+     * Read binary data.
+     *
+     * @return the binary data
+     * @throws IOException if an I/O error occurs
+     */
+    byte[] readBinary() throws IOException {
+        int length = readVarint32();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Invalid Thrift compact protocol binary length " + length + " at position " + buffer.position());
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Read a UTF-8 string.
+     *
+     * @return the string
+     * @throws IOException if an I/O error occurs
+     */
+    String readString() throws IOException {
+        return new String(readBinary(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read a list or set header, returning the number of elements.  The element type
+     * is available from <code>elementType()</code>.
+     *
+     * @return the number of elements
+     * @throws IOException if an I/O error occurs
+     */
+    int readListBegin() throws IOException {
+        int header = readByte() & 0xff;
+        int size = (header >>> 4) & 0x0f;
+        if (size == 15) {
+            size = readVarint32();
+        }
+        elementType = header & 0x0f;
+        return size;
+    }
+
+    /**
+     * Return the element type of the last list or set header read.
+     *
+     * @return the element type of the last list or set header read
+     */
+    int elementType() {
+        return elementType;
+    }
+
+    /**
+     * Read a boolean list element.
+     *
+     * @return the boolean list element
+     * @throws IOException if an I/O error occurs
+     */
+    boolean readBooleanElement() throws IOException {
+        return readByte() == BOOLEAN_TRUE;
+    }
+
+    /**
+     * Skip a value of the specified type.
+     *
+     * @param type type of value to skip
+     * @throws IOException if an I/O error occurs
+     */
+    void skip(final int type) throws IOException {
+        switch (type) {
+        case BOOLEAN_TRUE:
+        case BOOLEAN_FALSE:
+            break;
+        case BYTE:
+            readByte();
+            break;
+        case I16:
+        case I32:
+            readVarint32();
+            break;
+        case I64:
+            readVarint64();
+            break;
+        case DOUBLE:
+            readDouble();
+            break;
+        case BINARY:
+            int length = readVarint32();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IOException("Invalid Thrift compact protocol binary length " + length + " at position " + buffer.position());
+            }
+            buffer.position(buffer.position() + length);
+            break;
+        case LIST:
+        case SET:
+            int size = readListBegin();
+            int listElementType = elementType;
+            for (int i = 0; i < size; i++) {
+                if (listElementType == BOOLEAN_TRUE || listElementType == BOOLEAN_FALSE) {
+                    readByte();
+                }
+                else {
+                    skip(listElementType);
+                }
+            }
+            break;
+        case MAP:
+            int entries = readVarint32();
+            if (entries > 0) {
+                int types = readByte() & 0xff;
+                int keyType = (types >>> 4) & 0x0f;
+                int valueType = types & 0x0f;
+                for (int i = 0; i < entries; i++) {
+                    skipElement(keyType);
+                    skipElement(valueType);
+                }
+            }
+            break;
+        case STRUCT:
+            readStructBegin();
+            int fieldType;
+            while ((fieldType = readFieldBegin()) != STOP) {
+                skip(fieldType);
+            }
+            readStructEnd();
+            break;
+        default:
+            throw new IOException("Unknown Thrift compact protocol type " + type + " at position " + buffer.position());
+        }
+    }
+
+    private void skipElement(final int type) throws IOException {
+        if (type == BOOLEAN_TRUE || type == BOOLEAN_FALSE) {
+            readByte();
+        }
+        else {
+            skip(type);
+        }
+    }
+
+    private int readVarint32() throws IOException {
+        int result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = readByte();
+            result |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+            if (shift > 35) {
+                throw new IOException("Invalid Thrift compact protocol varint at position " + buffer.position());
+            }
+        }
+    }
+
+    private long readVarint64() throws IOException {
+        long result = 0L;
+        int shift = 0;
+        while (true) {
+            byte b = readByte();
+            result |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+            if (shift > 70) {
+                throw new IOException("Invalid Thrift compact protocol varint at position " + buffer.position());
+            }
+        }
+    }
+
+    private static int zigzagToInt(final int n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+}
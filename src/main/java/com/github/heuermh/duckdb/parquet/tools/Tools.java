@@ -15,12 +15,15 @@
  */
 package com.github.heuermh.duckdb.parquet.tools;
 
+import java.io.File;
+
 import java.util.List;
 
 import picocli.AutoComplete.GenerateCompletion;
 
 import picocli.CommandLine.Command;
 import picocli.CommandLine.HelpCommand;
+import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 import picocli.CommandLine.ScopeType;
 
@@ -31,6 +34,8 @@ import picocli.CommandLine.ScopeType;
   name = "duckdb-parquet-tools",
   scope = ScopeType.INHERIT,
   subcommands = {
+      Advise.class,
+      Compact.class,
       Convert.class,
       Create.class,
       Dbml.class,
@@ -39,6 +44,9 @@ import picocli.CommandLine.ScopeType;
       Meta.class,
       Ratios.class,
       Schema.class,
+      Serve.class,
+      Stats.class,
+      Validate.class,
       HelpCommand.class,
       GenerateCompletion.class
   },
@@ -53,6 +61,18 @@ public final class Tools {
     @Parameters(hidden = true)
     private List<String> ignored;
 
+    /**
+     * Enable metrics for the current command, inherited by all subcommands.
+     *
+     * @param profile profile file to append metrics to
+     */
+    @Option(names = { "--profile" })
+    void profile(final File profile) {
+        if (profile != null) {
+            Metrics.enable(profile);
+        }
+    }
+
     /**
      * Main.
      *
@@ -0,0 +1,304 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.IOException;
+
+import java.math.BigInteger;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Spec;
+
+/**
+ * Validate Parquet files, checking page CRCs, decoding every page, and confirming row counts
+ * match the footer, with an order-independent content hash.
+ */
+@Command(name = "validate")
+public final class Validate implements Callable<Integer> {
+
+    @Option(names = { "-i", "--input-parquet-file" }, arity = "1..*", required = true, descriptionKey = "input-parquet-files")
+    private List<String> inputPaths;
+
+    @Mixin
+    private SessionOptions sessionOptions;
+
+    @Option(names = { "-w", "--workers" })
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    @Option(names = { "--skip-crc" })
+    private boolean skipCrc;
+
+    @Mixin
+    private OutputOptions outputOptions;
+
+    @Spec
+    private CommandSpec spec;
+
+    /** Footer row count SQL query, reads only the Parquet file footer. */
+    private static final String FOOTER_ROWS_SQL = "SELECT num_rows from parquet_file_metadata('%s')";
+
+    /** Column chunks SQL query, reads only the Parquet file footer. */
+    private static final String CHUNKS_SQL = "SELECT row_group_id, dictionary_page_offset, data_page_offset, total_compressed_size FROM parquet_metadata('%s') ORDER BY row_group_id, column_id";
+
+    /**
+     * Hash SQL query, decodes every value of every column in the slice.  Row hashes are summed
+     * so that the content hash does not depend on row order.
+     */
+    private static final String HASH_SQL = "SELECT count(*), CAST(coalesce(sum(hash(s)), 0) AS VARCHAR) FROM (%s) s";
+
+    /** Content hash modulus, 2^64. */
+    private static final BigInteger MODULUS = BigInteger.ONE.shiftLeft(64);
+
+    /** Validate headers. */
+    static final String[] HEADERS = { "file_name", "rows", "footer_rows", "row_group_rows", "pages", "crc_pages", "crc_errors", "content_hash", "bytes", "elapsed_ms", "mb_per_second", "valid", "error" };
+
+    @Override
+    public Integer call() throws Exception {
+        List<String> inputParquetFiles = ParquetFiles.expand(inputPaths);
+        if (inputParquetFiles.isEmpty()) {
+            throw new ParameterException(spec.commandLine(), "No input Parquet files found in " + inputPaths);
+        }
+        if (workers < 1) {
+            throw new ParameterException(spec.commandLine(), "--workers must be greater than zero, was " + workers);
+        }
+        outputOptions.validate(spec.commandLine(), false);
+        sessionOptions.validate(spec.commandLine());
+
+        boolean valid = true;
+        List<String[]> rows = new ArrayList<String[]>(inputParquetFiles.size());
+        try (Connection connection = sessionOptions.open()) {
+            for (String inputParquetFile : inputParquetFiles) {
+                Validation validation = validate(connection, inputParquetFile);
+                valid &= validation.isValid();
+                rows.add(validation.toRow());
+            }
+        }
+        try (TabularOutput output = new TabularOutput(outputOptions)) {
+            output.write(HEADERS, rows);
+        }
+        return valid ? 0 : 1;
+    }
+
+    /**
+     * Validate the specified Parquet file.
+     *
+     * @param connection connection
+     * @param inputParquetFile input Parquet file
+     * @return the validation
+     * @throws Exception if an error occurs
+     */
+    private Validation validate(final Connection connection, final String inputParquetFile) throws Exception {
+        Validation validation = new Validation(inputParquetFile);
+        long start = System.nanoTime();
+        try {
+            // row counts from the footer
+            try (Statement query = connection.createStatement();
+                 ResultSet resultSet = query.executeQuery(String.format(FOOTER_ROWS_SQL, inputParquetFile))) {
+                if (resultSet.next()) {
+                    validation.footerRows = resultSet.getLong(1);
+                }
+            }
+            validation.rowGroupRows = 0L;
+            for (long rows : RowGroupSlices.rowGroups(connection, inputParquetFile)) {
+                validation.rowGroupRows += rows;
+            }
+
+            // check page CRCs in parallel across row groups, local files only
+            if (!ParquetFiles.isRemote(inputParquetFile)) {
+                validation.bytes = Files.size(Paths.get(inputParquetFile));
+                if (!skipCrc) {
+                    checkCrcs(connection, inputParquetFile, validation);
+                }
+            }
+
+            // decode every page and hash every row in parallel across row group slices, merged in order
+            List<long[]> slices = RowGroupSlices.byCount(connection, inputParquetFile, workers);
+            List<Object[]> hashes = RowGroupSlices.map(connection, slices, workers, (duplicate, i, slice) -> {
+                    try (Statement query = duplicate.createStatement();
+                         ResultSet resultSet = query.executeQuery(String.format(HASH_SQL, RowGroupSlices.select(inputParquetFile, slice, "* EXCLUDE (file_row_number)")))) {
+                        resultSet.next();
+                        return new Object[] { resultSet.getLong(1), new BigInteger(resultSet.getString(2)) };
+                    }
+                });
+            long rows = 0L;
+            BigInteger hash = BigInteger.ZERO;
+            for (Object[] h : hashes) {
+                rows += (Long) h[0];
+                hash = hash.add((BigInteger) h[1]);
+            }
+            validation.rows = rows;
+            validation.contentHash = String.format("%016x", hash.mod(MODULUS));
+            Metrics.rows(rows);
+        }
+        catch (IOException | SQLException | RuntimeException e) {
+            // corrupt pages fail the validation of this file rather than the command
+            validation.error = e.getMessage() == null ? e.toString() : e.getMessage();
+        }
+        validation.elapsedNanos = System.nanoTime() - start;
+        return validation;
+    }
+
+    /**
+     * Check page CRCs of the specified local Parquet file, in parallel across row groups.
+     *
+     * @param connection connection
+     * @param inputParquetFile input Parquet file
+     * @param validation validation to update
+     * @throws Exception if an error occurs
+     */
+    private void checkCrcs(final Connection connection, final String inputParquetFile, final Validation validation) throws Exception {
+        Map<Long, List<long[]>> chunksByRowGroup = new LinkedHashMap<Long, List<long[]>>();
+        try (Statement query = connection.createStatement();
+             ResultSet resultSet = query.executeQuery(String.format(CHUNKS_SQL, inputParquetFile))) {
+            while (resultSet.next()) {
+                long dictionaryPageOffset = resultSet.getLong("dictionary_page_offset");
+                Long dictionaryPageOffsetOrNull = resultSet.wasNull() ? null : dictionaryPageOffset;
+                long chunkStart = ParquetPages.start(dictionaryPageOffsetOrNull, resultSet.getLong("data_page_offset"));
+                chunksByRowGroup.computeIfAbsent(resultSet.getLong("row_group_id"), r -> new ArrayList<long[]>())
+                    .add(new long[] { chunkStart, resultSet.getLong("total_compressed_size") });
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(inputParquetFile), StandardOpenOption.READ)) {
+            ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(workers, chunksByRowGroup.size())));
+            try {
+                List<Future<long[]>> futures = new ArrayList<Future<long[]>>(chunksByRowGroup.size());
+                for (List<long[]> chunks : chunksByRowGroup.values()) {
+                    futures.add(executorService.submit(() -> {
+                                // pages, pages with CRCs, CRC errors
+                                long[] counts = new long[3];
+                                for (long[] chunk : chunks) {
+                                    for (ParquetPages.PageHeader pageHeader : ParquetPages.read(channel, chunk[0], chunk[1])) {
+                                        counts[0]++;
+                                        if (pageHeader.crc != null) {
+                                            counts[1]++;
+                                            if (!ParquetPages.checkCrc(channel, pageHeader)) {
+                                                counts[2]++;
+                                            }
+                                        }
+                                    }
+                                }
+                                return counts;
+                            }));
+                }
+                validation.pages = 0L;
+                validation.crcPages = 0L;
+                validation.crcErrors = 0L;
+                for (Future<long[]> future : futures) {
+                    try {
+                        long[] counts = future.get();
+                        validation.pages += counts[0];
+                        validation.crcPages += counts[1];
+                        validation.crcErrors += counts[2];
+                    }
+                    catch (ExecutionException e) {
+                        if (e.getCause() instanceof Exception) {
+                            throw (Exception) e.getCause();
+                        }
+                        throw e;
+                    }
+                }
+            }
+            finally {
+                executorService.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Validation of one Parquet file.
+     */
+    private static final class Validation {
+        final String fileName;
+        Long rows;
+        Long footerRows;
+        Long rowGroupRows;
+        Long pages;
+        Long crcPages;
+        Long crcErrors;
+        String contentHash;
+        Long bytes;
+        long elapsedNanos;
+        String error;
+
+        Validation(final String fileName) {
+            this.fileName = fileName;
+        }
+
+        boolean isValid() {
+            return error == null
+                && rows != null
+                && rows.equals(footerRows)
+                && rows.equals(rowGroupRows)
+                && (crcErrors == null || crcErrors == 0L);
+        }
+
+        String[] toRow() {
+            long elapsedMillis = elapsedNanos / 1000000L;
+            Double mbPerSecond = (bytes == null || elapsedNanos == 0L) ? null : (bytes / (1024.0d * 1024.0d)) / (elapsedNanos / 1000000000.0d);
+            return new String[] {
+                fileName,
+                rows == null ? null : String.valueOf(rows),
+                footerRows == null ? null : String.valueOf(footerRows),
+                rowGroupRows == null ? null : String.valueOf(rowGroupRows),
+                pages == null ? null : String.valueOf(pages),
+                crcPages == null ? null : String.valueOf(crcPages),
+                crcErrors == null ? null : String.valueOf(crcErrors),
+                contentHash,
+                bytes == null ? null : String.valueOf(bytes),
+                String.valueOf(elapsedMillis),
+                mbPerSecond == null ? null : String.format("%.1f", mbPerSecond),
+                String.valueOf(isValid()),
+                error
+            };
+        }
+    }
+
+    /**
+     * Main.
+     *
+     * @param args command line args
+     */
+    public static void main(final String[] args) {
+        System.exit(new CommandLine(new Validate()).execute(args));
+    }
+}
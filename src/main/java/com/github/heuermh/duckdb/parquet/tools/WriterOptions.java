@@ -0,0 +1,270 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import java.io.File;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.regex.Pattern;
+
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+
+/**
+ * Parquet writer options, shared by commands that write Parquet files.
+ */
+final class WriterOptions {
+
+    /**
+     * Parquet codec.
+     */
+    enum Codec {
+        UNCOMPRESSED,
+        SNAPPY,
+        GZIP,
+        ZSTD,
+        LZ4,
+        LZ4_RAW,
+        BROTLI
+    }
+
+    /**
+     * Parquet format version.
+     */
+    enum ParquetVersion {
+        V1,
+        V2
+    }
+
+    @Option(names = { "-c", "--codec" })
+    private Codec codec = Codec.ZSTD;
+
+    @Option(names = { "--compression-level" })
+    private Integer compressionLevel;
+
+    @Option(names = { "--row-group-size" })
+    private Long rowGroupSize;
+
+    @Option(names = { "--row-group-size-bytes" })
+    private String rowGroupSizeBytes;
+
+    @Option(names = { "--dictionary-size-limit" })
+    private Long dictionarySizeLimit;
+
+    @Option(names = { "--string-dictionary-page-size-limit" })
+    private Long stringDictionaryPageSizeLimit;
+
+    @Option(names = { "--bloom-filter-false-positive-ratio" })
+    private Double bloomFilterFalsePositiveRatio;
+
+    @Option(names = { "--parquet-version" })
+    private ParquetVersion parquetVersion;
+
+    @Option(names = { "--partition-by" }, split = ",")
+    private List<String> partitionBy = new ArrayList<String>();
+
+    @Option(names = { "--max-file-size" })
+    private String maxFileSize;
+
+    @Option(names = { "--rows-per-file" })
+    private Long rowsPerFile;
+
+    @Option(names = { "--manifest" })
+    private File manifest;
+
+    /** Minimum ZSTD compression level. */
+    private static final int MIN_ZSTD_COMPRESSION_LEVEL = 1;
+
+    /** Maximum ZSTD compression level. */
+    private static final int MAX_ZSTD_COMPRESSION_LEVEL = 22;
+
+    /** Default DuckDB row group size. */
+    private static final long DEFAULT_ROW_GROUP_SIZE = 122880L;
+
+    /** Size in bytes, e.g. <code>128MB</code>. */
+    private static final Pattern SIZE = Pattern.compile("^[0-9]+\\s*([KMGT]i?)?B?$", Pattern.CASE_INSENSITIVE);
+
+    /** Key value metadata key for writer options. */
+    static final String KV_METADATA_KEY = "duckdb-parquet-tools.writer-options";
+
+
+    /**
+     * Validate these writer options.
+     *
+     * @param commandLine command line, for reporting parameter exceptions
+     * @throws ParameterException if any of these writer options are not valid
+     */
+    void validate(final picocli.CommandLine commandLine) {
+        if (compressionLevel != null) {
+            if (codec != Codec.ZSTD) {
+                throw new ParameterException(commandLine, "--compression-level is only supported for codec " + Codec.ZSTD + ", was " + codec);
+            }
+            if (compressionLevel < MIN_ZSTD_COMPRESSION_LEVEL || compressionLevel > MAX_ZSTD_COMPRESSION_LEVEL) {
+                throw new ParameterException(commandLine, "--compression-level must be between " + MIN_ZSTD_COMPRESSION_LEVEL + " and " + MAX_ZSTD_COMPRESSION_LEVEL + ", was " + compressionLevel);
+            }
+        }
+        if (rowGroupSize != null && rowGroupSize < 1L) {
+            throw new ParameterException(commandLine, "--row-group-size must be greater than zero, was " + rowGroupSize);
+        }
+        if (rowGroupSizeBytes != null && !SIZE.matcher(rowGroupSizeBytes.trim()).matches()) {
+            throw new ParameterException(commandLine, "--row-group-size-bytes must be a size in bytes, e.g. 128MB, was " + rowGroupSizeBytes);
+        }
+        if (dictionarySizeLimit != null && dictionarySizeLimit < 0L) {
+            throw new ParameterException(commandLine, "--dictionary-size-limit must not be negative, was " + dictionarySizeLimit);
+        }
+        if (stringDictionaryPageSizeLimit != null && stringDictionaryPageSizeLimit < 1L) {
+            throw new ParameterException(commandLine, "--string-dictionary-page-size-limit must be greater than zero, was " + stringDictionaryPageSizeLimit);
+        }
+        if (bloomFilterFalsePositiveRatio != null && (bloomFilterFalsePositiveRatio <= 0.0d || bloomFilterFalsePositiveRatio >= 1.0d)) {
+            throw new ParameterException(commandLine, "--bloom-filter-false-positive-ratio must be between 0.0 and 1.0, exclusive, was " + bloomFilterFalsePositiveRatio);
+        }
+        if (maxFileSize != null && !SIZE.matcher(maxFileSize.trim()).matches()) {
+            throw new ParameterException(commandLine, "--max-file-size must be a size in bytes, e.g. 1GB, was " + maxFileSize);
+        }
+        if (rowsPerFile != null && rowsPerFile < 1L) {
+            throw new ParameterException(commandLine, "--rows-per-file must be greater than zero, was " + rowsPerFile);
+        }
+    }
+
+    /**
+     * Return true if these writer options write a directory of Parquet files
+     * instead of a single Parquet file.
+     *
+     * @return true if these writer options write a directory of Parquet files
+     */
+    boolean isDirectory() {
+        return !partitionBy.isEmpty() || maxFileSize != null || rowsPerFile != null;
+    }
+
+    /**
+     * Split output into files of the specified maximum size in bytes, unless a
+     * maximum file size or number of rows per file has already been specified.
+     *
+     * @param size maximum file size in bytes, e.g. <code>128MB</code>
+     */
+    void defaultMaxFileSize(final String size) {
+        if (maxFileSize == null && rowsPerFile == null) {
+            maxFileSize = size;
+        }
+    }
+
+    /**
+     * Return the manifest file to write, if any.
+     *
+     * @return the manifest file to write, or <code>null</code> if no manifest should be written
+     */
+    File manifest() {
+        return manifest;
+    }
+
+    /**
+     * Return the number of row groups per file for the rows per file option, if any.
+     * DuckDB splits files on row group boundaries, so the number of rows per file is
+     * rounded up to a whole number of row groups.
+     *
+     * @return the number of row groups per file for the rows per file option, if any
+     */
+    private long rowGroupsPerFile() {
+        long size = (rowGroupSize == null) ? DEFAULT_ROW_GROUP_SIZE : rowGroupSize;
+        return Math.max(1L, (rowsPerFile + size - 1L) / size);
+    }
+
+    /**
+     * Return these writer options formatted as command line arguments.
+     *
+     * @return these writer options formatted as command line arguments
+     */
+    String describe() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("--codec ").append(codec);
+        if (compressionLevel != null) {
+            sb.append(" --compression-level ").append(compressionLevel);
+        }
+        if (rowGroupSize != null) {
+            sb.append(" --row-group-size ").append(rowGroupSize);
+        }
+        if (rowGroupSizeBytes != null) {
+            sb.append(" --row-group-size-bytes ").append(rowGroupSizeBytes.trim());
+        }
+        if (dictionarySizeLimit != null) {
+            sb.append(" --dictionary-size-limit ").append(dictionarySizeLimit);
+        }
+        if (stringDictionaryPageSizeLimit != null) {
+            sb.append(" --string-dictionary-page-size-limit ").append(stringDictionaryPageSizeLimit);
+        }
+        if (bloomFilterFalsePositiveRatio != null) {
+            sb.append(" --bloom-filter-false-positive-ratio ").append(bloomFilterFalsePositiveRatio);
+        }
+        if (parquetVersion != null) {
+            sb.append(" --parquet-version ").append(parquetVersion);
+        }
+        if (!partitionBy.isEmpty()) {
+            sb.append(" --partition-by ").append(String.join(",", partitionBy));
+        }
+        if (maxFileSize != null) {
+            sb.append(" --max-file-size ").append(maxFileSize.trim());
+        }
+        if (rowsPerFile != null) {
+            sb.append(" --rows-per-file ").append(rowsPerFile);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Return these writer options formatted as DuckDB <code>COPY</code> options.
+     *
+     * @return these writer options formatted as DuckDB <code>COPY</code> options
+     */
+    String copyOptions() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("FORMAT 'PARQUET', CODEC '").append(codec).append("'");
+        if (compressionLevel != null) {
+            sb.append(", COMPRESSION_LEVEL ").append(compressionLevel);
+        }
+        if (rowGroupSize != null) {
+            sb.append(", ROW_GROUP_SIZE ").append(rowGroupSize);
+        }
+        if (rowGroupSizeBytes != null) {
+            sb.append(", ROW_GROUP_SIZE_BYTES '").append(rowGroupSizeBytes.trim()).append("'");
+        }
+        if (dictionarySizeLimit != null) {
+            sb.append(", DICTIONARY_SIZE_LIMIT ").append(dictionarySizeLimit);
+        }
+        if (stringDictionaryPageSizeLimit != null) {
+            sb.append(", STRING_DICTIONARY_PAGE_SIZE_LIMIT ").append(stringDictionaryPageSizeLimit);
+        }
+        if (bloomFilterFalsePositiveRatio != null) {
+            sb.append(", BLOOM_FILTER_FALSE_POSITIVE_RATIO ").append(bloomFilterFalsePositiveRatio);
+        }
+        if (parquetVersion != null) {
+            sb.append(", PARQUET_VERSION ").append(parquetVersion);
+        }
+        if (!partitionBy.isEmpty()) {
+            sb.append(", PARTITION_BY (").append(Sql.quoteIdentifiers(partitionBy)).append(")");
+        }
+        if (maxFileSize != null) {
+            sb.append(", FILE_SIZE_BYTES '").append(maxFileSize.trim()).append("'");
+        }
+        if (rowsPerFile != null) {
+            sb.append(", ROW_GROUPS_PER_FILE ").append(rowGroupsPerFile());
+        }
+        // record writer options in the output file so tuning runs can be reproduced
+        sb.append(", KV_METADATA {").append(Sql.quoteLiteral(KV_METADATA_KEY)).append(": ").append(Sql.quoteLiteral(describe())).append("}");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+
+import org.apache.arrow.vector.ipc.ArrowReader;
+
+import org.junit.Test;
+
+/**
+ * Unit test for ArrowResults.
+ */
+public final class ArrowResultsTest {
+
+    /** Values of types not read directly from Arrow vectors, and of types read directly but formatted in Java. */
+    private static final String TYPES_SQL = "SELECT INTERVAL '1 year 2 months 3 days 04:05:06.5' AS i, [1, 2, NULL] AS l, {'a': 1, 'b': 'x'} AS s,"
+        + " TIMETZ '01:02:03+05' AS t, '\\xFFa''\"\\x5C'::BLOB AS b, TIMESTAMP_NS '2024-01-02 03:04:05.123456789' AS ns,"
+        + " TIMESTAMP_MS '2024-01-02 03:04:05.123' AS ms, TIMESTAMP_S '2024-01-02 03:04:05' AS sec, 42 AS n";
+
+    /** Values cast to VARCHAR by DuckDB. */
+    private static final String CAST_SQL = "SELECT CAST(i AS VARCHAR) AS i, CAST(l AS VARCHAR) AS l, CAST(s AS VARCHAR) AS s, CAST(t AS VARCHAR) AS t,"
+        + " CAST(b AS VARCHAR) AS b, CAST(ns AS VARCHAR) AS ns, CAST(ms AS VARCHAR) AS ms FROM (" + TYPES_SQL + ")";
+
+
+    /**
+     * Return the results of the specified query as newline-delimited JSON.
+     */
+    private static String ndjson(final Connection connection, final String sql) throws Exception {
+        StringWriter writer = new StringWriter();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql);
+             BufferAllocator allocator = new RootAllocator();
+             ArrowReader reader = ArrowResults.reader(resultSet, allocator)) {
+            JsonRecords records = new JsonRecords(writer, false, true);
+            records.begin();
+            records.write(reader, null);
+            records.end();
+        }
+        return writer.toString();
+    }
+
+    @Test
+    public void testText() throws Exception {
+        try (Connection connection = Connections.open("jdbc:duckdb:")) {
+            String text = ArrowResults.text(connection, TYPES_SQL);
+            assertTrue(text.contains("CAST(\"i\" AS VARCHAR)"));
+            assertFalse(text.contains("CAST(\"b\" AS VARCHAR)"));
+            assertFalse(text.contains("CAST(\"n\" AS VARCHAR)"));
+
+            // formatted as DuckDB casts to VARCHAR, whether cast in SQL or formatted from Arrow vectors
+            String expected = ndjson(connection, CAST_SQL);
+            String actual = ndjson(connection, "SELECT * EXCLUDE (sec, n) FROM (" + text + ")");
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testTextUnchanged() throws Exception {
+        try (Connection connection = Connections.open("jdbc:duckdb:")) {
+            String sql = "SELECT 1 AS a, 'x' AS b, 1.5::DECIMAL(4, 2) AS c, DATE '2024-01-02' AS d";
+            assertEquals(sql, ArrowResults.text(connection, sql));
+        }
+    }
+
+    @Test
+    public void testTimestampSeconds() throws Exception {
+        try (Connection connection = Connections.open("jdbc:duckdb:")) {
+            // formatted as java.sql.Timestamp, as for other timestamp units
+            assertTrue(ndjson(connection, TYPES_SQL).contains("\"sec\":\"2024-01-02 03:04:05.0\""));
+        }
+    }
+}
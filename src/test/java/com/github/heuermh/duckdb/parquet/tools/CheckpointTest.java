@@ -0,0 +1,172 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit test for Checkpoint.
+ */
+public final class CheckpointTest {
+    private File file;
+    private String input;
+    private List<long[]> ranges;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+
+    @Before
+    public void setUp() throws Exception {
+        file = new File(folder.getRoot(), "parts/checkpoint.tsv");
+        input = folder.newFile("input.parquet").toString();
+        append(new File(input), "input");
+        ranges = new ArrayList<long[]>();
+        ranges.add(new long[] { 0L, 100L });
+        ranges.add(new long[] { 100L, 200L });
+        ranges.add(new long[] { 200L, 250L });
+    }
+
+    @Test
+    public void testNew() throws Exception {
+        Checkpoint checkpoint = new Checkpoint(file, input, ranges, "COMPRESSION zstd");
+        assertTrue(file.exists());
+        assertFalse(checkpoint.isComplete(0));
+        assertFalse(checkpoint.isComplete(1));
+        assertFalse(checkpoint.isComplete(2));
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        Checkpoint checkpoint = new Checkpoint(file, input, ranges, "COMPRESSION zstd");
+        checkpoint.complete(0);
+        checkpoint.complete(2);
+        assertTrue(checkpoint.isComplete(0));
+
+        Checkpoint resumed = new Checkpoint(file, input, ranges, "COMPRESSION zstd");
+        assertTrue(resumed.isComplete(0));
+        assertFalse(resumed.isComplete(1));
+        assertTrue(resumed.isComplete(2));
+    }
+
+    @Test
+    public void testResumeIgnoresPartialLastLine() throws Exception {
+        Checkpoint checkpoint = new Checkpoint(file, input, ranges, "COMPRESSION zstd");
+        checkpoint.complete(0);
+        append(file, "par");
+
+        Checkpoint resumed = new Checkpoint(file, input, ranges, "COMPRESSION zstd");
+        assertTrue(resumed.isComplete(0));
+        assertFalse(resumed.isComplete(1));
+        resumed.complete(1);
+
+        assertTrue(new Checkpoint(file, input, ranges, "COMPRESSION zstd").isComplete(1));
+    }
+
+    @Test
+    public void testResumeIgnoresTornPartLine() throws Exception {
+        Checkpoint checkpoint = new Checkpoint(file, input, ranges, "COMPRESSION zstd");
+        checkpoint.complete(0);
+        // an interrupted append of part 12 that reads back as part 1
+        append(file, "part\t1");
+
+        Checkpoint resumed = new Checkpoint(file, input, ranges, "COMPRESSION zstd");
+        assertTrue(resumed.isComplete(0));
+        assertFalse(resumed.isComplete(1));
+        assertFalse(resumed.isComplete(12));
+    }
+
+    @Test
+    public void testEmptyCheckpoint() throws Exception {
+        // interrupted between creating the checkpoint directory and appending the header
+        file.getParentFile().mkdirs();
+        file.createNewFile();
+
+        Checkpoint checkpoint = new Checkpoint(file, input, ranges, "COMPRESSION zstd");
+        assertFalse(checkpoint.isComplete(0));
+        checkpoint.complete(0);
+        assertTrue(new Checkpoint(file, input, ranges, "COMPRESSION zstd").isComplete(0));
+    }
+
+    @Test
+    public void testPartialHeader() throws Exception {
+        file.getParentFile().mkdirs();
+        append(file, "input\t");
+
+        Checkpoint checkpoint = new Checkpoint(file, input, ranges, "COMPRESSION zstd");
+        checkpoint.complete(1);
+        assertTrue(new Checkpoint(file, input, ranges, "COMPRESSION zstd").isComplete(1));
+    }
+
+    @Test
+    public void testResumeDifferentOptions() throws Exception {
+        new Checkpoint(file, input, ranges, "COMPRESSION zstd").complete(0);
+        expectIOException(input, ranges, "COMPRESSION snappy");
+    }
+
+    @Test
+    public void testResumeDifferentPlan() throws Exception {
+        new Checkpoint(file, input, ranges, "COMPRESSION zstd").complete(0);
+        ranges.remove(2);
+        expectIOException(input, ranges, "COMPRESSION zstd");
+    }
+
+    @Test
+    public void testResumeDifferentInput() throws Exception {
+        new Checkpoint(file, input, ranges, "COMPRESSION zstd").complete(0);
+        expectIOException(folder.newFile("other.parquet").toString(), ranges, "COMPRESSION zstd");
+    }
+
+    @Test
+    public void testResumeChangedInput() throws Exception {
+        new Checkpoint(file, input, ranges, "COMPRESSION zstd").complete(0);
+        append(new File(input), "changed");
+        expectIOException(input, ranges, "COMPRESSION zstd");
+    }
+
+    private void expectIOException(final String input, final List<long[]> ranges, final String options) {
+        try {
+            new Checkpoint(file, input, ranges, options);
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static void append(final File file, final String value) throws IOException {
+        try (FileOutputStream outputStream = new FileOutputStream(file, true)) {
+            outputStream.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import picocli.CommandLine;
+
+/**
+ * Unit test for Convert.
+ */
+public final class ConvertTest {
+    private String input;
+    private File output;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /** Input SQL statement, unordered columns in ten row groups. */
+    private static final String INPUT_SQL = "COPY (SELECT i AS id, (i * 7919) % 1000 AS x, (i * 104729) % 997 AS y, 'k' || (i % 3) AS k FROM range(10000) t(i)) TO %s (FORMAT PARQUET, ROW_GROUP_SIZE 1000)";
+
+    /** Same rows SQL query, counts rows in either but not both of the specified Parquet files. */
+    private static final String DIFFERENCE_SQL = "SELECT count(*) FROM ((SELECT id, x, y, k FROM read_parquet(%1$s) EXCEPT ALL SELECT id, x, y, k FROM read_parquet(%2$s))"
+        + " UNION ALL (SELECT id, x, y, k FROM read_parquet(%2$s) EXCEPT ALL SELECT id, x, y, k FROM read_parquet(%1$s)))";
+
+    /** Unsorted SQL query, counts rows out of order in the specified column, in file order. */
+    private static final String UNSORTED_SQL = "SELECT count(*) FROM (SELECT %1$s, lag(%1$s) OVER () AS previous FROM read_parquet(%2$s)) WHERE %1$s < previous";
+
+
+    @Before
+    public void setUp() throws Exception {
+        File inputFile = folder.newFile("input.parquet");
+        input = inputFile.toString();
+        output = new File(folder.getRoot(), "output.parquet");
+        query(String.format(INPUT_SQL, Sql.quoteLiteral(input)));
+    }
+
+    /**
+     * Run convert with the specified arguments.
+     *
+     * @param args command line arguments
+     * @return exit code
+     */
+    static int convert(final String... args) {
+        return new CommandLine(new Convert()).execute(args);
+    }
+
+    /**
+     * Execute the specified SQL statement, returning the first column of the first row as a long, if any.
+     *
+     * @param sql SQL statement
+     * @return the first column of the first row as a long, or <code>-1</code> if no results
+     * @throws Exception if an error occurs
+     */
+    static long query(final String sql) throws Exception {
+        try (Connection connection = Connections.open("jdbc:duckdb:"); Statement statement = connection.createStatement()) {
+            if (statement.execute(sql)) {
+                try (ResultSet resultSet = statement.getResultSet()) {
+                    return resultSet.next() ? resultSet.getLong(1) : -1L;
+                }
+            }
+            return -1L;
+        }
+    }
+
+    /**
+     * Return the number of rows in either but not both of the specified Parquet files or globs.
+     */
+    static long difference(final String a, final String b) throws Exception {
+        return query(String.format(DIFFERENCE_SQL, Sql.quoteLiteral(a), Sql.quoteLiteral(b)));
+    }
+
+    private static double overlap(final String parquetFile, final String column) throws Exception {
+        try (Connection connection = Connections.open("jdbc:duckdb:")) {
+            return Overlap.overlap(connection, parquetFile, column);
+        }
+    }
+
+    @Test
+    public void testConvert() throws Exception {
+        assertEquals(0, convert("-i", input, "-o", output.toString()));
+        assertTrue(output.isFile());
+        assertEquals(0L, difference(input, output.toString()));
+    }
+
+    @Test
+    public void testSortBy() throws Exception {
+        assertEquals(0, convert("-i", input, "-o", output.toString(), "--sort-by", "x", "--row-group-size", "1000"));
+        assertEquals(0L, difference(input, output.toString()));
+        assertEquals(0L, query(String.format(UNSORTED_SQL, "x", Sql.quoteLiteral(output.toString()))));
+        assertEquals(0.0d, overlap(output.toString(), "x"), 0.0d);
+        assertTrue(overlap(input, "x") > 0.9d);
+    }
+
+    @Test
+    public void testClusterBy() throws Exception {
+        assertEquals(0, convert("-i", input, "-o", output.toString(), "--cluster-by", "x,y", "--row-group-size", "1000"));
+        assertEquals(0L, difference(input, output.toString()));
+        assertTrue(overlap(output.toString(), "x") < overlap(input, "x"));
+        assertTrue(overlap(output.toString(), "y") < overlap(input, "y"));
+    }
+
+    @Test
+    public void testOverlapReport() throws Exception {
+        File overlapReport = new File(folder.getRoot(), "overlap.tsv");
+        assertEquals(0, convert("-i", input, "-o", output.toString(), "--cluster-by", "x", "--sort-by", "y", "--overlap-report", overlapReport.toString()));
+        List<String> lines = Files.readAllLines(overlapReport.toPath(), StandardCharsets.UTF_8);
+        assertEquals(3, lines.size());
+        assertEquals("input_file\tcolumn\toverlap_before\toverlap_after", lines.get(0));
+        assertTrue(lines.get(1).startsWith(input + "\tx\t"));
+        assertTrue(lines.get(2).startsWith(input + "\ty\t"));
+    }
+
+    @Test
+    public void testPartitionBy() throws Exception {
+        assertEquals(0, convert("-i", input, "-o", output.toString(), "--partition-by", "k"));
+        assertTrue(output.isDirectory());
+        for (String k : new String[] { "k0", "k1", "k2" }) {
+            assertTrue(new File(output, "k=" + k).isDirectory());
+        }
+        assertEquals(10000L, query("SELECT count(*) FROM read_parquet(" + Sql.quoteLiteral(output + "/**/*.parquet") + ", hive_partitioning = true)"));
+        assertEquals(3334L, query("SELECT count(*) FROM read_parquet(" + Sql.quoteLiteral(output + "/**/*.parquet") + ", hive_partitioning = true) WHERE k = 'k0'"));
+    }
+
+    @Test
+    public void testRowsPerFile() throws Exception {
+        File manifest = new File(folder.getRoot(), "manifest.tsv");
+        assertEquals(0, convert("-i", input, "-o", output.toString(), "--row-group-size", "1000", "--rows-per-file", "2500", "--manifest", manifest.toString()));
+        assertTrue(output.isDirectory());
+        assertEquals(0L, difference(input, output + "/*.parquet"));
+
+        List<String> lines = Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8);
+        assertEquals("file_name\trows\tbytes", lines.get(0));
+        assertTrue(lines.size() > 2);
+        long rows = 0L;
+        for (String line : lines.subList(1, lines.size())) {
+            String[] tokens = line.split("\t");
+            rows += Long.parseLong(tokens[1]);
+            assertEquals(new File(tokens[0]).length(), Long.parseLong(tokens[2]));
+        }
+        assertEquals(10000L, rows);
+    }
+
+    @Test
+    public void testSlices() throws Exception {
+        File outputDirectory = new File(folder.getRoot(), "output");
+        assertEquals(0, convert("-i", input, "-d", outputDirectory.toString(), "--slices", "4"));
+
+        // one Parquet file per slice, in input order, in a directory named after the input Parquet file
+        File slices = new File(outputDirectory, "input.parquet");
+        assertTrue(slices.isDirectory());
+        String[] parts = slices.list();
+        Arrays.sort(parts);
+        assertEquals(Arrays.asList("part-00000.parquet", "part-00001.parquet", "part-00002.parquet", "part-00003.parquet"), Arrays.asList(parts));
+        assertEquals(0L, difference(input, slices + "/*.parquet"));
+        assertEquals(0L, query(String.format(UNSORTED_SQL, "id", Sql.quoteLiteral(slices + "/*.parquet"))));
+    }
+
+    @Test
+    public void testSlicesOutputParquetFile() throws Exception {
+        assertEquals(2, convert("-i", input, "-o", output.toString(), "--slices", "4"));
+        assertFalse(output.exists());
+    }
+
+    @Test
+    public void testResumable() throws Exception {
+        assertEquals(0, convert("-i", input, "-o", output.toString(), "--resumable", "--rows-per-part", "3000"));
+        assertTrue(output.isFile());
+        assertFalse(new File(output.getPath() + ".parts").exists());
+        assertEquals(0L, difference(input, output.toString()));
+        assertEquals(0L, query(String.format(UNSORTED_SQL, "id", Sql.quoteLiteral(output.toString()))));
+    }
+
+    @Test
+    public void testClusterByTooManyColumns() throws Exception {
+        StringBuilder columns = new StringBuilder("x");
+        for (int i = 0; i < 32; i++) {
+            columns.append(",y");
+        }
+        assertEquals(2, convert("-i", input, "-o", output.toString(), "--cluster-by", columns.toString()));
+    }
+
+    @Test
+    public void testSortByResumable() throws Exception {
+        assertEquals(2, convert("-i", input, "-o", output.toString(), "--sort-by", "x", "--resumable"));
+    }
+}
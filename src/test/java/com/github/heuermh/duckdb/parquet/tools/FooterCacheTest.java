@@ -0,0 +1,187 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import picocli.CommandLine;
+
+/**
+ * Unit test for FooterCache.
+ */
+public final class FooterCacheTest {
+    private String a;
+    private String b;
+    private String c;
+    private File directory;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+
+    @Before
+    public void setUp() throws Exception {
+        directory = folder.newFolder("cache");
+        a = fixture("a.parquet");
+        b = fixture("b.parquet");
+        c = fixture("c.parquet");
+    }
+
+    private String fixture(final String name) throws Exception {
+        File file = folder.newFile(name);
+        ParquetFooterTest.fixture(file);
+        return file.toString();
+    }
+
+    private FooterCache footerCache(final long maxFiles) {
+        FooterCache footerCache = new FooterCache();
+        new CommandLine(footerCache).parseArgs("--footer-cache", "--footer-cache-directory", directory.toString(), "--footer-cache-max-files", String.valueOf(maxFiles));
+        return footerCache;
+    }
+
+    @Test
+    public void testFirstUse() throws Exception {
+        // fewer files than the maximum on first use, nothing to evict
+        FooterCache footerCache = footerCache(FooterCache.DEFAULT_MAX_FILES);
+        try (Connection connection = Connections.open("jdbc:duckdb:")) {
+            String table = footerCache.table(connection, FooterCache.METADATA, "parquet_metadata", Arrays.asList(a, b));
+            assertEquals(Arrays.asList(a, b), fileNames(connection, table));
+            assertEquals(Arrays.asList(FooterCache.key(a), FooterCache.key(b)), cachedFileNames(connection));
+        }
+    }
+
+    @Test
+    public void testCached() throws Exception {
+        try (Connection connection = Connections.open("jdbc:duckdb:")) {
+            footerCache(FooterCache.DEFAULT_MAX_FILES).table(connection, FooterCache.METADATA, "parquet_metadata", Arrays.asList(a, b));
+        }
+        try (Connection connection = Connections.open("jdbc:duckdb:")) {
+            String table = footerCache(FooterCache.DEFAULT_MAX_FILES).table(connection, FooterCache.METADATA, "parquet_metadata", Arrays.asList(b, a));
+            assertTrue(table.contains("footer_cache.metadata"));
+            assertEquals(Arrays.asList(b, a), fileNames(connection, table));
+        }
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+        try (Connection connection = Connections.open("jdbc:duckdb:")) {
+            FooterCache footerCache = footerCache(2L);
+            footerCache.table(connection, FooterCache.METADATA, "parquet_metadata", Arrays.asList(a));
+            footerCache.table(connection, FooterCache.METADATA, "parquet_metadata", Arrays.asList(b));
+            String table = footerCache.table(connection, FooterCache.METADATA, "parquet_metadata", Arrays.asList(c));
+            assertEquals(Arrays.asList(c), fileNames(connection, table));
+
+            List<String> cached = cachedFileNames(connection);
+            assertEquals(2, cached.size());
+            assertFalse(cached.contains(FooterCache.key(a)));
+            assertTrue(cached.contains(FooterCache.key(b)));
+            assertTrue(cached.contains(FooterCache.key(c)));
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM footer_cache.metadata WHERE file_name = " + Sql.quoteLiteral(FooterCache.key(a)))) {
+                resultSet.next();
+                assertEquals(0L, resultSet.getLong(1));
+            }
+        }
+    }
+
+    @Test
+    public void testEvictPerKind() throws Exception {
+        try (Connection connection = Connections.open("jdbc:duckdb:")) {
+            FooterCache footerCache = footerCache(2L);
+            footerCache.table(connection, FooterCache.METADATA, "parquet_metadata", Arrays.asList(a, b));
+            footerCache.table(connection, FooterCache.SCHEMA, "parquet_schema", Arrays.asList(c));
+
+            // schema entries do not count against the maximum for metadata
+            assertEquals(Arrays.asList(FooterCache.key(a), FooterCache.key(b), FooterCache.key(c)), cachedFileNames(connection));
+        }
+    }
+
+    @Test
+    public void testDifferentVersion() throws Exception {
+        try (Connection connection = Connections.open("jdbc:duckdb:")) {
+            footerCache(FooterCache.DEFAULT_MAX_FILES).table(connection, FooterCache.METADATA, "parquet_metadata", Arrays.asList(a, b));
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("UPDATE footer_cache.version SET duckdb_version = 'v0.0.0'");
+            }
+        }
+        try (Connection connection = Connections.open("jdbc:duckdb:")) {
+            String table = footerCache(FooterCache.DEFAULT_MAX_FILES).table(connection, FooterCache.METADATA, "parquet_metadata", Arrays.asList(c));
+            assertEquals(Arrays.asList(c), fileNames(connection, table));
+
+            // results cached by a different version of DuckDB are dropped
+            assertEquals(Arrays.asList(FooterCache.key(c)), cachedFileNames(connection));
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM footer_cache.version WHERE duckdb_version = version()")) {
+                resultSet.next();
+                assertEquals(1L, resultSet.getLong(1));
+            }
+        }
+    }
+
+    @Test
+    public void testKey() {
+        assertEquals(new File(a).getAbsoluteFile().toPath().normalize().toString(), FooterCache.key(a));
+        assertEquals(FooterCache.key(a), FooterCache.key(new File(folder.getRoot(), "cache/../a.parquet").toString()));
+    }
+
+    /**
+     * Return the distinct file names of the specified table expression, in order.
+     */
+    private static List<String> fileNames(final Connection connection, final String table) throws Exception {
+        List<String> fileNames = new ArrayList<String>();
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("SELECT file_name FROM " + table)) {
+            while (resultSet.next()) {
+                String fileName = resultSet.getString(1);
+                if (fileNames.isEmpty() || !fileNames.get(fileNames.size() - 1).equals(fileName)) {
+                    fileNames.add(fileName);
+                }
+            }
+        }
+        return fileNames;
+    }
+
+    /**
+     * Return the cached file names, in order.
+     */
+    private static List<String> cachedFileNames(final Connection connection) throws Exception {
+        List<String> fileNames = new ArrayList<String>();
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("SELECT file_name FROM footer_cache.files ORDER BY file_name")) {
+            while (resultSet.next()) {
+                fileNames.add(resultSet.getString(1));
+            }
+        }
+        return fileNames;
+    }
+}
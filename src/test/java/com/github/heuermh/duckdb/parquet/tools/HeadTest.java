@@ -0,0 +1,198 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import picocli.CommandLine;
+
+/**
+ * Unit test for Head.
+ */
+public final class HeadTest {
+    private String input;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /** Input SQL statement, ten row groups. */
+    private static final String INPUT_SQL = "COPY (SELECT i AS id, i %% 10 AS x FROM range(10000) t(i)) TO %s (FORMAT PARQUET, ROW_GROUP_SIZE 1000)";
+
+
+    @Before
+    public void setUp() throws Exception {
+        input = folder.newFile("input.parquet").toString();
+        ConvertTest.query(String.format(INPUT_SQL, Sql.quoteLiteral(input)));
+    }
+
+    /**
+     * Run head with the specified arguments in newline-delimited JSON format, returning the records written.
+     *
+     * @param args command line arguments
+     * @return the records written, one per line
+     */
+    private List<String> head(final String... args) {
+        List<String> commandLine = new ArrayList<String>(Arrays.asList("-i", input, "--ndjson"));
+        commandLine.addAll(Arrays.asList(args));
+
+        PrintStream out = System.out;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try {
+            System.setOut(new PrintStream(buffer, true));
+            assertEquals(0, new CommandLine(new Head()).execute(commandLine.toArray(new String[0])));
+        }
+        finally {
+            System.setOut(out);
+        }
+        String records = new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        return records.isEmpty() ? new ArrayList<String>() : Arrays.asList(records.split("\n"));
+    }
+
+    /**
+     * Return the id of the specified record.
+     */
+    private static long id(final String record) {
+        int start = record.indexOf("\"id\":") + 5;
+        int end = start;
+        while (end < record.length() && Character.isDigit(record.charAt(end))) {
+            end++;
+        }
+        return Long.parseLong(record.substring(start, end));
+    }
+
+    @Test
+    public void testHead() {
+        assertEquals(Arrays.asList("{\"id\":0,\"x\":0}", "{\"id\":1,\"x\":1}", "{\"id\":2,\"x\":2}", "{\"id\":3,\"x\":3}", "{\"id\":4,\"x\":4}"), head());
+    }
+
+    @Test
+    public void testNumber() {
+        assertEquals(12, head("-n", "12").size());
+        assertEquals(0, head("-n", "0").size());
+    }
+
+    @Test
+    public void testColumns() {
+        assertEquals(Arrays.asList("{\"x\":0}", "{\"x\":1}"), head("--columns", "x", "-n", "2"));
+        assertEquals(Arrays.asList("{\"x\":0,\"id\":0}"), head("--columns", "x,id", "-n", "1"));
+    }
+
+    @Test
+    public void testWhere() {
+        assertEquals(Arrays.asList("{\"id\":5003,\"x\":3}", "{\"id\":5013,\"x\":3}"), head("--where", "id > 5000 AND x = 3", "-n", "2"));
+        assertEquals(0, head("--where", "id < 0").size());
+    }
+
+    @Test
+    public void testOffset() {
+        assertEquals(Arrays.asList("{\"id\":7,\"x\":7}", "{\"id\":8,\"x\":8}"), head("--offset", "7", "-n", "2"));
+        assertEquals(Arrays.asList("{\"id\":9999,\"x\":9}"), head("--offset", "9999"));
+    }
+
+    @Test
+    public void testWhereOffset() {
+        assertEquals(Arrays.asList("{\"id\":20}"), head("--columns", "id", "--where", "x = 0", "--offset", "2", "-n", "1"));
+    }
+
+    @Test
+    public void testOffsetValidation() {
+        assertEquals(2, new CommandLine(new Head()).execute("-i", input, "--offset", "-1"));
+        assertEquals(2, new CommandLine(new Head()).execute("-i", input, "--offset", "1", "--sample", "RESERVOIR"));
+    }
+
+    @Test
+    public void testMultipleFiles() throws Exception {
+        // head reads input first, then these files
+        List<String> inputs = new ArrayList<String>(Arrays.asList(input));
+        for (int i = 0; i < 5; i++) {
+            String other = folder.newFile("input" + i + ".parquet").toString();
+            ConvertTest.query(String.format(INPUT_SQL, Sql.quoteLiteral(other)));
+            inputs.add(other);
+        }
+        List<String> args = new ArrayList<String>(inputs.subList(1, inputs.size()));
+        args.addAll(Arrays.asList("-n", "2", "-w", "2", "--sample", "ROW_GROUP", "--seed", "7"));
+        List<String> records = head(args.toArray(new String[0]));
+        assertEquals(records, head(args.toArray(new String[0])));
+
+        // records are written in input order, with file names
+        int i = 0;
+        for (String record : records) {
+            if (!record.contains("\"file_name\":" + JsonRecords.quote(inputs.get(i)))) {
+                i++;
+            }
+            assertTrue(record.startsWith("{\"file_name\":" + JsonRecords.quote(inputs.get(i)) + ","));
+        }
+        assertEquals(5, i);
+    }
+
+    @Test
+    public void testSampleReservoir() {
+        List<String> records = head("--sample", "RESERVOIR", "-n", "10", "--seed", "42");
+        assertEquals(10, records.size());
+        assertEquals(records, head("--sample", "RESERVOIR", "-n", "10", "--seed", "42"));
+    }
+
+    @Test
+    public void testSampleBernoulli() {
+        List<String> records = head("--sample", "BERNOULLI", "--sample-percent", "10", "--seed", "42");
+        assertTrue(records.size() > 500 && records.size() < 1500);
+        assertEquals(records, head("--sample", "BERNOULLI", "--sample-percent", "10", "--seed", "42"));
+        assertEquals(20, head("--sample", "BERNOULLI", "--sample-percent", "10", "-n", "20").size());
+    }
+
+    @Test
+    public void testSampleRowGroup() throws Exception {
+        long rowGroups = ConvertTest.query("SELECT count(DISTINCT row_group_id) FROM parquet_metadata(" + Sql.quoteLiteral(input) + ")");
+        List<String> records = head("--sample", "ROW_GROUP", "-n", "3", "--seed", "42");
+        assertEquals(rowGroups * 3L, records.size());
+        assertEquals(records, head("--sample", "ROW_GROUP", "-n", "3", "--seed", "42"));
+
+        // a run of consecutive records from each row group, in row group order
+        long previous = -1L;
+        for (int i = 0; i < records.size(); i += 3) {
+            long first = id(records.get(i));
+            assertTrue(first > previous);
+            assertEquals(first + 1L, id(records.get(i + 1)));
+            assertEquals(first + 2L, id(records.get(i + 2)));
+            previous = first + 2L;
+        }
+    }
+
+    @Test
+    public void testSampleValidation() {
+        assertEquals(2, new CommandLine(new Head()).execute("-i", input, "--sample", "BERNOULLI"));
+        assertEquals(2, new CommandLine(new Head()).execute("-i", input, "--sample", "RESERVOIR", "--sample-percent", "10"));
+        assertEquals(2, new CommandLine(new Head()).execute("-i", input, "--sample", "SYSTEM", "--sample-percent", "0"));
+        assertEquals(2, new CommandLine(new Head()).execute("-i", input, "--seed", "42"));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * Unit test for JsonRecords.
+ */
+public final class JsonRecordsTest {
+
+    @Test
+    public void testQuote() {
+        assertEquals("\"\"", JsonRecords.quote(""));
+        assertEquals("\"abc\"", JsonRecords.quote("abc"));
+        assertEquals("\"a\\\"b\\\\c\"", JsonRecords.quote("a\"b\\c"));
+        assertEquals("\"\\t\\b\\n\\r\\f\"", JsonRecords.quote("\t\b\n\r\f"));
+        assertEquals("\"\\u0000\\u001f\"", JsonRecords.quote("\u0000\u001f"));
+        assertEquals("\"\\u2028\\u2029\"", JsonRecords.quote("\u2028\u2029"));
+        assertEquals("\"caf\u00e9 \ud83d\ude00\"", JsonRecords.quote("caf\u00e9 \ud83d\ude00"));
+    }
+
+    private static String writeLong(final long value) throws Exception {
+        StringWriter writer = new StringWriter();
+        JsonRecords.writeLong(writer, new char[20], value);
+        return writer.toString();
+    }
+
+    @Test
+    public void testWriteLong() throws Exception {
+        assertEquals("0", writeLong(0L));
+        assertEquals("7", writeLong(7L));
+        assertEquals("-42", writeLong(-42L));
+        assertEquals(String.valueOf(Long.MAX_VALUE), writeLong(Long.MAX_VALUE));
+        assertEquals(String.valueOf(Long.MIN_VALUE), writeLong(Long.MIN_VALUE));
+        assertEquals(String.valueOf(Long.MIN_VALUE + 1L), writeLong(Long.MIN_VALUE + 1L));
+    }
+
+    @Test
+    public void testWriteLongReusesDigits() throws Exception {
+        StringWriter writer = new StringWriter();
+        char[] digits = new char[20];
+        JsonRecords.writeLong(writer, digits, 123456789L);
+        writer.write(',');
+        JsonRecords.writeLong(writer, digits, 5L);
+        assertEquals("123456789,5", writer.toString());
+    }
+
+    @Test
+    public void testIsNumber() {
+        assertTrue(JsonRecords.isNumber("1.5"));
+        assertTrue(JsonRecords.isNumber("-2.0E-5"));
+        assertFalse(JsonRecords.isNumber("NaN"));
+        assertFalse(JsonRecords.isNumber("Infinity"));
+        assertFalse(JsonRecords.isNumber("-Infinity"));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit test for Overlap.
+ */
+public final class OverlapTest {
+
+    private static double overlap(final List<String> lo, final List<String> hi) {
+        return Overlap.overlap(lo, hi);
+    }
+
+    @Test
+    public void testFewerThanTwoRowGroups() {
+        assertNull(Overlap.overlap(Collections.<String>emptyList(), Collections.<String>emptyList()));
+        assertNull(Overlap.overlap(Arrays.asList("1"), Arrays.asList("2")));
+    }
+
+    @Test
+    public void testDisjoint() {
+        assertEquals(0.0d, overlap(Arrays.asList("1", "11", "21"), Arrays.asList("10", "20", "30")), 0.0d);
+        // order of row groups does not matter
+        assertEquals(0.0d, overlap(Arrays.asList("21", "1", "11"), Arrays.asList("30", "10", "20")), 0.0d);
+    }
+
+    @Test
+    public void testIdentical() {
+        assertEquals(1.0d, overlap(Arrays.asList("1", "1", "1"), Arrays.asList("30", "30", "30")), 0.0d);
+    }
+
+    @Test
+    public void testTouching() {
+        // ranges sharing an endpoint overlap
+        assertEquals(1.0d, overlap(Arrays.asList("1", "10"), Arrays.asList("10", "20")), 0.0d);
+    }
+
+    @Test
+    public void testPartial() {
+        // only the first two of three pairs overlap
+        assertEquals(1.0d / 3.0d, overlap(Arrays.asList("1", "5", "20"), Arrays.asList("10", "15", "30")), 1.0e-9d);
+    }
+
+    @Test
+    public void testNumeric() {
+        // compared as numbers, not strings, where "9" > "10"
+        assertEquals(0.0d, overlap(Arrays.asList("2", "10"), Arrays.asList("9", "20")), 0.0d);
+        assertEquals(0.0d, overlap(Arrays.asList("-1.5", "0.5"), Arrays.asList("-0.5", "1.5")), 0.0d);
+    }
+
+    @Test
+    public void testStrings() {
+        assertEquals(0.0d, overlap(Arrays.asList("2024-01-01", "2024-02-01"), Arrays.asList("2024-01-31", "2024-02-29")), 0.0d);
+        assertEquals(1.0d, overlap(Arrays.asList("apple", "banana"), Arrays.asList("cherry", "date")), 0.0d);
+    }
+
+    @Test
+    public void testMissingStatistics() {
+        // a row group without statistics overlaps all others
+        assertEquals(2.0d / 3.0d, overlap(Arrays.asList("1", "11", null), Arrays.asList("10", "20", null)), 1.0e-9d);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit test for ParquetFooter.
+ */
+public final class ParquetFooterTest {
+    private File parquetFile;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /** Fixture SQL statement, two columns in two row groups. */
+    static final String FIXTURE_SQL = "COPY (SELECT i AS id, 'name' || (i % 10) AS name FROM range(1000) t(i)) TO %s (FORMAT PARQUET, ROW_GROUP_SIZE 500)";
+
+    /** Column chunks SQL query. */
+    private static final String CHUNKS_SQL = "SELECT row_group_id, column_id, num_values, data_page_offset, total_compressed_size FROM parquet_metadata(%s) ORDER BY row_group_id, column_id";
+
+
+    @Before
+    public void setUp() throws Exception {
+        parquetFile = folder.newFile("fixture.parquet");
+        fixture(parquetFile);
+    }
+
+    /**
+     * Write a small Parquet fixture file, two columns in two row groups of 500 rows, with DuckDB.
+     *
+     * @param file file to write
+     * @throws Exception if an error occurs
+     */
+    static void fixture(final File file) throws Exception {
+        try (Connection connection = Connections.open("jdbc:duckdb:"); Statement statement = connection.createStatement()) {
+            statement.execute(String.format(FIXTURE_SQL, Sql.quoteLiteral(file.toString())));
+        }
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        ParquetFooter.FileMetaData fileMetaData = ParquetFooter.read(parquetFile.toPath());
+        assertEquals(1000L, fileMetaData.numRows);
+        assertEquals(2, fileMetaData.rowGroups.size());
+
+        // root element, then one element per column
+        assertEquals(3, fileMetaData.schema.size());
+        assertEquals(2, (int) fileMetaData.schema.get(0).numChildren);
+        assertEquals("id", fileMetaData.schema.get(1).name);
+        assertEquals("INT64", ParquetFooter.name(ParquetFooter.TYPES, fileMetaData.schema.get(1).type));
+        assertEquals("name", fileMetaData.schema.get(2).name);
+        assertEquals("BYTE_ARRAY", ParquetFooter.name(ParquetFooter.TYPES, fileMetaData.schema.get(2).type));
+        assertEquals("STRING", ParquetFooter.name(ParquetFooter.LOGICAL_TYPES, fileMetaData.schema.get(2).logicalType.kind));
+
+        for (ParquetFooter.RowGroup rowGroup : fileMetaData.rowGroups) {
+            assertEquals(500L, rowGroup.numRows);
+            assertEquals(2, rowGroup.columns.size());
+        }
+    }
+
+    @Test
+    public void testReadMatchesParquetMetadata() throws Exception {
+        ParquetFooter.FileMetaData fileMetaData = ParquetFooter.read(parquetFile.toPath());
+        int chunks = 0;
+        try (Connection connection = Connections.open("jdbc:duckdb:"); Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery(String.format(CHUNKS_SQL, Sql.quoteLiteral(parquetFile.toString())))) {
+                while (resultSet.next()) {
+                    ParquetFooter.ColumnMetaData columnMetaData = fileMetaData.rowGroups.get(resultSet.getInt("row_group_id")).columns.get(resultSet.getInt("column_id")).metaData;
+                    assertEquals(resultSet.getLong("num_values"), columnMetaData.numValues);
+                    assertEquals(resultSet.getLong("data_page_offset"), columnMetaData.dataPageOffset);
+                    assertEquals(resultSet.getLong("total_compressed_size"), columnMetaData.totalCompressedSize);
+                    chunks++;
+                }
+            }
+        }
+        assertEquals(4, chunks);
+    }
+
+    @Test
+    public void testName() {
+        assertEquals("ZSTD", ParquetFooter.name(ParquetFooter.CODECS, 6));
+        assertNull(ParquetFooter.name(ParquetFooter.CODECS, null));
+    }
+
+    @Test
+    public void testReadNotParquet() throws Exception {
+        File file = folder.newFile("not.parquet");
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.write("not a Parquet file".getBytes("UTF-8"));
+        }
+        expectIOException(file);
+    }
+
+    @Test
+    public void testReadTooSmall() throws Exception {
+        File file = folder.newFile("small.parquet");
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.write("PAR1".getBytes("UTF-8"));
+        }
+        expectIOException(file);
+    }
+
+    @Test
+    public void testReadInvalidFooterLength() throws Exception {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(parquetFile, "rw")) {
+            randomAccessFile.seek(randomAccessFile.length() - 8L);
+            randomAccessFile.write(new byte[] { (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0x7f });
+        }
+        expectIOException(parquetFile);
+    }
+
+    @Test
+    public void testReadCorruptFooter() throws Exception {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(parquetFile, "rw")) {
+            randomAccessFile.seek(randomAccessFile.length() - 8L);
+            int length = Integer.reverseBytes(randomAccessFile.readInt());
+            byte[] corrupt = new byte[length];
+            Arrays.fill(corrupt, (byte) 0xff);
+            randomAccessFile.seek(randomAccessFile.length() - 8L - length);
+            randomAccessFile.write(corrupt);
+        }
+        expectIOException(parquetFile);
+    }
+
+    private static void expectIOException(final File file) {
+        try {
+            ParquetFooter.read(file.toPath());
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            // expected
+        }
+    }
+}
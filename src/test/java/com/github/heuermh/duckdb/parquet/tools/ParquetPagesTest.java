@@ -0,0 +1,113 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.file.StandardOpenOption;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit test for ParquetPages.
+ */
+public final class ParquetPagesTest {
+    private File parquetFile;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+
+    @Before
+    public void setUp() throws Exception {
+        parquetFile = folder.newFile("fixture.parquet");
+        ParquetFooterTest.fixture(parquetFile);
+    }
+
+    @Test
+    public void testStart() {
+        assertEquals(4L, ParquetPages.start(null, 4L));
+        assertEquals(4L, ParquetPages.start(0L, 4L));
+        assertEquals(4L, ParquetPages.start(8L, 4L));
+        assertEquals(2L, ParquetPages.start(2L, 4L));
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        ParquetFooter.FileMetaData fileMetaData = ParquetFooter.read(parquetFile.toPath());
+        try (FileChannel channel = FileChannel.open(parquetFile.toPath(), StandardOpenOption.READ)) {
+            for (ParquetFooter.RowGroup rowGroup : fileMetaData.rowGroups) {
+                for (ParquetFooter.ColumnChunk columnChunk : rowGroup.columns) {
+                    ParquetFooter.ColumnMetaData columnMetaData = columnChunk.metaData;
+                    long start = ParquetPages.start(columnMetaData);
+                    List<ParquetPages.PageHeader> pageHeaders = ParquetPages.read(channel, start, columnMetaData.totalCompressedSize);
+                    assertTrue(pageHeaders.size() > 0);
+                    assertEquals(start, pageHeaders.get(0).offset);
+
+                    long numValues = 0L;
+                    long end = start;
+                    for (ParquetPages.PageHeader pageHeader : pageHeaders) {
+                        assertEquals(end, pageHeader.offset);
+                        end = pageHeader.offset + pageHeader.headerLength + pageHeader.compressedPageSize;
+                        if (pageHeader.isDataPage()) {
+                            numValues += pageHeader.numValues;
+                        }
+                        assertTrue(ParquetPages.checkCrc(channel, pageHeader));
+                    }
+                    assertEquals(start + columnMetaData.totalCompressedSize, end);
+                    assertEquals(columnMetaData.numValues, numValues);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReadPastEndOfFile() throws Exception {
+        try (FileChannel channel = FileChannel.open(parquetFile.toPath(), StandardOpenOption.READ)) {
+            ParquetPages.read(channel, 4L, channel.size());
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testReadShortColumnChunk() throws Exception {
+        ParquetFooter.ColumnMetaData columnMetaData = ParquetFooter.read(parquetFile.toPath()).rowGroups.get(0).columns.get(0).metaData;
+        try (FileChannel channel = FileChannel.open(parquetFile.toPath(), StandardOpenOption.READ)) {
+            // page data extends past the end of a column chunk one byte shorter than its total compressed size
+            ParquetPages.read(channel, ParquetPages.start(columnMetaData), columnMetaData.totalCompressedSize - 1L);
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            // expected
+        }
+    }
+}
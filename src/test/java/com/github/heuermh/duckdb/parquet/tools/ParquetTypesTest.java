@@ -0,0 +1,36 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Unit test for ParquetTypes.
+ */
+public final class ParquetTypesTest {
+
+    @Test
+    public void testBlob() {
+        assertEquals("", ParquetTypes.blob(new byte[0]));
+        assertEquals("abc ~", ParquetTypes.blob("abc ~".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("\\x5C\\x27\\x22", ParquetTypes.blob("\\'\"".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("\\x00\\x1F\\x7F\\x80\\xFF", ParquetTypes.blob(new byte[] { 0x00, 0x1f, 0x7f, (byte) 0x80, (byte) 0xff }));
+    }
+}
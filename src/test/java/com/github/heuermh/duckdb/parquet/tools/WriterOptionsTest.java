@@ -0,0 +1,124 @@
+/*
+ * The authors of this file license it to you under the
+ * Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You
+ * may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.github.heuermh.duckdb.parquet.tools;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import picocli.CommandLine;
+import picocli.CommandLine.ParameterException;
+
+/**
+ * Unit test for WriterOptions.
+ */
+public final class WriterOptionsTest {
+
+    private static WriterOptions writerOptions(final String... args) {
+        WriterOptions writerOptions = new WriterOptions();
+        CommandLine commandLine = new CommandLine(writerOptions);
+        commandLine.parseArgs(args);
+        writerOptions.validate(commandLine);
+        return writerOptions;
+    }
+
+    private static void expectParameterException(final String... args) {
+        try {
+            writerOptions(args);
+            fail("expected ParameterException");
+        }
+        catch (ParameterException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testValidateDefaults() {
+        WriterOptions writerOptions = writerOptions();
+        assertFalse(writerOptions.isDirectory());
+        assertTrue(writerOptions.copyOptions().startsWith("FORMAT 'PARQUET', CODEC 'ZSTD'"));
+    }
+
+    @Test
+    public void testValidate() {
+        WriterOptions writerOptions = writerOptions("--compression-level", "19", "--row-group-size", "1000", "--row-group-size-bytes", "128MB",
+                                                    "--dictionary-size-limit", "0", "--string-dictionary-page-size-limit", "1024",
+                                                    "--bloom-filter-false-positive-ratio", "0.01", "--parquet-version", "V2");
+        String copyOptions = writerOptions.copyOptions();
+        assertTrue(copyOptions.contains("COMPRESSION_LEVEL 19"));
+        assertTrue(copyOptions.contains("ROW_GROUP_SIZE 1000"));
+        assertTrue(copyOptions.contains("ROW_GROUP_SIZE_BYTES '128MB'"));
+        assertTrue(copyOptions.contains("BLOOM_FILTER_FALSE_POSITIVE_RATIO 0.01"));
+        assertTrue(copyOptions.contains("PARQUET_VERSION V2"));
+    }
+
+    @Test
+    public void testValidateCompressionLevelCodec() {
+        expectParameterException("--codec", "SNAPPY", "--compression-level", "3");
+    }
+
+    @Test
+    public void testValidateCompressionLevelRange() {
+        expectParameterException("--compression-level", "0");
+        expectParameterException("--compression-level", "23");
+    }
+
+    @Test
+    public void testValidateRowGroupSize() {
+        expectParameterException("--row-group-size", "0");
+    }
+
+    @Test
+    public void testValidateRowGroupSizeBytes() {
+        writerOptions("--row-group-size-bytes", "64KiB");
+        writerOptions("--row-group-size-bytes", "1000");
+        expectParameterException("--row-group-size-bytes", "big");
+    }
+
+    @Test
+    public void testValidateDictionarySizeLimit() {
+        expectParameterException("--dictionary-size-limit", "-1");
+        expectParameterException("--string-dictionary-page-size-limit", "0");
+    }
+
+    @Test
+    public void testValidateBloomFilterFalsePositiveRatio() {
+        expectParameterException("--bloom-filter-false-positive-ratio", "0.0");
+        expectParameterException("--bloom-filter-false-positive-ratio", "1.0");
+    }
+
+    @Test
+    public void testValidateFileSplits() {
+        assertTrue(writerOptions("--max-file-size", "1GB").isDirectory());
+        assertTrue(writerOptions("--rows-per-file", "100").isDirectory());
+        assertTrue(writerOptions("--partition-by", "a,b").isDirectory());
+        expectParameterException("--max-file-size", "1 gigabyte");
+        expectParameterException("--rows-per-file", "0");
+    }
+
+    @Test
+    public void testRowsPerFileRoundsUpToRowGroups() {
+        assertTrue(writerOptions("--row-group-size", "100", "--rows-per-file", "250").copyOptions().contains("ROW_GROUPS_PER_FILE 3"));
+    }
+
+    @Test
+    public void testKeyValueMetadataQuoted() {
+        String copyOptions = writerOptions("--partition-by", "it's").copyOptions();
+        assertTrue(copyOptions.contains("KV_METADATA {'" + WriterOptions.KV_METADATA_KEY + "': '--codec ZSTD --partition-by it''s'}"));
+    }
+}